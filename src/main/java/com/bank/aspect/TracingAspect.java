@@ -0,0 +1,165 @@
+package com.bank.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Times every controller and service call into a latency histogram per method (app.method.latency, tagged by
+// layer, class and method). Arguments and results are only rendered for calls that are sampled or slower than
+// the threshold, with credentials and JWTs masked and the text cut at max-detail-length; other calls cost two
+// clock reads and a histogram update. Failures are logged with their message only. Passwords and tokens are
+// left out of the toString() of the types that carry them, since a pattern cannot tell where a secret
+// containing delimiters ends; the redacted-fields pattern only covers other text, such as raw JSON.
+@Aspect
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingAspect {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TracingAspect.class);
+    private static final Pattern JWT = Pattern.compile("eyJ[\\w-]*\\.[\\w-]*\\.[\\w-]*");
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.tracing.sample-rate}")
+    private double sampleRate;
+    
+    @Value("${app.tracing.slow-threshold-ms}")
+    private long slowThresholdMs;
+    
+    @Value("${app.tracing.max-detail-length}")
+    private int maxDetailLength;
+    
+    @Value("${app.tracing.redacted-fields}")
+    private String[] redactedFields;
+    
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+    private long slowThresholdNanos;
+    private Pattern redacted;
+    
+    @PostConstruct
+    public void init() {
+        slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        String fields = Arrays.stream(redactedFields)
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        // Matches name=value in toString() output and "name":"value" in JSON, up to the end of the value
+        redacted = fields.isEmpty() ? null : Pattern.compile("(?i)\\b(" + fields + ")(\"?\\s*[=:]\\s*\"?)[^,)}\"]*");
+    }
+    
+    @Pointcut("within(@org.springframework.web.bind.annotation.RestController *)")
+    public void restControllerPointcut() {
+    }
+    
+    @Pointcut("within(@org.springframework.stereotype.Service *)")
+    public void servicePointcut() {
+    }
+    
+    @Around("restControllerPointcut()")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "controller");
+    }
+    
+    @Around("servicePointcut()")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "service");
+    }
+    
+    private Object trace(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        long start = System.nanoTime();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            Timer timer = timers.get(method);
+            if (timer == null) {
+                timer = timers.computeIfAbsent(method, m -> timer(m, layer));
+            }
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+            
+            boolean slow = elapsed >= slowThresholdNanos;
+            if (slow || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+                logDetail(joinPoint, method, layer, elapsed, slow, result, failure);
+            } else if (failure != null) {
+                logger.warn("Exception in {} {}.{}() after {} ms: {}", layer,
+                        method.getDeclaringClass().getSimpleName(), method.getName(), millis(elapsed),
+                        render(failure.getMessage()));
+            }
+        }
+    }
+    
+    private void logDetail(ProceedingJoinPoint joinPoint, Method method, String layer, long elapsed, boolean slow,
+                           Object result, Throwable failure) {
+        String outcome = failure != null ? "exception = " + render(failure.getMessage()) : "result = " + render(result);
+        if (slow) {
+            logger.warn("Slow {} {}.{}() took {} ms with arguments = {} | {}", layer,
+                    method.getDeclaringClass().getSimpleName(), method.getName(), millis(elapsed),
+                    render(joinPoint.getArgs()), outcome);
+        } else {
+            logger.info("Sampled {} {}.{}() took {} ms with arguments = {} | {}", layer,
+                    method.getDeclaringClass().getSimpleName(), method.getName(), millis(elapsed),
+                    render(joinPoint.getArgs()), outcome);
+        }
+    }
+    
+    private Timer timer(Method method, String layer) {
+        return Timer.builder("app.method.latency")
+                .description("Controller and service method latency")
+                .tag("layer", layer)
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    // Entities with lazy associations cannot always be printed outside their session, so rendering never throws
+    String render(Object value) {
+        String text;
+        try {
+            text = value instanceof Object[] args ? Arrays.deepToString(args) : String.valueOf(value);
+        } catch (RuntimeException ex) {
+            return value.getClass().getSimpleName() + "(not printable: " + ex.getClass().getSimpleName() + ")";
+        }
+        if (redacted != null) {
+            text = redacted.matcher(text).replaceAll("$1$2***");
+        }
+        text = JWT.matcher(text).replaceAll("***");
+        if (text.length() > maxDetailLength) {
+            return text.substring(0, maxDetailLength) + "... (" + text.length() + " chars)";
+        }
+        return text;
+    }
+    
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,112 @@
+package com.bank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// The primary pool is built from spring.datasource.* as Spring Boot would; read replicas, when configured,
+// get their own pools and receive the read-only transactions.
+@Configuration
+public class DataSourceConfig {
+    
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+    
+    @Value("${app.datasource.replicas.username}")
+    private String replicaUsername;
+    
+    @Value("${app.datasource.replicas.password}")
+    private String replicaPassword;
+    
+    @Value("${app.datasource.replicas.pool-size}")
+    private int replicaPoolSize;
+    
+    @Value("${app.datasource.replicas.max-lag-ms}")
+    private long maxLagMs;
+    
+    @Value("${app.datasource.replicas.check-interval-ms}")
+    private long checkIntervalMs;
+    
+    private HikariDataSource primary;
+    private ReplicaRoutingDataSource replicaRouting;
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 MeterRegistry meterRegistry) {
+        primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (replicaUrls.isEmpty()) {
+            return primary;
+        }
+        
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            // An unreachable replica is marked unhealthy instead of failing startup
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        replicaRouting = new ReplicaRoutingDataSource(primary, replicas, maxLagMs, meterRegistry);
+        replicaRouting.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(replicaRouting);
+    }
+    
+    // Set before the factory bean initializes, so the transaction manager picks the dialect up from it
+    @Bean
+    public static BeanPostProcessor replicaReadJpaDialect(@Value("${app.datasource.replicas.urls}") List<String> urls) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (!urls.isEmpty() && bean instanceof AbstractEntityManagerFactoryBean factory) {
+                    factory.setJpaDialect(new ReplicaReadJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+    
+    // Reads stay on the primary until the first check, which runs once migrations have created the heartbeat table
+    @EventListener(ApplicationReadyEvent.class)
+    public void startReplicaChecks() {
+        if (replicaRouting != null) {
+            replicaRouting.start(checkIntervalMs);
+        }
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        if (replicaRouting != null) {
+            replicaRouting.close();
+        }
+        if (primary != null) {
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bank.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+// Second-level cache regions for customers and accounts, held in a Caffeine JCache that belongs to this
+// application context. Every region is created here and Hibernate fails on any it does not find, so an entity
+// cannot end up in an unbounded region by accident.
+@Configuration
+public class EntityCacheConfig {
+    
+    public static final String CUSTOMERS = "customers";
+    public static final String CUSTOMER_USERNAMES = "customer-usernames";
+    public static final String ACCOUNTS = "accounts";
+    public static final String ACCOUNT_NUMBERS = "account-numbers";
+    
+    private static final List<String> REGIONS = List.of(CUSTOMERS, CUSTOMER_USERNAMES, ACCOUNTS, ACCOUNT_NUMBERS);
+    
+    @Value("${app.cache.enabled}")
+    private boolean enabled;
+    
+    @Value("${app.cache.max-entries}")
+    private long maxEntries;
+    
+    @Value("${app.cache.ttl-seconds}")
+    private long ttlSeconds;
+    
+    // A provider of our own rather than Caching.getCachingProvider(), whose managers are shared JVM-wide
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            // Hibernate caches immutable disassembled state, so copying it on every access buys nothing
+            configuration.setStoreByValue(false);
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
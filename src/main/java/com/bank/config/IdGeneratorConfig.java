@@ -0,0 +1,38 @@
+package com.bank.config;
+
+import com.bank.util.AccountNumberGenerator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+    
+    @Value("${app.id.node-id:}")
+    private Long nodeId;
+    
+    @Value("${spring.datasource.driverClassName:}")
+    private String driverClassName;
+    
+    @Value("${spring.datasource.url}")
+    private String url;
+    
+    @PostConstruct
+    public void configureNodeId() {
+        AccountNumberGenerator.useNodeId(resolveNodeId(nodeId, !EmbeddedDatabaseConnection.isEmbedded(driverClassName, url)));
+    }
+    
+    // Ids are only unique per node id, so any instance that shares its database with others has to be told which
+    // one it is rather than silently falling back to 0
+    static long resolveNodeId(Long configured, boolean sharedDatabase) {
+        if (configured != null) {
+            return configured;
+        }
+        if (sharedDatabase) {
+            throw new IllegalStateException("app.id.node-id (NODE_ID) must be set when the database is not embedded; "
+                    + "give every instance a distinct value between 0 and 1023");
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bank.config;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+// H2 reports a lock timeout as an SQLTimeoutException, which Hikari takes for a dead connection and closes. The
+// transaction then cannot even be rolled back, so the lock manager never sees the timeout and cannot retry it.
+// The connection is fine; only the waiting statement failed.
+public class LockTimeoutExceptionOverride implements SQLExceptionOverride {
+    
+    private static final int H2_LOCK_TIMEOUT = 50200;
+    
+    public SQLExceptionOverride.Override adjudicate(SQLException ex) {
+        return ex.getErrorCode() == H2_LOCK_TIMEOUT ? Override.DO_NOT_EVICT : Override.CONTINUE_EVICT;
+    }
+}
@@ -0,0 +1,169 @@
+package com.bank.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends connections for read-only transactions to the replicas in turn and everything else to the primary.
+// Every check interval the primary's heartbeat row in ledger_checkpoints is set to the current time and read
+// back from each replica: a replica whose copy is older than maxLagMs, or that cannot be read, is skipped until
+// it catches up, and reads fall back to the primary when no replica is healthy. The transaction's read-only
+// flag is only set after its connection is requested, so this must sit behind a LazyConnectionDataSourceProxy.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    
+    static final String HEARTBEAT = "replica-heartbeat";
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String PRIMARY = "primary";
+    
+    private final JdbcTemplate primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Counter primaryWrites;
+    private final Counter primaryReads;
+    private ScheduledExecutorService scheduler;
+    
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final Counter reads;
+        private volatile boolean healthy;
+        // -1 until the heartbeat has been read
+        private volatile long lagMs = -1;
+        
+        private Replica(String name, DataSource dataSource, Counter reads) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.reads = reads;
+        }
+    }
+    
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long maxLagMs,
+                                    MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.maxLagMs = maxLagMs;
+        this.primaryWrites = connections(meterRegistry, PRIMARY, "write");
+        this.primaryReads = connections(meterRegistry, PRIMARY, "read");
+        
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicas.get(i),
+                    connections(meterRegistry, "replica-" + i, "read"));
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMs)
+                    .description("Age of the replica's copy of the primary heartbeat, -1 when unreadable")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            this.replicas.add(replica);
+            targets.put(replica.name, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+    
+    // Replicas are skipped until the first check
+    public void start(long checkIntervalMs) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryWrites.increment();
+            return PRIMARY;
+        }
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.healthy) {
+                replica.reads.increment();
+                return replica.name;
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+    
+    public void checkReplicas() {
+        long now = System.currentTimeMillis();
+        try {
+            writeHeartbeat(now);
+        } catch (DataAccessException ex) {
+            logger.warn("Could not write the replica heartbeat: {}", ex.getMessage());
+        }
+        
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try {
+                List<Long> heartbeat = replica.jdbcTemplate.queryForList(
+                        "SELECT applied_sequence FROM ledger_checkpoints WHERE name = ?", Long.class, HEARTBEAT);
+                replica.lagMs = heartbeat.isEmpty() ? -1 : Math.max(0, now - heartbeat.get(0));
+                healthy = !heartbeat.isEmpty() && replica.lagMs <= maxLagMs;
+            } catch (DataAccessException ex) {
+                replica.lagMs = -1;
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                logger.warn("Read replica {} is now {} (lag {} ms)", replica.name,
+                        healthy ? "in use" : "skipped", replica.lagMs);
+            }
+            replica.healthy = healthy;
+        }
+    }
+    
+    private void writeHeartbeat(long now) {
+        if (primary.update("UPDATE ledger_checkpoints SET applied_sequence = ? WHERE name = ?", now, HEARTBEAT) == 0) {
+            primary.update("INSERT INTO ledger_checkpoints (name, applied_sequence) VALUES (?, ?)", HEARTBEAT, now);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    private static Counter connections(MeterRegistry meterRegistry, String target, String access) {
+        return Counter.builder("datasource.connections")
+                .description("Connections handed out per target database")
+                .tag("target", target)
+                .tag("access", access)
+                .register(meterRegistry);
+    }
+}
@@ -2,10 +2,12 @@ package com.bank.controller;
 
 import com.bank.dto.request.CustomerRegistrationRequest;
 import com.bank.dto.request.LoginRequest;
+import com.bank.dto.request.RefreshTokenRequest;
 import com.bank.dto.response.ApiResponse;
 import com.bank.dto.response.CustomerResponse;
 import com.bank.dto.response.DashboardResponse;
 import com.bank.dto.response.LoginResponse;
+import com.bank.dto.response.TokenResponse;
 import com.bank.security.UserPrincipal;
 import com.bank.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -44,6 +46,14 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("Login successful", response));
     }
     
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new access token and refresh token")
+    public ResponseEntity<ApiResponse<TokenResponse>> refresh(
+            @Valid @RequestBody RefreshTokenRequest request) {
+        TokenResponse response = authService.refresh(request);
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed successfully", response));
+    }
+    
     @GetMapping("/dashboard")
     @Operation(summary = "Get customer dashboard with summary")
     public ResponseEntity<ApiResponse<DashboardResponse>> getDashboard(
@@ -53,8 +63,12 @@ public class AuthController {
     }
     
     @PostMapping("/logout")
-    @Operation(summary = "Logout (client should discard token)")
-    public ResponseEntity<ApiResponse<String>> logout() {
+    @Operation(summary = "Logout and revoke the session's access and refresh tokens")
+    public ResponseEntity<ApiResponse<String>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            authService.logout(authorization.substring(7));
+        }
         return ResponseEntity.ok(ApiResponse.success("Logout successful", "Token invalidated"));
     }
 }
@@ -1,24 +1,35 @@
 package com.bank.controller;
 
+import com.bank.dto.request.BatchTransactionRequest;
 import com.bank.dto.request.DepositRequest;
 import com.bank.dto.request.FundTransferRequest;
 import com.bank.dto.request.WithdrawalRequest;
 import com.bank.dto.response.ApiResponse;
+import com.bank.dto.response.BalanceResponse;
+import com.bank.dto.response.BatchTransactionResponse;
+import com.bank.dto.response.CursorPagedResponse;
 import com.bank.dto.response.PagedResponse;
 import com.bank.dto.response.TransactionResponse;
+import com.bank.entity.Transaction;
 import com.bank.security.UserPrincipal;
+import com.bank.service.BatchTransactionService;
+import com.bank.service.StatementExportService;
 import com.bank.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -27,6 +38,8 @@ import java.time.LocalDateTime;
 public class TransactionController {
     
     private final TransactionService transactionService;
+    private final BatchTransactionService batchTransactionService;
+    private final StatementExportService statementExportService;
     
     @PostMapping("/deposit")
     @Operation(summary = "Deposit money into an account")
@@ -58,33 +71,118 @@ public class TransactionController {
             @AuthenticationPrincipal UserPrincipal currentUser,
             @Valid @RequestBody FundTransferRequest request) {
         TransactionResponse response = transactionService.fundTransfer(currentUser.getId(), request);
+        if (response.getStatus() == Transaction.TransactionStatus.PENDING) {
+            return new ResponseEntity<>(
+                    ApiResponse.success("Fund transfer accepted", response),
+                    HttpStatus.ACCEPTED
+            );
+        }
         return new ResponseEntity<>(
                 ApiResponse.success("Fund transfer successful", response),
                 HttpStatus.CREATED
         );
     }
     
+    @PostMapping("/batch")
+    @Operation(summary = "Apply a batch of deposits, withdrawals and transfers")
+    public ResponseEntity<ApiResponse<BatchTransactionResponse>> processBatch(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @Valid @RequestBody BatchTransactionRequest request) {
+        BatchTransactionResponse response = batchTransactionService.processBatch(currentUser.getId(), request);
+        return ResponseEntity.ok(ApiResponse.success("Batch processed", response));
+    }
+    
+    @GetMapping("/{transactionId}")
+    @Operation(summary = "Get a transaction, including the status of an accepted transfer")
+    public ResponseEntity<ApiResponse<TransactionResponse>> getTransaction(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable String transactionId) {
+        TransactionResponse response = transactionService.getTransaction(currentUser.getId(), transactionId);
+        return ResponseEntity.ok(ApiResponse.success("Transaction fetched successfully", response));
+    }
+    
     @GetMapping("/statement")
     @Operation(summary = "Get account statement with pagination")
-    public ResponseEntity<ApiResponse<PagedResponse<TransactionResponse>>> getAccountStatement(
+    public ResponseEntity<ApiResponse<?>> getAccountStatement(
             @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam String accountNumber,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        // Passing a cursor, empty for the first page, switches to keyset pagination without totals
+        if (cursor != null) {
+            CursorPagedResponse<TransactionResponse> response = transactionService.getAccountStatement(
+                    currentUser.getId(), accountNumber, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success("Account statement fetched successfully", response));
+        }
         PagedResponse<TransactionResponse> response = transactionService.getAccountStatement(
                 currentUser.getId(), accountNumber, page, size);
         return ResponseEntity.ok(ApiResponse.success("Account statement fetched successfully", response));
     }
     
+    @GetMapping("/statement/export")
+    @Operation(summary = "Stream an account's full statement, or a date range of it, as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StatementExportService.Format exportFormat = StatementExportService.Format.of(format);
+        Long accountId = statementExportService.getExportableAccountId(currentUser.getId(), accountNumber);
+        
+        // No Content-Length, so the body goes out chunked as the writer's buffer fills
+        StreamingResponseBody body = out -> {
+            if (!gzip) {
+                statementExportService.export(accountId, accountNumber, startDate, endDate, exportFormat, out);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+            statementExportService.export(accountId, accountNumber, startDate, endDate, exportFormat, compressed);
+            compressed.finish();
+        };
+        
+        boolean csv = exportFormat == StatementExportService.Format.CSV;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"statement-" + accountNumber +
+                        (csv ? ".csv" : ".ndjson") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
+    @GetMapping("/balance")
+    @Operation(summary = "Get an account's balance as of a point in time")
+    public ResponseEntity<ApiResponse<BalanceResponse>> getBalanceAt(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        BalanceResponse response = BalanceResponse.builder()
+                .accountNumber(accountNumber)
+                .asOf(at)
+                .balance(transactionService.getBalanceAt(currentUser.getId(), accountNumber, at))
+                .build();
+        return ResponseEntity.ok(ApiResponse.success("Balance fetched successfully", response));
+    }
+    
     @GetMapping("/history")
     @Operation(summary = "Get transaction history with date range and pagination")
-    public ResponseEntity<ApiResponse<PagedResponse<TransactionResponse>>> getTransactionHistory(
+    public ResponseEntity<ApiResponse<?>> getTransactionHistory(
             @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam String accountNumber,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            CursorPagedResponse<TransactionResponse> response = transactionService.getTransactionHistory(
+                    currentUser.getId(), accountNumber, startDate, endDate, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success("Transaction history fetched successfully", response));
+        }
         PagedResponse<TransactionResponse> response = transactionService.getTransactionHistory(
                 currentUser.getId(), accountNumber, startDate, endDate, page, size);
         return ResponseEntity.ok(ApiResponse.success("Transaction history fetched successfully", response));
@@ -0,0 +1,40 @@
+package com.bank.dto.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchItemRequest {
+    
+    @NotNull(message = "Type is required")
+    private ItemType type;
+    
+    // For deposits and withdrawals
+    private String accountNumber;
+    
+    // For transfers
+    private String fromAccountNumber;
+    
+    private String toAccountNumber;
+    
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+    
+    @Size(max = 500, message = "Description cannot exceed 500 characters")
+    private String description;
+    
+    public enum ItemType {
+        DEPOSIT, WITHDRAWAL, TRANSFER
+    }
+}
@@ -0,0 +1,22 @@
+package com.bank.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransactionRequest {
+    
+    // Items are validated one by one so a bad item fails on its own instead of rejecting the batch
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 10000, message = "A batch cannot contain more than 10000 items")
+    private List<BatchItemRequest> items;
+}
@@ -0,0 +1,19 @@
+package com.bank.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshTokenRequest {
+    
+    @NotBlank(message = "Refresh token is required")
+    @ToString.Exclude
+    private String refreshToken;
+}
@@ -0,0 +1,19 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceResponse {
+    private String accountNumber;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+}
@@ -0,0 +1,28 @@
+package com.bank.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPagedResponse<T> {
+    private List<T> content;
+    private int pageSize;
+    // Pass back as the cursor parameter to fetch the next page; null on the last page
+    private String nextCursor;
+    private boolean last;
+    // Account balance before the first and after the last posting in range, on the first page of statements and
+    // histories only
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal openingBalance;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal closingBalance;
+}
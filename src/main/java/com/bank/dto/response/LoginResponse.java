@@ -4,13 +4,18 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class LoginResponse {
+    @ToString.Exclude
     private String token;
     private String tokenType = "Bearer";
+    @ToString.Exclude
+    private String refreshToken;
+    private long expiresIn;
     private CustomerResponse customer;
 }
@@ -1,10 +1,12 @@
 package com.bank.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -19,4 +21,10 @@ public class PagedResponse<T> {
     private int totalPages;
     private boolean last;
     private boolean first;
+    // Account balance before the first and after the last posting in range, on the first page of statements and
+    // histories only
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal openingBalance;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal closingBalance;
 }
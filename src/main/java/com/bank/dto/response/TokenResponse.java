@@ -0,0 +1,20 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenResponse {
+    @ToString.Exclude
+    private String token;
+    private String tokenType;
+    @ToString.Exclude
+    private String refreshToken;
+    private long expiresIn;
+}
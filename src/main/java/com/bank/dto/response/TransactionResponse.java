@@ -25,5 +25,6 @@ public class TransactionResponse {
     private String accountNumber;
     private String fromAccountNumber;
     private String toAccountNumber;
+    private String failureReason;
     private LocalDateTime createdAt;
 }
@@ -1,10 +1,17 @@
 package com.bank.entity;
 
+import com.bank.config.EntityCacheConfig;
+import com.bank.security.CustomerChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -19,12 +26,15 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, CustomerChangeListener.class})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.CUSTOMERS)
+@NaturalIdCache(region = EntityCacheConfig.CUSTOMER_USERNAMES)
 public class Customer {
     //feature from branch feature-3
     //this are the just some comments to test the commit and push functionality of git
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -36,10 +46,12 @@ public class Customer {
     @Column(nullable = false, unique = true)
     private String email;
     
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String username;
     
     @Column(nullable = false)
+    @ToString.Exclude
     private String password;
     
     @Column(nullable = false)
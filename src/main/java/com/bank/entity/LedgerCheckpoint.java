@@ -0,0 +1,25 @@
+package com.bank.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Highest journal sequence applied to the accounts/transactions tables, written in the same transaction.
+// Also holds the last day written to balance_checkpoints, as an epoch day, and the read replica heartbeat.
+@Entity
+@Table(name = "ledger_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerCheckpoint {
+    
+    @Id
+    @Column(length = 50)
+    private String name;
+    
+    @Column(nullable = false)
+    private Long appliedSequence;
+}
@@ -20,8 +20,10 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
     
+    // Pooled sequence ids are assigned without a round trip per row, so Hibernate can batch the INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -59,12 +61,29 @@ public class Transaction {
     @Column(name = "to_account_number")
     private String toAccountNumber;
     
+    // Credit leg of a single-row TRANSFER posting; the debit leg is account, balanceBefore and balanceAfter
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "counter_account_id")
+    private Account counterAccount;
+    
+    @Column(precision = 19, scale = 2)
+    private BigDecimal counterBalanceBefore;
+    
+    @Column(precision = 19, scale = 2)
+    private BigDecimal counterBalanceAfter;
+    
+    // Set when a pending transfer fails to settle
+    @Column(name = "failure_reason")
+    private String failureReason;
+    
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     public enum TransactionType {
-        DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT
+        DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT,
+        // Both legs of a transfer in one row; shown as TRANSFER_OUT or TRANSFER_IN depending on the account
+        TRANSFER
     }
     
     public enum TransactionStatus {
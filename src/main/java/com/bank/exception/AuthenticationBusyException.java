@@ -0,0 +1,7 @@
+package com.bank.exception;
+
+public class AuthenticationBusyException extends RuntimeException {
+    public AuthenticationBusyException(String message) {
+        super(message);
+    }
+}
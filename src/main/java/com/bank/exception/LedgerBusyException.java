@@ -0,0 +1,7 @@
+package com.bank.exception;
+
+public class LedgerBusyException extends RuntimeException {
+    public LedgerBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,136 @@
+package com.bank.ledger;
+
+import com.bank.entity.Account;
+import com.bank.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.PessimisticLockException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Pessimistic locking mode for postings that touch more than one account.
+// Rows are always locked in ascending id order so opposite transfers cannot deadlock each other.
+@Component
+@RequiredArgsConstructor
+public class AccountLockManager {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AccountLockManager.class);
+    private static final String LOCK_TIMEOUT_HINT = "jakarta.persistence.lock.timeout";
+    
+    private final AccountRepository accountRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.ledger.locking.enabled}")
+    private boolean enabled;
+    
+    @Value("${app.ledger.locking.lock-timeout-ms}")
+    private long lockTimeoutMs;
+    
+    @Value("${app.ledger.locking.max-retries}")
+    private int maxRetries;
+    
+    @Value("${app.ledger.locking.backoff-base-ms}")
+    private long backoffBaseMs;
+    
+    @Value("${app.ledger.locking.backoff-max-ms}")
+    private long backoffMaxMs;
+    
+    @Value("${spring.jpa.database-platform}")
+    private String databasePlatform;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Locks the accounts that exist; missing accounts are left for the posting to report
+    public void lockInIdOrder(String operation, Collection<String> accountNumbers) {
+        if (!enabled) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        if (databasePlatform.contains("PostgreSQL")) {
+            // PostgreSQL ignores the JPA lock timeout hint, so bound the wait for this transaction only
+            entityManager.createNativeQuery("SELECT set_config('lock_timeout', :timeout, true)")
+                    .setParameter("timeout", lockTimeoutMs + "ms")
+                    .getSingleResult();
+        }
+        for (Long id : accountRepository.findIdsByAccountNumberIn(accountNumbers)) {
+            try {
+                entityManager.find(Account.class, id, LockModeType.PESSIMISTIC_WRITE, Map.of(LOCK_TIMEOUT_HINT, lockTimeoutMs));
+            } catch (PersistenceException ex) {
+                // A plain component gets no exception translation, so a lock timeout would otherwise escape as JPA's own
+                DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(ex);
+                throw translated != null ? translated : ex;
+            }
+        }
+        lockWaitTimer(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    
+    // Runs a whole transactional attempt, retrying with jittered backoff on deadlock, lock timeout or serialization failure
+    public <T> T withRetry(String operation, Supplier<T> attempt) {
+        if (!enabled) {
+            return attempt.get();
+        }
+        
+        for (int retry = 0; ; retry++) {
+            counter("ledger.lock.attempts", operation).increment();
+            try {
+                return attempt.get();
+            } catch (ConcurrencyFailureException | PessimisticLockException | LockTimeoutException ex) {
+                counter("ledger.lock.aborts", operation).increment();
+                if (retry >= maxRetries) {
+                    counter("ledger.lock.failures", operation).increment();
+                    logger.warn("Giving up on {} after {} retries: {}", operation, retry, ex.getMessage());
+                    throw ex;
+                }
+                counter("ledger.lock.retries", operation).increment();
+                backoff(retry);
+            }
+        }
+    }
+    
+    private void backoff(int retry) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(retry, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrencyFailureException("Interrupted while backing off", ex);
+        }
+    }
+    
+    private Timer lockWaitTimer(String operation) {
+        return Timer.builder("ledger.lock.wait")
+                .description("Time spent acquiring row locks for a posting")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+    
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
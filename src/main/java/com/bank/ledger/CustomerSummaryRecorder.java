@@ -0,0 +1,102 @@
+package com.bank.ledger;
+
+import com.bank.entity.Transaction;
+import com.bank.repository.CustomerSummaryChange;
+import com.bank.repository.CustomerSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Collects the customer summary changes of every posting in the current database transaction and writes them
+// just before it commits, one UPDATE per customer in customer id order. The summary rows are locked last and
+// always in the same order, so postings batched on different ledger shards cannot deadlock on them, and a
+// customer's row is held only while its transaction commits.
+@Component
+@RequiredArgsConstructor
+public class CustomerSummaryRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSummaryRecorder.class);
+    
+    private final CustomerSummaryRepository customerSummaryRepository;
+    
+    public void accountOpened(Long customerId) {
+        record(new CustomerSummaryChange(customerId, 1, BigDecimal.ZERO, 0, null));
+    }
+    
+    // A new transaction row on one of the customer's accounts
+    public void posted(Long customerId, BigDecimal balanceChange, LocalDateTime at) {
+        record(new CustomerSummaryChange(customerId, 0, balanceChange, 1, at));
+    }
+    
+    // A new row whose accounts are loaded: its balance changes, counted for each customer it touches
+    public void posted(Transaction transaction) {
+        Long customerId = transaction.getAccount().getCustomer().getId();
+        posted(customerId, change(transaction.getBalanceBefore(), transaction.getBalanceAfter()),
+                transaction.getCreatedAt());
+        if (transaction.getCounterAccount() != null) {
+            counterPosted(customerId, transaction.getCounterAccount().getCustomer().getId(),
+                    change(transaction.getCounterBalanceBefore(), transaction.getCounterBalanceAfter()),
+                    transaction.getCreatedAt());
+        }
+    }
+    
+    // The credit leg of a single-row transfer. The row was counted for the paying customer and only counts
+    // again if it pays another customer.
+    public void counterPosted(Long customerId, Long counterCustomerId, BigDecimal amount, LocalDateTime at) {
+        record(new CustomerSummaryChange(counterCustomerId, 0, amount, customerId.equals(counterCustomerId) ? 0 : 1, at));
+    }
+    
+    // A balance change on a row that is already counted, such as a pending transfer settling
+    public void settled(Long customerId, BigDecimal balanceChange, LocalDateTime at) {
+        record(new CustomerSummaryChange(customerId, 0, balanceChange, 0, at));
+    }
+    
+    private static BigDecimal change(BigDecimal before, BigDecimal after) {
+        return before != null && after != null ? after.subtract(before) : BigDecimal.ZERO;
+    }
+    
+    private void record(CustomerSummaryChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Customer summary changes must be recorded inside a transaction");
+        }
+        
+        @SuppressWarnings("unchecked")
+        Map<Long, CustomerSummaryChange> changes =
+                (Map<Long, CustomerSummaryChange>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Map<Long, CustomerSummaryChange> pending = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(pending);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CustomerSummaryRecorder.this);
+                }
+            });
+            changes = pending;
+        }
+        changes.merge(change.customerId(), change, CustomerSummaryChange::plus);
+    }
+    
+    private void write(Map<Long, CustomerSummaryChange> changes) {
+        List<Long> missing = customerSummaryRepository.apply(changes.values());
+        if (!missing.isEmpty()) {
+            // Customers created outside the application; the rebuild job creates their rows
+            logger.warn("No summary row for customers {}, their dashboard figures are computed until rebuilt",
+                    missing);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bank.ledger;
+
+import com.bank.entity.LedgerCheckpoint;
+import com.bank.entity.Transaction;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.AccountSnapshot;
+import com.bank.repository.LedgerCheckpointRepository;
+import com.bank.repository.TransactionBatchRepository;
+import com.bank.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Writes journal entries to the accounts/transactions tables, many entries per database transaction
+@Component
+@RequiredArgsConstructor
+public class JournalApplier {
+    
+    static final String CHECKPOINT = "journal";
+    
+    private final PlatformTransactionManager transactionManager;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final CustomerSummaryRecorder customerSummaryRecorder;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public long appliedSequence() {
+        return ledgerCheckpointRepository.findById(CHECKPOINT)
+                .map(LedgerCheckpoint::getAppliedSequence)
+                .orElse(0L);
+    }
+    
+    // Balances are written as absolute values and the checkpoint moves in the same transaction,
+    // so every entry is applied exactly once even if the process dies mid-batch
+    public void apply(List<JournalEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+            List<Transaction> transactions = new ArrayList<>();
+            Set<Long> closedAccountIds = new LinkedHashSet<>();
+            
+            for (JournalEntry entry : entries) {
+                if (entry.kind() == JournalEntry.Kind.CLOSE) {
+                    closedAccountIds.add(entry.accountId());
+                    continue;
+                }
+                for (JournalEntry.Leg leg : entry.legs()) {
+                    balances.put(leg.accountId(), leg.balanceAfter());
+                    transactions.add(leg.toTransaction(accountRepository.getReferenceById(leg.accountId())));
+                }
+            }
+            
+            if (!balances.isEmpty()) {
+                transactionBatchRepository.updateBalances(balances);
+                transactionRepository.saveAll(transactions);
+                recordSummaries(transactions, balances.keySet());
+            }
+            if (!closedAccountIds.isEmpty()) {
+                transactionBatchRepository.closeAccounts(closedAccountIds);
+            }
+            ledgerCheckpointRepository.save(LedgerCheckpoint.builder()
+                    .name(CHECKPOINT)
+                    .appliedSequence(entries.get(entries.size() - 1).sequence())
+                    .build());
+        });
+    }
+    
+    // Journal legs only carry account ids, so the owners are looked up once per applied batch
+    private void recordSummaries(List<Transaction> transactions, Set<Long> accountIds) {
+        Map<Long, Long> customerIds = new HashMap<>();
+        for (AccountSnapshot account : accountRepository.findSnapshotsByIdIn(accountIds)) {
+            customerIds.put(account.id(), account.customerId());
+        }
+        for (Transaction transaction : transactions) {
+            customerSummaryRecorder.posted(customerIds.get(transaction.getAccount().getId()),
+                    transaction.getBalanceAfter().subtract(transaction.getBalanceBefore()), transaction.getCreatedAt());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bank.ledger;
+
+import com.bank.dto.response.TransactionResponse;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+// A posting waiting for the journal writer. The result completes once its group has been fsynced.
+class JournalCommand {
+    
+    enum Kind { DEPOSIT, WITHDRAWAL, TRANSFER, CLOSE }
+    
+    final Kind kind;
+    final Long customerId;
+    final String accountNumber;
+    final String toAccountNumber;
+    final BigDecimal amount;
+    final String description;
+    final CompletableFuture<TransactionResponse> result = new CompletableFuture<>();
+    
+    JournalCommand(Kind kind, Long customerId, String accountNumber, String toAccountNumber,
+                   BigDecimal amount, String description) {
+        this.kind = kind;
+        this.customerId = customerId;
+        this.accountNumber = accountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.amount = amount;
+        this.description = description;
+    }
+}
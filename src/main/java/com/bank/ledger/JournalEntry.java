@@ -0,0 +1,116 @@
+package com.bank.ledger;
+
+import com.bank.entity.Account;
+import com.bank.entity.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// One acknowledged ledger change: the transaction rows of a posting, or the closure of an account
+record JournalEntry(long sequence, Kind kind, long accountId, List<Leg> legs) {
+    
+    enum Kind { POSTING, CLOSE }
+    
+    record Leg(long accountId, String accountNumber, String transactionId, Transaction.TransactionType type,
+               BigDecimal amount, BigDecimal balanceBefore, BigDecimal balanceAfter, String description,
+               String fromAccountNumber, String toAccountNumber, LocalDateTime createdAt) {
+        
+        Transaction toTransaction(Account account) {
+            return Transaction.builder()
+                    .transactionId(transactionId)
+                    .type(type)
+                    .amount(amount)
+                    .balanceBefore(balanceBefore)
+                    .balanceAfter(balanceAfter)
+                    .description(description)
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .account(account)
+                    .fromAccountNumber(fromAccountNumber)
+                    .toAccountNumber(toAccountNumber)
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+    
+    static JournalEntry posting(long sequence, List<Leg> legs) {
+        return new JournalEntry(sequence, Kind.POSTING, legs.get(0).accountId(), legs);
+    }
+    
+    static JournalEntry close(long sequence, long accountId) {
+        return new JournalEntry(sequence, Kind.CLOSE, accountId, List.of());
+    }
+    
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + legs.size() * 256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(sequence);
+            out.writeUTF(kind.name());
+            out.writeLong(accountId);
+            out.writeByte(legs.size());
+            for (Leg leg : legs) {
+                out.writeLong(leg.accountId());
+                out.writeUTF(leg.accountNumber());
+                out.writeUTF(leg.transactionId());
+                out.writeUTF(leg.type().name());
+                out.writeUTF(leg.amount().toPlainString());
+                out.writeUTF(leg.balanceBefore().toPlainString());
+                out.writeUTF(leg.balanceAfter().toPlainString());
+                writeNullable(out, leg.description());
+                writeNullable(out, leg.fromAccountNumber());
+                writeNullable(out, leg.toAccountNumber());
+                out.writeLong(leg.createdAt().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(leg.createdAt().getNano());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+    
+    static JournalEntry decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long sequence = in.readLong();
+            Kind kind = Kind.valueOf(in.readUTF());
+            long accountId = in.readLong();
+            int legCount = in.readUnsignedByte();
+            List<Leg> legs = new ArrayList<>(legCount);
+            for (int i = 0; i < legCount; i++) {
+                legs.add(new Leg(
+                        in.readLong(),
+                        in.readUTF(),
+                        in.readUTF(),
+                        Transaction.TransactionType.valueOf(in.readUTF()),
+                        new BigDecimal(in.readUTF()),
+                        new BigDecimal(in.readUTF()),
+                        new BigDecimal(in.readUTF()),
+                        readNullable(in),
+                        readNullable(in),
+                        readNullable(in),
+                        LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)));
+            }
+            return new JournalEntry(sequence, kind, accountId, legs);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
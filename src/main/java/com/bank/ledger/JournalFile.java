@@ -0,0 +1,109 @@
+package com.bank.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Append-only, memory-mapped log: a header holding the first sequence in the file,
+// followed by records of [length][crc32][payload]. Only the journal writer thread touches it.
+class JournalFile implements Closeable {
+    
+    private static final int MAGIC = 0x4C4A524E;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_OVERHEAD = 8;
+    
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int position = HEADER_SIZE;
+    
+    JournalFile(Path path, int capacity) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.capacity = capacity;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            reset(1);
+        }
+    }
+    
+    long baseSequence() {
+        return buffer.getLong(8);
+    }
+    
+    // Reads records from the start of the file up to the first torn, corrupt or unwritten one
+    List<byte[]> readRecords() {
+        List<byte[]> records = new ArrayList<>();
+        int offset = HEADER_SIZE;
+        while (offset + RECORD_OVERHEAD <= capacity) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > capacity - offset - RECORD_OVERHEAD) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_OVERHEAD, payload);
+            if (checksum(payload) != buffer.getInt(offset + 4)) {
+                break;
+            }
+            records.add(payload);
+            offset += RECORD_OVERHEAD + length;
+        }
+        return records;
+    }
+    
+    boolean hasRoom(int payloadBytes) {
+        // Keeps space for the zero length that marks the end of the log
+        return position + RECORD_OVERHEAD + payloadBytes + 4 <= capacity;
+    }
+    
+    int position() {
+        return position;
+    }
+    
+    void append(byte[] payload) {
+        int end = position + RECORD_OVERHEAD + payload.length;
+        buffer.putInt(end, 0);
+        buffer.put(position + RECORD_OVERHEAD, payload);
+        buffer.putInt(position + 4, checksum(payload));
+        buffer.putInt(position, payload.length);
+        position = end;
+    }
+    
+    // One fsync for everything appended since the given position
+    void force(int from) {
+        buffer.force(from, position + 4 - from);
+    }
+    
+    // Starts the log again from the header once every record in it has been applied
+    void reset(long baseSequence) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, baseSequence);
+        buffer.putInt(HEADER_SIZE, 0);
+        position = HEADER_SIZE;
+        buffer.force(0, HEADER_SIZE + 4);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,89 @@
+package com.bank.ledger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+class LedgerCommand<T> {
+    
+    private final Supplier<T> posting;
+    private final int ownerShard;
+    private final int participants;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    
+    // Only used when the command spans more than one shard
+    private final CountDownLatch arrivals;
+    private final CountDownLatch released = new CountDownLatch(1);
+    
+    LedgerCommand(Supplier<T> posting, int ownerShard, int participants) {
+        this.posting = posting;
+        this.ownerShard = ownerShard;
+        this.participants = participants;
+        this.arrivals = new CountDownLatch(participants);
+    }
+    
+    T apply() {
+        return posting.get();
+    }
+    
+    boolean isCrossShard() {
+        return participants > 1;
+    }
+    
+    boolean isOwnedBy(int shardIndex) {
+        return ownerShard == shardIndex;
+    }
+    
+    boolean isDone() {
+        return result.isDone();
+    }
+    
+    @SuppressWarnings("unchecked")
+    void complete(Object value) {
+        result.complete((T) value);
+    }
+    
+    void fail(Throwable error) {
+        result.completeExceptionally(error);
+    }
+    
+    void arrive() {
+        arrivals.countDown();
+    }
+    
+    // Used when a cross-shard command could not be queued on every shard
+    void abandon(int missingParticipants, RuntimeException error) {
+        fail(error);
+        for (int i = 0; i < missingParticipants; i++) {
+            arrivals.countDown();
+        }
+    }
+    
+    void awaitArrivals() throws InterruptedException {
+        arrivals.await();
+    }
+    
+    void release() {
+        released.countDown();
+    }
+    
+    void awaitRelease() throws InterruptedException {
+        released.await();
+    }
+    
+    T await() {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.bank.ledger;
+
+import com.bank.exception.LedgerBusyException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Routes every balance mutation to a single writer thread chosen by account number.
+// When the sequencer is disabled postings run in a transaction on the calling thread.
+@Component
+@RequiredArgsConstructor
+public class LedgerEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LedgerEngine.class);
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.ledger.sequencer.enabled}")
+    private boolean enabled;
+    
+    @Value("${app.ledger.sequencer.shards}")
+    private int shardCount;
+    
+    @Value("${app.ledger.sequencer.batch-size}")
+    private int batchSize;
+    
+    @Value("${app.ledger.sequencer.queue-capacity}")
+    private int queueCapacity;
+    
+    @Value("${app.ledger.sequencer.enqueue-timeout-ms}")
+    private long enqueueTimeoutMs;
+    
+    private final Object crossShardLock = new Object();
+    private TransactionTemplate transactionTemplate;
+    private LedgerShard[] shards;
+    
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (!enabled) {
+            return;
+        }
+        
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        shards = new LedgerShard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new LedgerShard(i, batchSize, queueCapacity, transactionTemplate);
+            shards[i].start();
+        }
+        logger.info("Ledger sequencer started with {} shards and batch size {}", count, batchSize);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (shards == null) {
+            return;
+        }
+        for (LedgerShard shard : shards) {
+            shard.stop(enqueueTimeoutMs);
+        }
+    }
+    
+    public <T> T execute(Collection<String> accountNumbers, Supplier<T> posting) {
+        if (shards == null) {
+            return transactionTemplate.execute(status -> posting.get());
+        }
+        
+        int[] targets = accountNumbers.stream()
+                .mapToInt(this::shardFor)
+                .distinct()
+                .sorted()
+                .toArray();
+        LedgerCommand<T> command = new LedgerCommand<>(posting, targets[0], targets.length);
+        
+        if (targets.length == 1) {
+            if (!offer(targets[0], command)) {
+                throw new LedgerBusyException("Ledger is busy, please retry");
+            }
+            return command.await();
+        }
+        
+        // Cross-shard commands are queued under one lock so every shard sees them in the same order. The lock is
+        // only held for non-blocking offers: while a target shard is full the caller backs off outside it, so one
+        // saturated shard cannot stall cross-shard postings between the others.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMs);
+        long backoffNanos = MIN_BACKOFF_NANOS;
+        while (!offerAll(targets, command)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                throw new LedgerBusyException("Ledger is busy, please retry");
+            }
+            LockSupport.parkNanos(Math.min(backoffNanos, remaining));
+            backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+        }
+        
+        return command.await();
+    }
+    
+    // Queues the command on every target or on none of them. Single-shard producers do not take the lock, so a
+    // queue can still fill between the check and the offer; the command is then abandoned on the rest.
+    private boolean offerAll(int[] targets, LedgerCommand<?> command) {
+        synchronized (crossShardLock) {
+            for (int target : targets) {
+                if (!shards[target].hasRoom()) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < targets.length; i++) {
+                if (!shards[targets[i]].offer(command)) {
+                    command.abandon(targets.length - i, new LedgerBusyException("Ledger is busy, please retry"));
+                    break;
+                }
+            }
+            return true;
+        }
+    }
+    
+    private boolean offer(int shard, LedgerCommand<?> command) {
+        try {
+            return shards[shard].offer(command, enqueueTimeoutMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private int shardFor(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), shards.length);
+    }
+}
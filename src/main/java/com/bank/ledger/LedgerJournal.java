@@ -0,0 +1,517 @@
+package com.bank.ledger;
+
+import com.bank.dto.request.DepositRequest;
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.dto.request.WithdrawalRequest;
+import com.bank.dto.response.TransactionResponse;
+import com.bank.entity.Account;
+import com.bank.entity.Transaction;
+import com.bank.exception.AccountInactiveException;
+import com.bank.exception.BadRequestException;
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.exception.LedgerBusyException;
+import com.bank.exception.ResourceNotFoundException;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.AccountSnapshot;
+import com.bank.util.AccountNumberGenerator;
+import com.bank.util.ResponseMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Journal mode: postings are validated against in-memory balances by a single writer thread, appended to a
+// memory-mapped log and acknowledged after one fsync per group. A second thread applies acknowledged entries
+// to the database in large batches, and startup replays whatever the database has not seen yet.
+// The journal must be the only writer of account balances, so run a single instance with it enabled, and not
+// together with async transfers, whose settlement workers write balances of their own.
+@Component
+@RequiredArgsConstructor
+public class LedgerJournal {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LedgerJournal.class);
+    private static final long POLL_MS = 100;
+    
+    private final AccountRepository accountRepository;
+    private final JournalApplier journalApplier;
+    
+    @Value("${app.ledger.journal.enabled}")
+    private boolean enabled;
+    
+    @Value("${app.ledger.journal.path}")
+    private String path;
+    
+    @Value("${app.ledger.journal.size-mb}")
+    private int sizeMb;
+    
+    @Value("${app.ledger.journal.group-size}")
+    private int groupSize;
+    
+    @Value("${app.ledger.journal.queue-capacity}")
+    private int queueCapacity;
+    
+    @Value("${app.ledger.journal.enqueue-timeout-ms}")
+    private long enqueueTimeoutMs;
+    
+    @Value("${app.ledger.journal.apply-batch-size}")
+    private int applyBatchSize;
+    
+    @Value("${app.ledger.journal.apply-interval-ms}")
+    private long applyIntervalMs;
+    
+    @Value("${app.ledger.journal.max-accounts}")
+    private int maxAccounts;
+    
+    @Value("${app.ledger.settlement.async-transfers}")
+    private boolean asyncTransfers;
+    
+    // Authoritative balances, owned by the writer thread, in least recently used order. Accounts are loaded from
+    // the database on first use and dropped beyond max-accounts once the database holds all of their postings.
+    private final Map<String, AccountState> accounts = new LinkedHashMap<>(16, 0.75f, true);
+    
+    private final Object appliedMonitor = new Object();
+    private volatile long appliedSequence;
+    private volatile boolean running;
+    private volatile boolean failed;
+    private long nextSequence;
+    
+    private JournalFile file;
+    private BlockingQueue<JournalCommand> commands;
+    private BlockingQueue<JournalEntry> unapplied;
+    private Thread writer;
+    private Thread applier;
+    
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (asyncTransfers) {
+            throw new IllegalStateException("The ledger journal cannot run with async transfers: both write balances");
+        }
+        
+        file = new JournalFile(Path.of(path), sizeMb * 1024 * 1024);
+        commands = new ArrayBlockingQueue<>(queueCapacity);
+        unapplied = new LinkedBlockingQueue<>();
+        recover();
+        
+        running = true;
+        writer = new Thread(this::writeLoop, "ledger-journal-writer");
+        applier = new Thread(this::applyLoop, "ledger-journal-applier");
+        writer.setDaemon(true);
+        applier.setDaemon(true);
+        writer.start();
+        applier.start();
+        logger.info("Ledger journal started at {} with group size {}", Path.of(path).toAbsolutePath(), groupSize);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (file == null) {
+            return;
+        }
+        running = false;
+        writer.join();
+        applier.join();
+        file.close();
+        file = null;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public TransactionResponse deposit(Long customerId, DepositRequest request) {
+        return await(submitDeposit(customerId, request.getAccountNumber(), request.getAmount(), request.getDescription()));
+    }
+    
+    public TransactionResponse withdraw(Long customerId, WithdrawalRequest request) {
+        return await(submitWithdrawal(customerId, request.getAccountNumber(), request.getAmount(), request.getDescription()));
+    }
+    
+    public TransactionResponse transfer(Long customerId, FundTransferRequest request) {
+        return await(submitTransfer(customerId, request.getFromAccountNumber(), request.getToAccountNumber(),
+                request.getAmount(), request.getDescription()));
+    }
+    
+    public void closeAccount(String accountNumber) {
+        await(submit(new JournalCommand(JournalCommand.Kind.CLOSE, null, accountNumber, null, null, null)));
+    }
+    
+    public CompletableFuture<TransactionResponse> submitDeposit(Long customerId, String accountNumber,
+                                                                BigDecimal amount, String description) {
+        return submit(new JournalCommand(JournalCommand.Kind.DEPOSIT, customerId, accountNumber, null, amount, description));
+    }
+    
+    public CompletableFuture<TransactionResponse> submitWithdrawal(Long customerId, String accountNumber,
+                                                                   BigDecimal amount, String description) {
+        return submit(new JournalCommand(JournalCommand.Kind.WITHDRAWAL, customerId, accountNumber, null, amount, description));
+    }
+    
+    public CompletableFuture<TransactionResponse> submitTransfer(Long customerId, String fromAccountNumber,
+                                                                 String toAccountNumber, BigDecimal amount,
+                                                                 String description) {
+        return submit(new JournalCommand(JournalCommand.Kind.TRANSFER, customerId, fromAccountNumber, toAccountNumber,
+                amount, description));
+    }
+    
+    private CompletableFuture<TransactionResponse> submit(JournalCommand command) {
+        if (!running || failed) {
+            throw new LedgerBusyException("Ledger journal is unavailable, please retry");
+        }
+        try {
+            if (!commands.offer(command, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new LedgerBusyException("Ledger is busy, please retry");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LedgerBusyException("Ledger is busy, please retry");
+        }
+        return command.result;
+    }
+    
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+    
+    private void recover() {
+        long applied = journalApplier.appliedSequence();
+        long expected = file.baseSequence();
+        if (expected > applied + 1) {
+            logger.warn("Ledger journal starts at sequence {} but the database has only applied up to {}",
+                    expected, applied);
+        }
+        
+        List<JournalEntry> pending = new ArrayList<>();
+        for (byte[] record : file.readRecords()) {
+            JournalEntry entry = JournalEntry.decode(record);
+            // Records left over from before the last reset carry older sequences and end the log
+            if (entry.sequence() != expected) {
+                break;
+            }
+            if (entry.sequence() > applied) {
+                pending.add(entry);
+            }
+            expected++;
+        }
+        
+        for (int start = 0; start < pending.size(); start += applyBatchSize) {
+            journalApplier.apply(pending.subList(start, Math.min(start + applyBatchSize, pending.size())));
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Replayed {} unapplied ledger journal entries", pending.size());
+        }
+        
+        nextSequence = Math.max(expected, applied + 1);
+        appliedSequence = nextSequence - 1;
+        file.reset(nextSequence);
+    }
+    
+    private void writeLoop() {
+        List<JournalCommand> group = new ArrayList<>(groupSize);
+        while (running || !commands.isEmpty()) {
+            try {
+                JournalCommand first = commands.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                commands.drainTo(group, groupSize - 1);
+                if (failed) {
+                    group.forEach(command -> command.result.completeExceptionally(
+                            new LedgerBusyException("Ledger journal is unavailable, please retry")));
+                } else {
+                    writeGroup(group);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                group.forEach(command -> command.result.completeExceptionally(
+                        new LedgerBusyException("Ledger journal is unavailable, please retry")));
+                return;
+            } catch (RuntimeException ex) {
+                // In-memory balances may now be ahead of the log, so stop accepting until a restart recovers
+                failed = true;
+                logger.error("Ledger journal write failed, rejecting postings until restart", ex);
+                group.forEach(command -> command.result.completeExceptionally(
+                        new LedgerBusyException("Ledger journal is unavailable, please retry")));
+            }
+            group.clear();
+        }
+    }
+    
+    private void writeGroup(List<JournalCommand> group) throws InterruptedException {
+        evictApplied();
+        loadAccounts(group);
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<JournalCommand> accepted = new ArrayList<>(group.size());
+        List<JournalEntry> entries = new ArrayList<>(group.size());
+        List<byte[]> records = new ArrayList<>(group.size());
+        int bytes = 0;
+        for (JournalCommand command : group) {
+            try {
+                JournalEntry entry = accept(command, nextSequence, now);
+                byte[] record = entry.encode();
+                nextSequence++;
+                accepted.add(command);
+                entries.add(entry);
+                records.add(record);
+                bytes += record.length + 8;
+            } catch (ResourceNotFoundException | BadRequestException | AccountInactiveException
+                     | InsufficientBalanceException ex) {
+                command.result.completeExceptionally(ex);
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        
+        if (!file.hasRoom(bytes)) {
+            awaitApplied(entries.get(0).sequence() - 1);
+            file.reset(entries.get(0).sequence());
+        }
+        int start = file.position();
+        records.forEach(file::append);
+        file.force(start);
+        
+        unapplied.addAll(entries);
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).result.complete(toResponse(entries.get(i)));
+        }
+    }
+    
+    private JournalEntry accept(JournalCommand command, long sequence, LocalDateTime now) {
+        switch (command.kind) {
+            case DEPOSIT: {
+                AccountState account = ownedActiveAccount(command.customerId, command.accountNumber);
+                BigDecimal balanceBefore = account.balance;
+                account.balance = balanceBefore.add(command.amount);
+                account.lastSequence = sequence;
+                return JournalEntry.posting(sequence, List.of(
+                        leg(command, account, Transaction.TransactionType.DEPOSIT, balanceBefore, now)));
+            }
+            case WITHDRAWAL: {
+                AccountState account = ownedActiveAccount(command.customerId, command.accountNumber);
+                if (account.balance.compareTo(command.amount) < 0) {
+                    throw new InsufficientBalanceException("Insufficient balance for withdrawal");
+                }
+                BigDecimal balanceBefore = account.balance;
+                account.balance = balanceBefore.subtract(command.amount);
+                account.lastSequence = sequence;
+                return JournalEntry.posting(sequence, List.of(
+                        leg(command, account, Transaction.TransactionType.WITHDRAWAL, balanceBefore, now)));
+            }
+            case TRANSFER: {
+                // Both legs would land on one balance and the credit would overwrite the debit
+                if (command.accountNumber.equals(command.toAccountNumber)) {
+                    throw new BadRequestException("Cannot transfer to the same account");
+                }
+                AccountState fromAccount = accounts.get(command.accountNumber);
+                if (fromAccount == null) {
+                    throw new ResourceNotFoundException("Source account not found");
+                }
+                AccountState toAccount = accounts.get(command.toAccountNumber);
+                if (toAccount == null) {
+                    throw new ResourceNotFoundException("Destination account not found");
+                }
+                if (!fromAccount.customerId.equals(command.customerId)) {
+                    throw new BadRequestException("You don't have access to the source account");
+                }
+                if (fromAccount.status != Account.AccountStatus.ACTIVE) {
+                    throw new AccountInactiveException("Source account is not active");
+                }
+                if (toAccount.status != Account.AccountStatus.ACTIVE) {
+                    throw new AccountInactiveException("Destination account is not active");
+                }
+                if (fromAccount.balance.compareTo(command.amount) < 0) {
+                    throw new InsufficientBalanceException("Insufficient balance for transfer");
+                }
+                
+                BigDecimal fromBalanceBefore = fromAccount.balance;
+                BigDecimal toBalanceBefore = toAccount.balance;
+                fromAccount.balance = fromBalanceBefore.subtract(command.amount);
+                toAccount.balance = toBalanceBefore.add(command.amount);
+                fromAccount.lastSequence = sequence;
+                toAccount.lastSequence = sequence;
+                return JournalEntry.posting(sequence, List.of(
+                        leg(command, fromAccount, Transaction.TransactionType.TRANSFER_OUT, fromBalanceBefore, now),
+                        leg(command, toAccount, Transaction.TransactionType.TRANSFER_IN, toBalanceBefore, now)));
+            }
+            default: {
+                AccountState account = accounts.get(command.accountNumber);
+                if (account == null) {
+                    throw new ResourceNotFoundException("Account not found with number: " + command.accountNumber);
+                }
+                if (account.balance.compareTo(BigDecimal.ZERO) > 0) {
+                    throw new BadRequestException("Cannot delete account with non-zero balance");
+                }
+                account.status = Account.AccountStatus.CLOSED;
+                account.lastSequence = sequence;
+                return JournalEntry.close(sequence, account.id);
+            }
+        }
+    }
+    
+    private AccountState ownedActiveAccount(Long customerId, String accountNumber) {
+        AccountState account = accounts.get(accountNumber);
+        if (account == null) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+        if (!account.customerId.equals(customerId)) {
+            throw new BadRequestException("You don't have access to this account");
+        }
+        if (account.status != Account.AccountStatus.ACTIVE) {
+            throw new AccountInactiveException("Account is not active");
+        }
+        return account;
+    }
+    
+    private JournalEntry.Leg leg(JournalCommand command, AccountState account, Transaction.TransactionType type,
+                                 BigDecimal balanceBefore, LocalDateTime now) {
+        boolean transfer = command.kind == JournalCommand.Kind.TRANSFER;
+        return new JournalEntry.Leg(account.id, account.accountNumber, AccountNumberGenerator.generateTransactionId(),
+                type, command.amount, balanceBefore, account.balance, command.description,
+                transfer ? command.accountNumber : null, transfer ? command.toAccountNumber : null, now);
+    }
+    
+    private TransactionResponse toResponse(JournalEntry entry) {
+        if (entry.kind() == JournalEntry.Kind.CLOSE) {
+            return null;
+        }
+        // The database id is not known until the entry is applied
+        JournalEntry.Leg leg = entry.legs().get(0);
+        return ResponseMapper.toTransactionResponse(leg.toTransaction(null), leg.accountNumber());
+    }
+    
+    private void loadAccounts(List<JournalCommand> group) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (JournalCommand command : group) {
+            if (!accounts.containsKey(command.accountNumber)) {
+                missing.add(command.accountNumber);
+            }
+            if (command.toAccountNumber != null && !accounts.containsKey(command.toAccountNumber)) {
+                missing.add(command.toAccountNumber);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (AccountSnapshot snapshot : accountRepository.findSnapshotsByAccountNumberIn(missing)) {
+            accounts.putIfAbsent(snapshot.accountNumber(), new AccountState(snapshot));
+        }
+    }
+    
+    // Only accounts whose last posting has been applied can be reloaded from the database without losing it
+    private void evictApplied() {
+        if (maxAccounts <= 0 || accounts.size() <= maxAccounts) {
+            return;
+        }
+        long applied = appliedSequence;
+        Iterator<AccountState> eldest = accounts.values().iterator();
+        while (accounts.size() > maxAccounts && eldest.hasNext()) {
+            if (eldest.next().lastSequence <= applied) {
+                eldest.remove();
+            }
+        }
+    }
+    
+    private void awaitApplied(long sequence) throws InterruptedException {
+        synchronized (appliedMonitor) {
+            while (appliedSequence < sequence) {
+                appliedMonitor.wait(POLL_MS);
+            }
+        }
+    }
+    
+    private void applyLoop() {
+        List<JournalEntry> batch = new ArrayList<>(applyBatchSize);
+        while (running || writer.isAlive() || !unapplied.isEmpty()) {
+            try {
+                JournalEntry first = unapplied.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Give concurrent postings a moment to pile up so each database transaction carries many
+                if (running && unapplied.size() < applyBatchSize - 1) {
+                    Thread.sleep(applyIntervalMs);
+                }
+                batch.add(first);
+                unapplied.drainTo(batch, applyBatchSize - 1);
+                applyWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private void applyWithRetry(List<JournalEntry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                journalApplier.apply(batch);
+                synchronized (appliedMonitor) {
+                    appliedSequence = batch.get(batch.size() - 1).sequence();
+                    appliedMonitor.notifyAll();
+                }
+                return;
+            } catch (RuntimeException ex) {
+                if (!running) {
+                    // The entries stay in the journal and are replayed on the next start
+                    logger.error("Could not apply {} ledger journal entries before shutdown", batch.size(), ex);
+                    unapplied.clear();
+                    return;
+                }
+                logger.error("Could not apply {} ledger journal entries, retrying", batch.size(), ex);
+                Thread.sleep(1000);
+            }
+        }
+    }
+    
+    private static class AccountState {
+        
+        private final long id;
+        private final String accountNumber;
+        private final Long customerId;
+        private Account.AccountStatus status;
+        private BigDecimal balance;
+        // Sequence of the last entry that changed this account
+        private long lastSequence;
+        
+        AccountState(AccountSnapshot snapshot) {
+            this.id = snapshot.id();
+            this.accountNumber = snapshot.accountNumber();
+            this.customerId = snapshot.customerId();
+            this.status = snapshot.status();
+            this.balance = snapshot.balance();
+        }
+    }
+}
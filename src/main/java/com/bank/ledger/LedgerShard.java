@@ -0,0 +1,150 @@
+package com.bank.ledger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class LedgerShard implements Runnable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LedgerShard.class);
+    
+    private final int index;
+    private final int batchSize;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<LedgerCommand<?>> queue;
+    private final List<LedgerCommand<?>> batch;
+    private final Thread thread;
+    
+    private volatile boolean running = true;
+    
+    LedgerShard(int index, int batchSize, int queueCapacity, TransactionTemplate transactionTemplate) {
+        this.index = index;
+        this.batchSize = batchSize;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batch = new ArrayList<>(batchSize);
+        this.thread = new Thread(this, "ledger-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+    
+    void start() {
+        thread.start();
+    }
+    
+    void stop(long timeoutMs) throws InterruptedException {
+        running = false;
+        thread.join(timeoutMs);
+    }
+    
+    boolean offer(LedgerCommand<?> command, long timeoutMs) throws InterruptedException {
+        return running && queue.offer(command, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+    
+    boolean offer(LedgerCommand<?> command) {
+        return running && queue.offer(command);
+    }
+    
+    boolean hasRoom() {
+        return running && queue.remainingCapacity() > 0;
+    }
+    
+    @Override
+    public void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerCommand<?> next = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    continue;
+                }
+                if (next.isCrossShard()) {
+                    rendezvous(next);
+                    continue;
+                }
+                
+                // Cross-shard commands are never folded into a batch, they are handled on their own
+                batch.add(next);
+                LedgerCommand<?> peeked;
+                while (batch.size() < batchSize && (peeked = queue.peek()) != null && !peeked.isCrossShard()) {
+                    batch.add(queue.poll());
+                }
+                commit();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Ledger shard {} failed to process a batch", index, ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void commit() {
+        if (batch.size() == 1) {
+            runAlone(batch.get(0));
+            return;
+        }
+        
+        Object[] results = new Object[batch.size()];
+        boolean committed;
+        try {
+            committed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        results[i] = batch.get(i).apply();
+                    } catch (RuntimeException ex) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        } catch (RuntimeException ex) {
+            logger.warn("Ledger shard {} could not commit a batch of {}, replaying one by one",
+                    index, batch.size(), ex);
+            committed = false;
+        }
+        
+        if (!committed) {
+            // A single failing posting must never leak partial writes into its neighbours
+            batch.forEach(this::runAlone);
+            return;
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results[i]);
+        }
+    }
+    
+    private void rendezvous(LedgerCommand<?> command) throws InterruptedException {
+        command.arrive();
+        if (!command.isOwnedBy(index)) {
+            command.awaitRelease();
+            return;
+        }
+        
+        // The owning shard waits until every other participant has parked, then posts on their behalf
+        try {
+            command.awaitArrivals();
+            if (!command.isDone()) {
+                runAlone(command);
+            }
+        } finally {
+            command.release();
+        }
+    }
+    
+    private void runAlone(LedgerCommand<?> command) {
+        try {
+            command.complete(transactionTemplate.execute(status -> command.apply()));
+        } catch (RuntimeException | Error ex) {
+            command.fail(ex);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.bank.repository;
+
+import java.math.BigDecimal;
+
+public record AccountBalance(Long accountId, Long customerId, BigDecimal balance) {
+}
@@ -0,0 +1,14 @@
+package com.bank.repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+// Guarded single-statement balance updates. Each call returns the new balance, or empty when the
+// guard rejected the update (unknown account, wrong owner, inactive account or insufficient balance).
+// A null customerId skips the ownership guard.
+public interface AccountBalanceRepository {
+    
+    Optional<AccountBalance> debit(String accountNumber, Long customerId, BigDecimal amount);
+    
+    Optional<AccountBalance> credit(String accountNumber, Long customerId, BigDecimal amount);
+}
@@ -0,0 +1,95 @@
+package com.bank.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+class AccountBalanceRepositoryImpl implements AccountBalanceRepository {
+    
+    private static final String DEBIT = "UPDATE accounts SET balance = balance - :amount, updated_at = :now " +
+            "WHERE account_number = :accountNumber AND status = 'ACTIVE' AND balance >= :amount";
+    
+    private static final String CREDIT = "UPDATE accounts SET balance = balance + :amount, updated_at = :now " +
+            "WHERE account_number = :accountNumber AND status = 'ACTIVE'";
+    
+    private static final String OWNER_GUARD = " AND customer_id = :customerId";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private volatile Dialect dialect;
+    
+    @Override
+    public Optional<AccountBalance> debit(String accountNumber, Long customerId, BigDecimal amount) {
+        return apply(DEBIT, accountNumber, customerId, amount);
+    }
+    
+    @Override
+    public Optional<AccountBalance> credit(String accountNumber, Long customerId, BigDecimal amount) {
+        return apply(CREDIT, accountNumber, customerId, amount);
+    }
+    
+    private Optional<AccountBalance> apply(String update, String accountNumber, Long customerId, BigDecimal amount) {
+        String guarded = customerId == null ? update : update + OWNER_GUARD;
+        Dialect current = dialect();
+        
+        if (current instanceof PostgreSQLDialect) {
+            return single(bind(entityManager.createNativeQuery(guarded + " RETURNING id, customer_id, balance"),
+                    accountNumber, customerId, amount));
+        }
+        if (current instanceof H2Dialect) {
+            return single(bind(entityManager.createNativeQuery(
+                    "SELECT id, customer_id, balance FROM FINAL TABLE (" + guarded + ")"),
+                    accountNumber, customerId, amount));
+        }
+        
+        // No RETURNING support: the row stays locked by our UPDATE, so the follow-up read is exact
+        if (bind(entityManager.createNativeQuery(guarded), accountNumber, customerId, amount).executeUpdate() == 0) {
+            return Optional.empty();
+        }
+        return single(entityManager.createNativeQuery(
+                "SELECT id, customer_id, balance FROM accounts WHERE account_number = :accountNumber")
+                .setParameter("accountNumber", accountNumber));
+    }
+    
+    private Query bind(Query query, String accountNumber, Long customerId, BigDecimal amount) {
+        query.setParameter("amount", amount)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("accountNumber", accountNumber);
+        if (customerId != null) {
+            query.setParameter("customerId", customerId);
+        }
+        return query;
+    }
+    
+    private Optional<AccountBalance> single(Query query) {
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        AccountBalance balance = new AccountBalance(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                (BigDecimal) row[2]);
+        AccountCacheLocks.lock(entityManager, List.of(balance.accountId()));
+        return Optional.of(balance);
+    }
+    
+    private Dialect dialect() {
+        if (dialect == null) {
+            dialect = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect();
+        }
+        return dialect;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Collection;
+
+// Native and JDBC writes to accounts bypass Hibernate, so the second-level cache entries of the rows they
+// touched are soft-locked until the surrounding transaction ends, as Hibernate does for its own updates.
+// While locked, readers load the account from the database and cannot put it back into the cache; once
+// unlocked, only sessions that began after the commit can.
+final class AccountCacheLocks {
+    
+    private AccountCacheLocks() {
+    }
+    
+    static void lock(EntityManager entityManager, Collection<Long> accountIds) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(Account.class);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        if (cache == null) {
+            return;
+        }
+        for (Long accountId : accountIds) {
+            Object key = cache.generateCacheKey(accountId, persister, factory, session.getTenantIdentifier());
+            SoftLock lock = cache.lockItem(session, key, null);
+            session.getActionQueue().registerProcess((success, completed) -> cache.unlockItem(completed, key, lock));
+        }
+    }
+}
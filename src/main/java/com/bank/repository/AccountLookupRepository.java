@@ -0,0 +1,12 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+
+import java.util.Optional;
+
+// Lookups by natural id, answered from the persistence context or the second-level cache before the database.
+// Must be called inside a transaction.
+public interface AccountLookupRepository {
+    
+    Optional<Account> findByAccountNumber(String accountNumber);
+}
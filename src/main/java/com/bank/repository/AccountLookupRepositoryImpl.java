@@ -0,0 +1,19 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class AccountLookupRepositoryImpl implements AccountLookupRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Account.class).loadOptional(accountNumber);
+    }
+}
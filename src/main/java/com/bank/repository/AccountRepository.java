@@ -1,31 +1,42 @@
 package com.bank.repository;
 
 import com.bank.entity.Account;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
-    Optional<Account> findByAccountNumber(String accountNumber);
-    List<Account> findByCustomerId(Long customerId);
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountBalanceRepository,
+        AccountSearchRepository, AccountLookupRepository {
     boolean existsByAccountNumber(String accountNumber);
     
-    @Query("SELECT a FROM Account a WHERE a.customer.id = :customerId " +
-           "AND (:accountName IS NULL OR LOWER(a.accountName) LIKE LOWER(CONCAT('%', :accountName, '%'))) " +
-           "AND (:accountType IS NULL OR a.accountType = :accountType) " +
-           "AND (:status IS NULL OR a.status = :status)")
-    Page<Account> searchAccounts(
-            @Param("customerId") Long customerId,
-            @Param("accountName") String accountName,
-            @Param("accountType") Account.AccountType accountType,
-            @Param("status") Account.AccountStatus status,
-            Pageable pageable
-    );
+    @Query("SELECT a.id FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.id")
+    List<Long> findIdsByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+    
+    @Query("SELECT new com.bank.repository.AccountSnapshot(a.id, a.accountNumber, a.customer.id, a.status, a.balance) " +
+           "FROM Account a WHERE a.accountNumber IN :accountNumbers")
+    List<AccountSnapshot> findSnapshotsByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+    
+    @Query("SELECT new com.bank.repository.AccountSnapshot(a.id, a.accountNumber, a.customer.id, a.status, a.balance) " +
+           "FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<AccountSnapshot> findSnapshotByAccountNumber(@Param("accountNumber") String accountNumber);
+    
+    @Query("SELECT new com.bank.repository.AccountSnapshot(a.id, a.accountNumber, a.customer.id, a.status, a.balance) " +
+           "FROM Account a WHERE a.id IN :ids")
+    List<AccountSnapshot> findSnapshotsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.bank.repository.AccountView(a.id, a.accountNumber, a.accountName, a.accountType, " +
+           "a.balance, a.status, a.createdAt, a.updatedAt) FROM Account a WHERE a.customer.id = :customerId")
+    List<AccountView> findViewsByCustomerId(@Param("customerId") Long customerId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.id")
+    List<Account> findAllForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
 }
@@ -0,0 +1,18 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+// A customer's accounts, newest first. Null filters are left out of the SQL rather than bound as NULL, so
+// each combination gets a plan of its own. The name matches case-insensitively anywhere in the account name.
+public interface AccountSearchRepository {
+    
+    Page<AccountView> searchAccounts(
+            Long customerId,
+            String accountName,
+            Account.AccountType accountType,
+            Account.AccountStatus status,
+            Pageable pageable
+    );
+}
@@ -0,0 +1,69 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+class AccountSearchRepositoryImpl implements AccountSearchRepository {
+    
+    private static final String VIEW = "SELECT new com.bank.repository.AccountView(a.id, a.accountNumber, " +
+            "a.accountName, a.accountType, a.balance, a.status, a.createdAt, a.updatedAt)";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Page<AccountView> searchAccounts(
+            Long customerId,
+            String accountName,
+            Account.AccountType accountType,
+            Account.AccountStatus status,
+            Pageable pageable) {
+        
+        StringBuilder where = new StringBuilder(" FROM Account a WHERE a.customer.id = :customerId");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("customerId", customerId);
+        
+        if (accountType != null) {
+            where.append(" AND a.accountType = :accountType");
+            parameters.put("accountType", accountType);
+        }
+        if (status != null) {
+            where.append(" AND a.status = :status");
+            parameters.put("status", status);
+        }
+        if (accountName != null && !accountName.isEmpty()) {
+            // Served by the trigram index on PostgreSQL; elsewhere a filter over the customer's index range
+            where.append(" AND LOWER(a.accountName) LIKE :accountName ESCAPE '\\'");
+            parameters.put("accountName", "%" + escapeLike(accountName.toLowerCase(Locale.ROOT)) + "%");
+        }
+        
+        TypedQuery<AccountView> select = bind(entityManager.createQuery(
+                VIEW + where + " ORDER BY a.createdAt DESC, a.id DESC", AccountView.class), parameters);
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        
+        return PageableExecutionUtils.getPage(select.getResultList(), pageable, () -> bind(
+                entityManager.createQuery("SELECT COUNT(a)" + where, Long.class), parameters).getSingleResult());
+    }
+    
+    private static <Q extends Query> Q bind(Q query, Map<String, Object> parameters) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
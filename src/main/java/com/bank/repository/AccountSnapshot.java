@@ -0,0 +1,9 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+
+import java.math.BigDecimal;
+
+public record AccountSnapshot(Long id, String accountNumber, Long customerId, Account.AccountStatus status,
+                              BigDecimal balance) {
+}
@@ -0,0 +1,12 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// The columns of an AccountResponse, selected without loading the entity
+public record AccountView(Long id, String accountNumber, String accountName, Account.AccountType accountType,
+                          BigDecimal balance, Account.AccountStatus status, LocalDateTime createdAt,
+                          LocalDateTime updatedAt) {
+}
@@ -0,0 +1,8 @@
+package com.bank.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// An account's balance from every SUCCESS posting created before asOf
+public record BalanceCheckpoint(Long accountId, LocalDateTime asOf, BigDecimal balance) {
+}
@@ -0,0 +1,158 @@
+package com.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Balances as of a point in time, from balance_checkpoints and the postings on either side of them. Only
+// SUCCESS postings count, by created_at: a transfer that settles later counts from when it was accepted.
+@Repository
+@RequiredArgsConstructor
+public class BalanceCheckpointRepository {
+    
+    // What a posting adds to its account: credits for deposits and incoming legs, debits for everything else
+    private static final String CHANGE = "CASE WHEN t.type IN ('DEPOSIT', 'TRANSFER_IN') THEN t.amount " +
+            "ELSE -t.amount END";
+    
+    // Both legs of an account's postings in [from, until); each uses its own (account, created_at, id) index
+    private static final String CHANGE_BETWEEN = "((SELECT COALESCE(SUM(" + CHANGE + "), 0) FROM transactions t " +
+            "WHERE t.account_id = %1$s AND t.status = 'SUCCESS' AND t.created_at >= %2$s AND t.created_at < %3$s) + " +
+            "(SELECT COALESCE(SUM(t.amount), 0) FROM transactions t WHERE t.counter_account_id = %1$s " +
+            "AND t.status = 'SUCCESS' AND t.created_at >= %2$s AND t.created_at < %3$s))";
+    
+    private static final String CHANGE_SINCE = "((SELECT COALESCE(SUM(" + CHANGE + "), 0) FROM transactions t " +
+            "WHERE t.account_id = %1$s AND t.status = 'SUCCESS' AND t.created_at >= %2$s) + " +
+            "(SELECT COALESCE(SUM(t.amount), 0) FROM transactions t WHERE t.counter_account_id = %1$s " +
+            "AND t.status = 'SUCCESS' AND t.created_at >= %2$s))";
+    
+    // The latest checkpoint at or before the bound, rolled forward to it
+    private static final String FORWARD = "SELECT c.balance + " +
+            CHANGE_BETWEEN.formatted("c.account_id", "c.as_of", "?") + " FROM balance_checkpoints c " +
+            "WHERE c.account_id = ? AND c.as_of <= ? ORDER BY c.as_of DESC FETCH FIRST 1 ROWS ONLY";
+    
+    // The earliest checkpoint after the bound, rolled back to it
+    private static final String BACKWARD = "SELECT c.balance - " +
+            CHANGE_BETWEEN.formatted("c.account_id", "?", "c.as_of") + " FROM balance_checkpoints c " +
+            "WHERE c.account_id = ? AND c.as_of > ? ORDER BY c.as_of FETCH FIRST 1 ROWS ONLY";
+    
+    // The current balance rolled back to the bound, in one statement so both are read from the same snapshot
+    private static final String REWIND = "SELECT a.balance - " + CHANGE_SINCE.formatted("a.id", "?") +
+            " FROM accounts a WHERE a.id = ?";
+    
+    private static final String DAILY_CHANGES = "SELECT d.account_id, SUM(d.net) AS net FROM (" +
+            "SELECT t.account_id, " + CHANGE + " AS net FROM transactions t " +
+            "WHERE t.status = 'SUCCESS' AND t.created_at >= ? AND t.created_at < ? " +
+            "UNION ALL SELECT t.counter_account_id, t.amount FROM transactions t " +
+            "WHERE t.counter_account_id IS NOT NULL AND t.status = 'SUCCESS' AND t.created_at >= ? AND t.created_at < ?" +
+            ") d GROUP BY d.account_id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // The balance from every SUCCESS posting created before the bound. Reads a checkpoint and the postings
+    // between it and the bound; without a checkpoint, the current balance and the postings since the bound.
+    public BigDecimal balanceBefore(Long accountId, LocalDateTime bound) {
+        Timestamp at = Timestamp.valueOf(bound);
+        return first(FORWARD, at, at, accountId, at)
+                .or(() -> first(BACKWARD, at, at, accountId, at))
+                .orElseGet(() -> first(REWIND, at, at, accountId).orElse(BigDecimal.ZERO));
+    }
+    
+    public Optional<LocalDateTime> findFirstPostingAt() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM transactions", LocalDateTime.class));
+    }
+    
+    public Optional<LocalDateTime> findOldestPendingAt() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM transactions WHERE status = 'PENDING'", LocalDateTime.class));
+    }
+    
+    // Net change per account over [from, until), handed over batchSize accounts at a time. Rows come from a
+    // forward-only cursor, so callers must run in a transaction (see TransactionExportRepository).
+    public void streamDailyChanges(LocalDateTime from, LocalDateTime until, int batchSize,
+                                   Consumer<Map<Long, BigDecimal>> batchConsumer) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(until);
+        Map<Long, BigDecimal> batch = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    DAILY_CHANGES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(batchSize);
+            statement.setTimestamp(1, start);
+            statement.setTimestamp(2, end);
+            statement.setTimestamp(3, start);
+            statement.setTimestamp(4, end);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            batch.put(rs.getLong("account_id"), rs.getBigDecimal("net"));
+            if (batch.size() == batchSize) {
+                batchConsumer.accept(Map.copyOf(batch));
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+        }
+    }
+    
+    // The balance of the latest checkpoint at or before the bound, for the accounts that have one
+    public Map<Long, BigDecimal> findLatestBalances(Collection<Long> accountIds, LocalDateTime bound) {
+        Timestamp at = Timestamp.valueOf(bound);
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        jdbcTemplate.query("SELECT c.account_id, c.balance FROM balance_checkpoints c " +
+                "WHERE c.account_id IN (" + placeholders(accountIds.size()) + ") AND c.as_of = (" +
+                "SELECT MAX(p.as_of) FROM balance_checkpoints p WHERE p.account_id = c.account_id AND p.as_of <= ?)",
+                (RowCallbackHandler) rs -> balances.put(rs.getLong(1), rs.getBigDecimal(2)),
+                arguments(accountIds, at));
+        return balances;
+    }
+    
+    // Current balances rolled back to the bound, for accounts checkpointed for the first time
+    public Map<Long, BigDecimal> rewindBalances(Collection<Long> accountIds, LocalDateTime bound) {
+        Timestamp at = Timestamp.valueOf(bound);
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        List<Object> args = new ArrayList<>(Collections.nCopies(2, at));
+        args.addAll(accountIds);
+        jdbcTemplate.query("SELECT a.id, a.balance - " + CHANGE_SINCE.formatted("a.id", "?") +
+                " FROM accounts a WHERE a.id IN (" + placeholders(accountIds.size()) + ")",
+                (RowCallbackHandler) rs -> balances.put(rs.getLong(1), rs.getBigDecimal(2)), args.toArray());
+        return balances;
+    }
+    
+    public void insert(Collection<BalanceCheckpoint> checkpoints) {
+        List<Object[]> args = new ArrayList<>(checkpoints.size());
+        for (BalanceCheckpoint checkpoint : checkpoints) {
+            args.add(new Object[] {checkpoint.accountId(), Timestamp.valueOf(checkpoint.asOf()), checkpoint.balance()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO balance_checkpoints (account_id, as_of, balance) VALUES (?, ?, ?)", args);
+    }
+    
+    private Optional<BigDecimal> first(String sql, Object... args) {
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getBigDecimal(1), args).stream().findFirst();
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    private static Object[] arguments(Collection<Long> accountIds, Object last) {
+        List<Object> args = new ArrayList<>(accountIds);
+        args.add(last);
+        return args.toArray();
+    }
+}
@@ -0,0 +1,12 @@
+package com.bank.repository;
+
+import com.bank.entity.Customer;
+
+import java.util.Optional;
+
+// Lookups by natural id, answered from the persistence context or the second-level cache before the database.
+// Must be called inside a transaction.
+public interface CustomerLookupRepository {
+    
+    Optional<Customer> findByUsername(String username);
+}
@@ -0,0 +1,19 @@
+package com.bank.repository;
+
+import com.bank.entity.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class CustomerLookupRepositoryImpl implements CustomerLookupRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Customer> findByUsername(String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Customer.class).loadOptional(username);
+    }
+}
@@ -7,8 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
-    Optional<Customer> findByUsername(String username);
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerLookupRepository {
     Optional<Customer> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
@@ -0,0 +1,17 @@
+package com.bank.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public record CustomerSummary(Long customerId, int accounts, BigDecimal balance, long transactions,
+                              LocalDateTime lastActivityAt) {
+    
+    // Same figures, whatever the scale of the balance
+    public boolean matches(CustomerSummary other) {
+        return accounts == other.accounts
+                && balance.compareTo(other.balance) == 0
+                && transactions == other.transactions
+                && Objects.equals(lastActivityAt, other.lastActivityAt);
+    }
+}
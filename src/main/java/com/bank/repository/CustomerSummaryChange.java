@@ -0,0 +1,16 @@
+package com.bank.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Amounts to add to a customer's summary row. lastActivityAt only ever moves the stored value forward.
+public record CustomerSummaryChange(Long customerId, int accounts, BigDecimal balance, long transactions,
+                                    LocalDateTime lastActivityAt) {
+    
+    public CustomerSummaryChange plus(CustomerSummaryChange other) {
+        LocalDateTime latest = lastActivityAt == null || (other.lastActivityAt != null
+                && other.lastActivityAt.isAfter(lastActivityAt)) ? other.lastActivityAt : lastActivityAt;
+        return new CustomerSummaryChange(customerId, accounts + other.accounts, balance.add(other.balance),
+                transactions + other.transactions, latest);
+    }
+}
@@ -0,0 +1,122 @@
+package com.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// The customer_summaries rows behind the dashboard. Postings only ever add to a row; rebuilds recompute it
+// from accounts and transactions.
+@Repository
+@RequiredArgsConstructor
+public class CustomerSummaryRepository {
+    
+    private static final String COLUMNS = "customer_id, accounts, balance, transactions, last_activity_at";
+    
+    private static final String APPLY = "UPDATE customer_summaries SET accounts = accounts + ?, " +
+            "balance = balance + ?, transactions = transactions + ?, last_activity_at = CASE " +
+            "WHEN last_activity_at IS NULL OR last_activity_at < CAST(? AS TIMESTAMP) THEN CAST(? AS TIMESTAMP) " +
+            "ELSE last_activity_at END WHERE customer_id = ?";
+    
+    // Same figures as the backfill in V4__customer_summaries. The transaction count adds the credit legs of
+    // single-row transfers from other customers, so each index on transactions is used on its own.
+    private static final String COMPUTE = "SELECT CAST(? AS BIGINT) AS customer_id, " +
+            "(SELECT COUNT(*) FROM accounts a WHERE a.customer_id = ?) AS accounts, " +
+            "(SELECT COALESCE(SUM(a.balance), 0) FROM accounts a WHERE a.customer_id = ?) AS balance, " +
+            "(SELECT COUNT(*) FROM transactions t JOIN accounts a ON a.id = t.account_id WHERE a.customer_id = ?) " +
+            "+ (SELECT COUNT(*) FROM transactions t JOIN accounts a ON a.id = t.counter_account_id " +
+            "JOIN accounts o ON o.id = t.account_id WHERE a.customer_id = ? AND o.customer_id <> ?) AS transactions, " +
+            "(SELECT MAX(t.created_at) FROM transactions t JOIN accounts a ON a.id = t.account_id " +
+            "WHERE a.customer_id = ?) AS last_posting_at, " +
+            "(SELECT MAX(t.created_at) FROM transactions t JOIN accounts a ON a.id = t.counter_account_id " +
+            "WHERE a.customer_id = ?) AS last_counter_posting_at";
+    
+    private static final RowMapper<CustomerSummary> ROW = (rs, rowNum) -> new CustomerSummary(
+            rs.getLong("customer_id"), rs.getInt("accounts"), rs.getBigDecimal("balance"), rs.getLong("transactions"),
+            localDateTime(rs.getTimestamp("last_activity_at")));
+    
+    // The later of the two legs' last postings is taken here; GREATEST is NULL on H2 when either side is
+    private static final RowMapper<CustomerSummary> COMPUTED = (rs, rowNum) -> {
+        LocalDateTime posting = localDateTime(rs.getTimestamp("last_posting_at"));
+        LocalDateTime counterPosting = localDateTime(rs.getTimestamp("last_counter_posting_at"));
+        LocalDateTime lastActivityAt = posting == null || (counterPosting != null && counterPosting.isAfter(posting))
+                ? counterPosting : posting;
+        return new CustomerSummary(rs.getLong("customer_id"), rs.getInt("accounts"), rs.getBigDecimal("balance"),
+                rs.getLong("transactions"), lastActivityAt);
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void create(Long customerId) {
+        jdbcTemplate.update("INSERT INTO customer_summaries (" + COLUMNS + ") VALUES (?, 0, 0, 0, NULL)", customerId);
+    }
+    
+    public Optional<CustomerSummary> findByCustomerId(Long customerId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM customer_summaries WHERE customer_id = ?", ROW,
+                customerId).stream().findFirst();
+    }
+    
+    // Holds the row until the transaction ends, so no posting adds to it while it is being rebuilt
+    public Optional<CustomerSummary> findForUpdate(Long customerId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM customer_summaries WHERE customer_id = ? FOR UPDATE",
+                ROW, customerId).stream().findFirst();
+    }
+    
+    // The summary as the ledger has it now; a full read of the customer's postings
+    public CustomerSummary compute(Long customerId) {
+        return jdbcTemplate.queryForObject(COMPUTE, COMPUTED, customerId, customerId, customerId, customerId, customerId,
+                customerId, customerId, customerId);
+    }
+    
+    public void insert(CustomerSummary summary) {
+        jdbcTemplate.update("INSERT INTO customer_summaries (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)",
+                summary.customerId(), summary.accounts(), summary.balance(), summary.transactions(),
+                timestamp(summary));
+    }
+    
+    public void replace(CustomerSummary summary) {
+        jdbcTemplate.update("UPDATE customer_summaries SET accounts = ?, balance = ?, transactions = ?, " +
+                "last_activity_at = ? WHERE customer_id = ?", summary.accounts(), summary.balance(),
+                summary.transactions(), timestamp(summary), summary.customerId());
+    }
+    
+    // Callers pass the changes in customer id order, so concurrent writers lock the rows in the same order.
+    // Returns the customers that have no summary row.
+    public List<Long> apply(Collection<CustomerSummaryChange> changes) {
+        List<Object[]> args = new ArrayList<>(changes.size());
+        for (CustomerSummaryChange change : changes) {
+            Timestamp at = change.lastActivityAt() != null ? Timestamp.valueOf(change.lastActivityAt()) : null;
+            args.add(new Object[] {change.accounts(), change.balance(), change.transactions(), at, at,
+                    change.customerId()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(APPLY, args);
+        
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add((Long) args.get(i)[5]);
+            }
+        }
+        return missing;
+    }
+    
+    public List<Long> findCustomerIdsAfter(Long afterId, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM customers WHERE id > ? ORDER BY id " +
+                "FETCH FIRST " + limit + " ROWS ONLY", Long.class, afterId);
+    }
+    
+    private static LocalDateTime localDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+    
+    private static Timestamp timestamp(CustomerSummary summary) {
+        return summary.lastActivityAt() != null ? Timestamp.valueOf(summary.lastActivityAt()) : null;
+    }
+}
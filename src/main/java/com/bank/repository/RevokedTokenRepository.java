@@ -0,0 +1,49 @@
+package com.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+// The revoked_tokens rows behind TokenRevocationList: ids of revoked sessions and used refresh tokens
+@Repository
+@RequiredArgsConstructor
+public class RevokedTokenRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Returns false when the id was already revoked; callers must not run this inside a transaction they
+    // want to keep, as the failed insert aborts it on PostgreSQL
+    public boolean insert(String id, Instant expiresAt) {
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_tokens (id, expires_at) VALUES (?, ?)", id,
+                    Timestamp.from(expiresAt));
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+    
+    public boolean exists(String id) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM revoked_tokens WHERE id = ?", Integer.class, id).isEmpty();
+    }
+    
+    public long countActive(Instant now) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revoked_tokens WHERE expires_at > ?",
+                Long.class, Timestamp.from(now));
+        return count != null ? count : 0;
+    }
+    
+    public void forEachActive(Instant now, Consumer<String> action) {
+        jdbcTemplate.query("SELECT id FROM revoked_tokens WHERE expires_at > ?",
+                rs -> { action.accept(rs.getString(1)); }, Timestamp.from(now));
+    }
+    
+    public int deleteExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", Timestamp.from(now));
+    }
+}
@@ -0,0 +1,89 @@
+package com.bank.repository;
+
+import com.bank.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// JDBC-batched writes for the batch posting and journal paths. Callers must hold row locks on the accounts, or
+// be their only writer, and run inside a JPA transaction so the cached accounts can be locked.
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+    
+    private static final String UPDATE_BALANCE =
+            "UPDATE accounts SET balance = ?, updated_at = ? WHERE id = ?";
+    
+    private static final String CLOSE_ACCOUNT =
+            "UPDATE accounts SET status = 'CLOSED', updated_at = ? WHERE id = ?";
+    
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, transaction_id, type, amount, balance_before, balance_after, description, " +
+            "status, account_id, from_account_number, to_account_number, counter_account_id, " +
+            "counter_balance_before, counter_balance_after, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public void updateBalances(Map<Long, BigDecimal> balancesByAccountId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(balancesByAccountId.size());
+        balancesByAccountId.forEach((accountId, balance) -> args.add(new Object[] {balance, now, accountId}));
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE, args);
+        AccountCacheLocks.lock(entityManager, balancesByAccountId.keySet());
+    }
+    
+    // Ids are drawn from the entity's own pooled generator, so they come out of the same blocks of
+    // transactions_seq as rows saved through JPA: one nextval per allocation, none per row
+    public void insertTransactions(List<Transaction> transactions) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Transaction.class).getGenerator();
+        for (Transaction transaction : transactions) {
+            transaction.setId((Long) generator.generate(session, transaction, null, EventType.INSERT));
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions, transactions.size(), (ps, transaction) -> {
+            ps.setLong(1, transaction.getId());
+            ps.setString(2, transaction.getTransactionId());
+            ps.setString(3, transaction.getType().name());
+            ps.setBigDecimal(4, transaction.getAmount());
+            ps.setBigDecimal(5, transaction.getBalanceBefore());
+            ps.setBigDecimal(6, transaction.getBalanceAfter());
+            ps.setString(7, transaction.getDescription());
+            ps.setString(8, transaction.getStatus().name());
+            ps.setLong(9, transaction.getAccount().getId());
+            ps.setString(10, transaction.getFromAccountNumber());
+            ps.setString(11, transaction.getToAccountNumber());
+            ps.setObject(12, transaction.getCounterAccount() != null ? transaction.getCounterAccount().getId() : null,
+                    Types.BIGINT);
+            ps.setBigDecimal(13, transaction.getCounterBalanceBefore());
+            ps.setBigDecimal(14, transaction.getCounterBalanceAfter());
+            ps.setTimestamp(15, Timestamp.valueOf(transaction.getCreatedAt()));
+        });
+    }
+    
+    public void closeAccounts(Collection<Long> accountIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(accountIds.size());
+        accountIds.forEach(accountId -> args.add(new Object[] {now, accountId}));
+        jdbcTemplate.batchUpdate(CLOSE_ACCOUNT, args);
+        AccountCacheLocks.lock(entityManager, accountIds);
+    }
+}
@@ -0,0 +1,80 @@
+package com.bank.repository;
+
+import com.bank.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+// Forward-only reads of an account's postings for exports. Rows are handed over one at a time as
+// TransactionViews, so neither the persistence context nor the driver holds more than one fetch of rows.
+// PostgreSQL only streams with a fetch size inside a transaction; callers must run in one. H2 ignores the fetch
+// size here: it sorts the whole union first and keeps the result in the application's heap, spilling to disk
+// past its MAX_MEMORY_ROWS, so memory only stays flat on PostgreSQL.
+@Repository
+@RequiredArgsConstructor
+public class TransactionExportRepository {
+    
+    private static final String COLUMNS = "id, transaction_id, type, amount, balance_before, balance_after, " +
+            "description, status, from_account_number, to_account_number, counter_balance_before, " +
+            "counter_balance_after, failure_reason, created_at, account_id, counter_account_id";
+    
+    // Both legs, oldest first. Each branch can use its own (account, created_at, id) index; for an account
+    // holding much of the table the database sorts instead, spilling to disk on its side.
+    private static final String POSTINGS =
+            "SELECT " + COLUMNS + " FROM transactions WHERE account_id = ? AND created_at BETWEEN ? AND ? " +
+            "UNION ALL " +
+            "SELECT " + COLUMNS + " FROM transactions WHERE counter_account_id = ? AND created_at BETWEEN ? AND ? " +
+            "ORDER BY created_at, id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${app.export.fetch-size}")
+    private int fetchSize;
+    
+    public void streamPostings(Long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                               Consumer<TransactionView> consumer) {
+        Timestamp start = Timestamp.valueOf(startDate);
+        Timestamp end = Timestamp.valueOf(endDate);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    POSTINGS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, accountId);
+            statement.setTimestamp(2, start);
+            statement.setTimestamp(3, end);
+            statement.setLong(4, accountId);
+            statement.setTimestamp(5, start);
+            statement.setTimestamp(6, end);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(toView(rs)));
+    }
+    
+    private static TransactionView toView(ResultSet rs) throws SQLException {
+        return new TransactionView(
+                rs.getLong("id"),
+                rs.getString("transaction_id"),
+                Transaction.TransactionType.valueOf(rs.getString("type")),
+                rs.getBigDecimal("amount"),
+                rs.getBigDecimal("balance_before"),
+                rs.getBigDecimal("balance_after"),
+                rs.getBigDecimal("counter_balance_before"),
+                rs.getBigDecimal("counter_balance_after"),
+                rs.getString("description"),
+                Transaction.TransactionStatus.valueOf(rs.getString("status")),
+                rs.getString("from_account_number"),
+                rs.getString("to_account_number"),
+                rs.getString("failure_reason"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getLong("account_id"),
+                rs.getObject("counter_account_id", Long.class));
+    }
+}
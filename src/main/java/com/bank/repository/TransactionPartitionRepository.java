@@ -0,0 +1,66 @@
+package com.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// DDL for the monthly partitions of transactions on PostgreSQL. Partitions are named transactions_YYYY_MM
+// and cover [first day of the month, first day of the next month).
+@Repository
+@RequiredArgsConstructor
+public class TransactionPartitionRepository {
+    
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    
+    private static final String IS_PARTITIONED =
+            "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+            "WHERE c.relname = 'transactions' AND c.relnamespace = current_schema()::regnamespace";
+    
+    private static final String MONTHLY_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class parent ON parent.oid = i.inhparent " +
+            "WHERE parent.relname = 'transactions' AND parent.relnamespace = current_schema()::regnamespace " +
+            "AND c.relname ~ '^transactions_[0-9]{4}_[0-9]{2}$' ORDER BY c.relname";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public boolean isPartitioned() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product) && jdbcTemplate.queryForObject(IS_PARTITIONED, Long.class) > 0;
+    }
+    
+    // First days of the months that have an attached monthly partition, oldest first
+    public List<LocalDate> findMonths() {
+        return jdbcTemplate.queryForList(MONTHLY_PARTITIONS, String.class).stream()
+                .map(name -> YearMonth.parse(name.substring("transactions_".length()), SUFFIX).atDay(1))
+                .toList();
+    }
+    
+    public void createMonth(LocalDate month) {
+        jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF transactions " +
+                "FOR VALUES FROM ('%s') TO ('%s')", name(month), month, month.plusMonths(1)));
+    }
+    
+    // The detached table keeps its rows, so it can be archived before it is dropped
+    public void detachMonth(LocalDate month) {
+        jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + name(month));
+    }
+    
+    // Also forgets the month's transaction ids, which only keep transaction_id unique among stored rows
+    public void dropMonth(LocalDate month) {
+        jdbcTemplate.update("DELETE FROM transaction_ids WHERE created_at >= ? AND created_at < ?",
+                month.atStartOfDay(), month.plusMonths(1).atStartOfDay());
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + name(month));
+    }
+    
+    public static String name(LocalDate month) {
+        return "transactions_" + month.format(SUFFIX);
+    }
+}
@@ -1,27 +1,99 @@
 package com.bank.repository;
 
 import com.bank.entity.Transaction;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    Page<Transaction> findByAccountId(Long accountId, Pageable pageable);
+    Optional<Transaction> findByTransactionId(String transactionId);
     
-    Page<Transaction> findByAccountIdAndCreatedAtBetween(
-            Long accountId,
-            LocalDateTime startDate,
-            LocalDateTime endDate,
+    @Query(TransactionView.SELECT + "FROM Transaction t WHERE t.transactionId = :transactionId")
+    Optional<TransactionView> findViewByTransactionId(@Param("transactionId") String transactionId);
+    
+    // Newest-first postings past a (createdAt, id) position. Each leg is read separately so both can walk
+    // their own index, where a single OR across the two columns would scan the table; the caller merges them.
+    // The plain createdAt bounds let PostgreSQL prune monthly partitions, which it cannot do from the row
+    // comparison alone.
+    @Query(TransactionView.SELECT + "FROM Transaction t WHERE t.account.id = :accountId AND t.createdAt >= :since " +
+           "AND t.createdAt <= :createdAt AND (t.createdAt, t.id) < (:createdAt, :id) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findPostingsBefore(
+            @Param("accountId") Long accountId,
+            @Param("since") LocalDateTime since,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") long id,
+            Pageable pageable
+    );
+    
+    @Query(TransactionView.SELECT + "FROM Transaction t WHERE t.counterAccount.id = :accountId " +
+           "AND t.createdAt >= :since " +
+           "AND t.createdAt <= :createdAt AND (t.createdAt, t.id) < (:createdAt, :id) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findCounterPostingsBefore(
+            @Param("accountId") Long accountId,
+            @Param("since") LocalDateTime since,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") long id,
+            Pageable pageable
+    );
+    
+    // Both legs merged and cut by the database, newest first, for offset pages once single-row transfers exist.
+    // Each branch walks its own index, so the rows before the offset never reach the application.
+    @Query(TransactionView.SELECT_MERGED + "FROM (" +
+           TransactionView.SELECT_ROW + "FROM Transaction t WHERE t.account.id = :accountId " +
+           "AND t.createdAt BETWEEN :startDate AND :endDate " +
+           "UNION ALL " +
+           TransactionView.SELECT_ROW + "FROM Transaction t WHERE t.counterAccount.id = :accountId " +
+           "AND t.createdAt BETWEEN :startDate AND :endDate" +
+           ") p ORDER BY p.createdAt DESC, p.id DESC")
+    List<TransactionView> findBothLegs(
+            @Param("accountId") Long accountId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable
+    );
+    
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.account.id = :accountId " +
+           "AND t.createdAt BETWEEN :startDate AND :endDate")
+    long countPostings(
+            @Param("accountId") Long accountId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+    
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.counterAccount.id = :accountId " +
+           "AND t.createdAt BETWEEN :startDate AND :endDate")
+    long countCounterPostings(
+            @Param("accountId") Long accountId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+    
+    // Probes the counter leg index for any single-row transfer
+    boolean existsByCounterAccountIsNotNull();
+    
+    // Each settlement worker owns the transactions whose id falls in its slot
+    @Query("SELECT t.id FROM Transaction t WHERE t.status = :status " +
+           "AND MOD(t.id, :workers) = :worker ORDER BY t.id")
+    List<Long> findIdsByStatusInSlot(
+            @Param("status") Transaction.TransactionStatus status,
+            @Param("workers") int workers,
+            @Param("worker") int worker,
             Pageable pageable
     );
     
-    @Query("SELECT t FROM Transaction t WHERE t.account.customer.id = :customerId " +
-           "ORDER BY t.createdAt DESC")
-    Page<Transaction> findByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id IN :ids ORDER BY t.id")
+    List<Transaction> findAllForUpdate(@Param("ids") Collection<Long> ids);
 }
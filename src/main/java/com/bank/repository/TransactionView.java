@@ -0,0 +1,44 @@
+package com.bank.repository;
+
+import com.bank.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// The columns a TransactionResponse is built from. Read paths select it with a constructor expression, so rows
+// never become managed entities and the account ids come from the foreign keys without a join.
+public record TransactionView(Long id, String transactionId, Transaction.TransactionType type, BigDecimal amount,
+                              BigDecimal balanceBefore, BigDecimal balanceAfter, BigDecimal counterBalanceBefore,
+                              BigDecimal counterBalanceAfter, String description,
+                              Transaction.TransactionStatus status, String fromAccountNumber, String toAccountNumber,
+                              String failureReason, LocalDateTime createdAt, Long accountId, Long counterAccountId) {
+    
+    static final String SELECT = "SELECT new com.bank.repository.TransactionView(t.id, t.transactionId, t.type, " +
+            "t.amount, t.balanceBefore, t.balanceAfter, t.counterBalanceBefore, t.counterBalanceAfter, " +
+            "t.description, t.status, t.fromAccountNumber, t.toAccountNumber, t.failureReason, t.createdAt, " +
+            "t.account.id, t.counterAccount.id) ";
+    
+    // The same columns named, for a set operation in a FROM clause, which cannot select a constructor expression;
+    // SELECT_MERGED builds the view from the derived table p
+    static final String SELECT_ROW = "SELECT t.id AS id, t.transactionId AS transactionId, t.type AS type, " +
+            "t.amount AS amount, t.balanceBefore AS balanceBefore, t.balanceAfter AS balanceAfter, " +
+            "t.counterBalanceBefore AS counterBalanceBefore, t.counterBalanceAfter AS counterBalanceAfter, " +
+            "t.description AS description, t.status AS status, t.fromAccountNumber AS fromAccountNumber, " +
+            "t.toAccountNumber AS toAccountNumber, t.failureReason AS failureReason, t.createdAt AS createdAt, " +
+            "t.account.id AS accountId, t.counterAccount.id AS counterAccountId ";
+    
+    static final String SELECT_MERGED = "SELECT new com.bank.repository.TransactionView(p.id, p.transactionId, " +
+            "p.type, p.amount, p.balanceBefore, p.balanceAfter, p.counterBalanceBefore, p.counterBalanceAfter, " +
+            "p.description, p.status, p.fromAccountNumber, p.toAccountNumber, p.failureReason, p.createdAt, " +
+            "p.accountId, p.counterAccountId) ";
+    
+    public static TransactionView of(Transaction transaction) {
+        return new TransactionView(transaction.getId(), transaction.getTransactionId(), transaction.getType(),
+                transaction.getAmount(), transaction.getBalanceBefore(), transaction.getBalanceAfter(),
+                transaction.getCounterBalanceBefore(), transaction.getCounterBalanceAfter(),
+                transaction.getDescription(), transaction.getStatus(), transaction.getFromAccountNumber(),
+                transaction.getToAccountNumber(), transaction.getFailureReason(), transaction.getCreatedAt(),
+                transaction.getAccount() != null ? transaction.getAccount().getId() : null,
+                transaction.getCounterAccount() != null ? transaction.getCounterAccount().getId() : null);
+    }
+}
@@ -0,0 +1,162 @@
+package com.bank.security;
+
+import com.bank.exception.AuthenticationBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCrypt on a fixed pool of hashing threads in front of a bounded queue, so a login or registration storm can
+// only occupy that many cores. Callers wait for their hash; when the queue is full they are turned away at once
+// with AuthenticationBusyException instead of piling up on request threads.
+@Component
+@RequiredArgsConstructor
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.password-hashing.strength}")
+    private int strength;
+    
+    @Value("${app.password-hashing.threads}")
+    private int threadCount;
+    
+    @Value("${app.password-hashing.queue-capacity}")
+    private int queueCapacity;
+    
+    private BCryptPasswordEncoder bcrypt;
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Counter rejected;
+    private Counter deferred;
+    
+    @PostConstruct
+    public void init() {
+        shutdown();
+        int threads = threadCount > 0 ? threadCount : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        bcrypt = new BCryptPasswordEncoder(strength);
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+        encodeTimer = hashingTimer("encode");
+        matchesTimer = hashingTimer("matches");
+        rejected = Counter.builder("auth.password.hashing.rejected")
+                .description("Password hashes refused because the hashing queue was full")
+                .register(meterRegistry);
+        deferred = Counter.builder("auth.password.rehash.deferred")
+                .description("Rehashes after a successful login left for a later login because the queue was full")
+                .register(meterRegistry);
+        logger.info("Password hashing on {} threads with queue capacity {} and BCrypt strength {}",
+                threads, queueCapacity, strength);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(encodeTimer, () -> bcrypt.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(matchesTimer, () -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+    
+    // Hashes made with another work factor are re-encoded after a successful login, in either direction, so
+    // strength can be changed per deployment (see SecurityConfig)
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+    
+    // The rehash after a successful login: returns null instead of throwing when the queue is full, leaving the
+    // rehash for a later login rather than refusing one whose password already matched
+    public String tryEncode(CharSequence rawPassword) {
+        Future<String> result;
+        try {
+            result = executor.submit(() -> encodeTimer.recordCallable(() -> bcrypt.encode(rawPassword)));
+        } catch (RejectedExecutionException ex) {
+            deferred.increment();
+            return null;
+        }
+        
+        try {
+            return await(result);
+        } catch (AuthenticationBusyException ex) {
+            deferred.increment();
+            return null;
+        }
+    }
+    
+    private <T> T hash(Timer timer, Callable<T> work) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> timer.recordCallable(work));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new AuthenticationBusyException("Too many sign-in attempts, please retry shortly");
+        }
+        return await(result);
+    }
+    
+    private <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationBusyException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+    
+    private Timer hashingTimer(String operation) {
+        return Timer.builder("auth.password.hashing")
+                .description("Time spent computing a password hash, excluding the wait in the queue")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -4,6 +4,7 @@ import com.bank.entity.Customer;
 import com.bank.repository.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,7 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
     private final CustomerRepository customerRepository;
     
@@ -31,4 +32,15 @@ public class CustomUserDetailsService implements UserDetailsService {
         
         return UserPrincipal.create(customer);
     }
+    
+    // Stores the password re-encoded at the configured strength after a successful login
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Customer customer = customerRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Customer not found with username: " + user.getUsername()));
+        customer.setPassword(newPassword);
+        
+        return UserPrincipal.create(customer);
+    }
 }
@@ -0,0 +1,41 @@
+package com.bank.security;
+
+import com.bank.entity.Customer;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Evicts the cached principal of a customer whose row is updated or deleted, covering status and credential
+// changes. The entry is evicted again once the transaction completes, so that a principal loaded from the old
+// row before the commit does not outlive the change. The cache is looked up lazily because Hibernate creates
+// this listener while the repositories the cache depends on are still being built.
+public class CustomerChangeListener {
+    
+    private final ObjectProvider<PrincipalCache> principalCache;
+    
+    public CustomerChangeListener(ObjectProvider<PrincipalCache> principalCache) {
+        this.principalCache = principalCache;
+    }
+    
+    @PostUpdate
+    @PostRemove
+    public void customerChanged(Customer customer) {
+        PrincipalCache cache = principalCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        
+        Long customerId = customer.getId();
+        cache.evict(customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(customerId);
+                }
+            });
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bank.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,6 +17,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,7 +26,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     
     private final JwtTokenProvider tokenProvider;
-    private final CustomUserDetailsService customUserDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,10 +36,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromJWT(jwt);
-                
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+            Optional<Claims> claims = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt) : Optional.empty();
+            if (claims.isPresent() && isAccepted(claims.get())) {
+                UserDetails userDetails = tokenProvider.getEmbeddedPrincipal(claims.get())
+                        .orElseGet(() -> principalCache.get(tokenProvider.getUserId(claims.get())));
                 UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -50,6 +53,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    // Refresh tokens are only accepted by /api/auth/refresh, and tokens issued without a session cannot be revoked
+    private boolean isAccepted(Claims claims) {
+        String sessionId = tokenProvider.getSessionId(claims);
+        return sessionId != null && !tokenProvider.isRefreshToken(claims) && !revocationList.isRevoked(sessionId);
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
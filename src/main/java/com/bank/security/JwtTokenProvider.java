@@ -1,20 +1,49 @@
 package com.bank.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
+    private static final String USERNAME_CLAIM = "username";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String SESSION_CLAIM = "sid";
+    private static final String TYPE_CLAIM = "type";
+    private static final String REFRESH_TYPE = "refresh";
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    });
     
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -22,41 +51,95 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.refresh-expiration}")
+    private long refreshExpirationInMs;
+    
+    @Value("${jwt.verified-cache.max-entries}")
+    private long verifiedCacheMaxEntries;
+    
+    @Value("${jwt.embed-principal}")
+    private boolean embedPrincipal;
+    
+    // The key and parser are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private JwtParser parser;
+    // Claims of recently verified tokens by SHA-256 of the token, each kept until the token expires
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        if (verifiedCacheMaxEntries > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheMaxEntries)
+                    .expireAfter(new UntilTokenExpiry())
+                    .build();
+        }
     }
     
-    public String generateToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        
+    // Each login starts a session; its access and refresh tokens carry the id so they can be revoked together
+    public String newSessionId() {
+        return UUID.randomUUID().toString();
+    }
+    
+    // A session's refresh tokens all expire at this time, however often they are rotated
+    public Instant newSessionExpiry() {
+        return Instant.now().plusMillis(refreshExpirationInMs);
+    }
+    
+    public long getAccessTokenValiditySeconds() {
+        return jwtExpirationInMs / 1000;
+    }
+    
+    public String generateToken(UserPrincipal userPrincipal, String sessionId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
         
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(Long.toString(userPrincipal.getId()))
+                .claim(SESSION_CLAIM, sessionId)
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiryDate);
+        if (embedPrincipal) {
+            builder.claim(USERNAME_CLAIM, userPrincipal.getUsername())
+                    .claim(ROLES_CLAIM, userPrincipal.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .toList());
+        }
+        return builder.signWith(signingKey).compact();
     }
     
-    public Long getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return Long.parseLong(claims.getSubject());
+    // Refresh tokens have their own id, so that each can be used only once
+    public String generateRefreshToken(Long userId, String sessionId, Instant sessionExpiry) {
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(Long.toString(userId))
+                .claim(SESSION_CLAIM, sessionId)
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
+                .issuedAt(new Date())
+                .expiration(Date.from(sessionExpiry))
+                .signWith(signingKey)
+                .compact();
     }
     
-    public boolean validateToken(String authToken) {
+    // Verifies the token's signature and expiry at most once while it is cached and returns its claims,
+    // or empty when the token is not valid
+    public Optional<Claims> parseToken(String token) {
+        ByteBuffer hash = verifiedTokens == null ? null : hash(token);
+        if (hash != null) {
+            Claims cached = verifiedTokens.getIfPresent(hash);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (hash != null && claims.getExpiration() != null) {
+                verifiedTokens.put(hash, claims);
+            }
+            return Optional.of(claims);
         } catch (SecurityException ex) {
             logger.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -67,7 +150,57 @@ public class JwtTokenProvider {
             logger.error("Unsupported JWT token");
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty");
+        } catch (JwtException ex) {
+            logger.error("Invalid JWT token: {}", ex.getMessage());
+        }
+        return Optional.empty();
+    }
+    
+    public Long getUserId(Claims claims) {
+        return Long.parseLong(claims.getSubject());
+    }
+    
+    public String getSessionId(Claims claims) {
+        return claims.get(SESSION_CLAIM, String.class);
+    }
+    
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class));
+    }
+    
+    // The principal carried by the token when embedding is enabled; tokens issued without it give empty and the
+    // customer is looked up instead
+    public Optional<UserDetails> getEmbeddedPrincipal(Claims claims) {
+        String username = embedPrincipal ? claims.get(USERNAME_CLAIM, String.class) : null;
+        if (username == null) {
+            return Optional.empty();
+        }
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return Optional.of(new UserPrincipal(getUserId(claims), username, null, authorities));
+    }
+    
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, Claims> {
+        
+        @Override
+        public long expireAfterCreate(ByteBuffer hash, Claims claims, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(claims.getExpiration().getTime() - System.currentTimeMillis());
         }
-        return false;
+        
+        @Override
+        public long expireAfterUpdate(ByteBuffer hash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(ByteBuffer hash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+    
+    private static ByteBuffer hash(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 }
@@ -0,0 +1,52 @@
+package com.bank.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Principals by customer id, so that authenticated requests skip the customer lookup and its transaction.
+// Entries expire ttl-seconds after they are loaded and are evicted as soon as the customer is updated on this
+// instance (CustomerChangeListener); other instances see the change once their entry expires.
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+    
+    private final CustomUserDetailsService customUserDetailsService;
+    
+    @Value("${app.principal-cache.max-entries}")
+    private long maxEntries;
+    
+    @Value("${app.principal-cache.ttl-seconds}")
+    private long ttlSeconds;
+    
+    private Cache<Long, UserDetails> principals;
+    
+    @PostConstruct
+    public void init() {
+        principals = maxEntries > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxEntries)
+                        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                        .<Long, UserDetails>build()
+                : null;
+    }
+    
+    public UserDetails get(Long customerId) {
+        if (principals == null) {
+            return customUserDetailsService.loadUserById(customerId);
+        }
+        return principals.get(customerId, customUserDetailsService::loadUserById);
+    }
+    
+    public void evict(Long customerId) {
+        if (principals != null) {
+            principals.invalidate(customerId);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.bank.security;
+
+import com.bank.dto.response.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Limits /api requests per customer, with separate budgets for reads (GET, HEAD, OPTIONS) and writes, and
+// /api/auth requests per client address. Runs after JwtAuthenticationFilter so the customer is known; requests
+// without one are limited by address. Requests over budget are answered with 429 and Retry-After.
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.rate-limit.enabled}")
+    private boolean enabled;
+    
+    @Value("${app.rate-limit.max-keys}")
+    private long maxKeys;
+    
+    @Value("${app.rate-limit.read.capacity}")
+    private long readCapacity;
+    
+    @Value("${app.rate-limit.read.per-second}")
+    private double readPerSecond;
+    
+    @Value("${app.rate-limit.write.capacity}")
+    private long writeCapacity;
+    
+    @Value("${app.rate-limit.write.per-second}")
+    private double writePerSecond;
+    
+    @Value("${app.rate-limit.auth.capacity}")
+    private long authCapacity;
+    
+    @Value("${app.rate-limit.auth.per-second}")
+    private double authPerSecond;
+    
+    private RateLimiter read;
+    private RateLimiter write;
+    private RateLimiter auth;
+    
+    @PostConstruct
+    public void init() {
+        read = new RateLimiter("read", readCapacity, readPerSecond, maxKeys, meterRegistry, System::nanoTime);
+        write = new RateLimiter("write", writeCapacity, writePerSecond, maxKeys, meterRegistry, System::nanoTime);
+        auth = new RateLimiter("auth", authCapacity, authPerSecond, maxKeys, meterRegistry, System::nanoTime);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !path(request).startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long wait;
+        if (path(request).startsWith("/api/auth/")) {
+            wait = auth.acquire(request.getRemoteAddr());
+        } else {
+            RateLimiter limiter = isRead(request.getMethod()) ? read : write;
+            wait = limiter.acquire(clientKey(request));
+        }
+        
+        if (wait > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((wait + 999_999_999L) / 1_000_000_000L));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Too many requests, please retry shortly"));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    // Requests without a customer are keyed by the connecting address; behind a proxy, set
+    // server.forward-headers-strategy so that it is the client's
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "customer:" + principal.getId();
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+    
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+    
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
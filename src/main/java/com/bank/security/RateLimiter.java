@@ -0,0 +1,71 @@
+package com.bank.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// A token bucket per key holding up to capacity requests and refilled at perSecond. Each bucket is a single
+// timestamp, the time at which it will be full again, advanced by one refill interval per request with a
+// compare-and-set, so no lock is taken. A bucket left alone long enough to refill completely carries no state
+// and is dropped; beyond maxKeys the least recently used buckets are dropped too.
+final class RateLimiter {
+    
+    private final LongSupplier clock;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final Counter allowed;
+    private final Counter rejected;
+    
+    RateLimiter(String budget, long capacity, double perSecond, long maxKeys, MeterRegistry meterRegistry,
+                LongSupplier clock) {
+        this.clock = clock;
+        intervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+        burstNanos = intervalNanos * Math.max(1, capacity);
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .ticker(clock::getAsLong)
+                .build();
+        allowed = decisions(meterRegistry, budget, "allowed");
+        rejected = decisions(meterRegistry, budget, "rejected");
+        Gauge.builder("http.rate-limit.keys", buckets, Cache::estimatedSize)
+                .description("Keys whose bucket is held in memory")
+                .tag("budget", budget)
+                .register(meterRegistry);
+    }
+    
+    // Returns 0 when the request is allowed, otherwise the nanoseconds until it would be
+    long acquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            // Read again after a lost race, so a thread that stalled cannot be judged against an old time
+            long now = clock.getAsLong();
+            long full = bucket.get();
+            long next = Math.max(full, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+    
+    private static Counter decisions(MeterRegistry meterRegistry, String budget, String outcome) {
+        return Counter.builder("http.rate-limit.requests")
+                .description("Requests checked against a rate limit budget, by outcome")
+                .tag("budget", budget)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
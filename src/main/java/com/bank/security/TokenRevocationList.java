@@ -0,0 +1,154 @@
+package com.bank.security;
+
+import com.bank.repository.RevokedTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Revoked session and refresh token ids, stored in revoked_tokens and mirrored in a Bloom filter, so that
+// checking an id that was never revoked takes no query. Only ids the filter might contain are looked up, and the
+// table's answer is remembered for refresh-interval-ms. Revocations made on this instance apply at once; those
+// made on other instances once the filter is next rebuilt from the table.
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationList {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.token-revocation.expected-entries}")
+    private long expectedEntries;
+    
+    @Value("${app.token-revocation.false-positive-rate}")
+    private double falsePositiveRate;
+    
+    @Value("${app.token-revocation.refresh-interval-ms}")
+    private long refreshIntervalMs;
+    
+    private volatile BloomFilter filter;
+    // The filter being rebuilt, which revocations are also added to until it replaces the current one
+    private volatile BloomFilter building;
+    // Whether each id the filter matched is revoked, as the table had it
+    private Cache<String, Boolean> answers;
+    private ScheduledExecutorService scheduler;
+    private Counter clear;
+    private Counter falsePositives;
+    private Counter revoked;
+    
+    @PostConstruct
+    public void start() {
+        clear = checks("clear");
+        falsePositives = checks("false-positive");
+        revoked = checks("revoked");
+        if (expectedEntries <= 0) {
+            return;
+        }
+        
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(expectedEntries);
+        if (refreshIntervalMs > 0) {
+            builder.expireAfterWrite(Duration.ofMillis(refreshIntervalMs));
+        }
+        answers = builder.build();
+        rebuild();
+        if (refreshIntervalMs <= 0) {
+            return;
+        }
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                logger.warn("Token revocation list refresh failed: {}", ex.getMessage());
+            }
+        }, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    // Returns false when the id had already been revoked
+    public boolean revoke(String id, Instant expiresAt) {
+        boolean inserted = revokedTokenRepository.insert(id, expiresAt);
+        // Added to the filter being built before it is published too, so a rebuild that read the table before
+        // this insert cannot drop the id. The rebuild publishes its filter before clearing building, so reading
+        // building first means a rebuild finishing in between still leaves the id in one of the two reads.
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        if (next != null) {
+            next.add(id);
+        }
+        if (current != null && current != next) {
+            current.add(id);
+        }
+        if (answers != null) {
+            // Replaces an answer being looked up concurrently, which may predate the insert
+            answers.put(id, Boolean.TRUE);
+        }
+        return inserted;
+    }
+    
+    public boolean isRevoked(String id) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(id)) {
+            clear.increment();
+            return false;
+        }
+        if (answers == null) {
+            boolean found = revokedTokenRepository.exists(id);
+            (found ? revoked : clear).increment();
+            return found;
+        }
+        
+        boolean found = answers.get(id, revokedTokenRepository::exists);
+        (found ? revoked : falsePositives).increment();
+        return found;
+    }
+    
+    // Builds a new filter from the rows that have not expired, sized for at least twice as many, and deletes
+    // the expired ones
+    public void rebuild() {
+        if (expectedEntries <= 0) {
+            return;
+        }
+        Instant now = Instant.now();
+        revokedTokenRepository.deleteExpired(now);
+        BloomFilter next = new BloomFilter(Math.max(expectedEntries, 2 * revokedTokenRepository.countActive(now)),
+                falsePositiveRate);
+        building = next;
+        revokedTokenRepository.forEachActive(now, next::add);
+        filter = next;
+        building = null;
+    }
+    
+    private Counter checks(String result) {
+        return Counter.builder("auth.token.revocation.checks")
+                .description("Revocation checks by result; false positives are the ids the filter sent to the table")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
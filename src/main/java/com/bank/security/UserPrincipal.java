@@ -4,6 +4,7 @@ import com.bank.entity.Customer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,6 +19,7 @@ public class UserPrincipal implements UserDetails {
     
     private Long id;
     private String username;
+    @ToString.Exclude
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
     
@@ -7,7 +7,10 @@ import com.bank.entity.Account;
 import com.bank.entity.Customer;
 import com.bank.exception.BadRequestException;
 import com.bank.exception.ResourceNotFoundException;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerJournal;
 import com.bank.repository.AccountRepository;
+import com.bank.repository.AccountView;
 import com.bank.repository.CustomerRepository;
 import com.bank.util.AccountNumberGenerator;
 import com.bank.util.ResponseMapper;
@@ -15,7 +18,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +31,8 @@ public class AccountService {
     
     private final AccountRepository accountRepository;
     private final CustomerRepository customerRepository;
+    private final LedgerJournal ledgerJournal;
+    private final CustomerSummaryRecorder customerSummaryRecorder;
     
     @Transactional
     public AccountResponse createAccount(Long customerId, AccountRequest request) {
@@ -47,6 +51,7 @@ public class AccountService {
                 .build();
         
         Account savedAccount = accountRepository.save(account);
+        customerSummaryRecorder.accountOpened(customerId);
         return ResponseMapper.toAccountResponse(savedAccount);
     }
     
@@ -64,7 +69,7 @@ public class AccountService {
     
     @Transactional(readOnly = true)
     public List<AccountResponse> getAllAccounts(Long customerId) {
-        return accountRepository.findByCustomerId(customerId).stream()
+        return accountRepository.findViewsByCustomerId(customerId).stream()
                 .map(ResponseMapper::toAccountResponse)
                 .collect(Collectors.toList());
     }
@@ -94,6 +99,12 @@ public class AccountService {
             throw new BadRequestException("You don't have access to this account");
         }
         
+        // In journal mode the journal holds the current balance and records the closure with the postings
+        if (ledgerJournal.isEnabled()) {
+            ledgerJournal.closeAccount(account.getAccountNumber());
+            return;
+        }
+        
         if (account.getBalance().compareTo(BigDecimal.ZERO) > 0) {
             throw new BadRequestException("Cannot delete account with non-zero balance");
         }
@@ -111,9 +122,9 @@ public class AccountService {
             int page,
             int size) {
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Pageable pageable = PageRequest.of(page, size);
         
-        Page<Account> accountPage = accountRepository.searchAccounts(
+        Page<AccountView> accountPage = accountRepository.searchAccounts(
                 customerId, accountName, accountType, status, pageable);
         
         List<AccountResponse> content = accountPage.getContent().stream()
@@ -2,40 +2,60 @@ package com.bank.service;
 
 import com.bank.dto.request.CustomerRegistrationRequest;
 import com.bank.dto.request.LoginRequest;
+import com.bank.dto.request.RefreshTokenRequest;
 import com.bank.dto.response.CustomerResponse;
 import com.bank.dto.response.DashboardResponse;
 import com.bank.dto.response.LoginResponse;
+import com.bank.dto.response.TokenResponse;
 import com.bank.entity.Customer;
+import com.bank.exception.AuthenticationBusyException;
 import com.bank.exception.BadRequestException;
-import com.bank.repository.AccountRepository;
+import com.bank.exception.InvalidTokenException;
 import com.bank.repository.CustomerRepository;
-import com.bank.repository.TransactionRepository;
+import com.bank.repository.CustomerSummary;
+import com.bank.repository.CustomerSummaryRepository;
 import com.bank.security.JwtTokenProvider;
+import com.bank.security.PrincipalCache;
+import com.bank.security.TokenRevocationList;
 import com.bank.security.UserPrincipal;
 import com.bank.util.ResponseMapper;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+    
     private final CustomerRepository customerRepository;
-    private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
+    private final CustomerSummaryRepository customerSummaryRepository;
+    private final CustomerSummaryService customerSummaryService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationList revocationList;
+    private final PrincipalCache principalCache;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
     
-    @Transactional
+    // Not transactional: the password is hashed before a connection is taken for the insert
     public CustomerResponse registerCustomer(CustomerRegistrationRequest request) {
         // Check if username already exists
         if (customerRepository.existsByUsername(request.getUsername())) {
@@ -48,63 +68,120 @@ public class AuthService {
         }
         
         // Create new customer
+        String password = passwordEncoder.encode(request.getPassword());
         Customer customer = Customer.builder()
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .email(request.getEmail())
                 .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(password)
                 .phone(request.getPhone())
                 .address(request.getAddress())
                 .status(Customer.CustomerStatus.ACTIVE)
                 .build();
         
-        Customer savedCustomer = customerRepository.save(customer);
+        Customer savedCustomer = new TransactionTemplate(transactionManager).execute(status -> {
+            // Flushed so the summary row's foreign key finds the customer
+            Customer saved = customerRepository.saveAndFlush(customer);
+            customerSummaryRepository.create(saved.getId());
+            return saved;
+        });
         return ResponseMapper.toCustomerResponse(savedCustomer);
     }
     
-    @Transactional
+    // Not transactional: the customer lookup and any rehash run in their own transactions, so no connection is
+    // held while the password is checked
     public LoginResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername(),
-                        request.getPassword()
-                )
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getUsername(),
+                            request.getPassword()
+                    )
+            );
+        } catch (AuthenticationBusyException ex) {
+            loginCounter("rejected").increment();
+            throw ex;
+        } catch (AuthenticationException ex) {
+            loginCounter("failure").increment();
+            throw ex;
+        }
+        loginCounter("success").increment();
         
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
-        
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        String sessionId = tokenProvider.newSessionId();
+        String jwt = tokenProvider.generateToken(userPrincipal, sessionId);
+        String refreshToken = tokenProvider.generateRefreshToken(userPrincipal.getId(), sessionId,
+                tokenProvider.newSessionExpiry());
+        
         Customer customer = customerRepository.findById(userPrincipal.getId())
                 .orElseThrow(() -> new BadRequestException("Customer not found"));
         
         return LoginResponse.builder()
                 .token(jwt)
                 .tokenType("Bearer")
+                .refreshToken(refreshToken)
+                .expiresIn(tokenProvider.getAccessTokenValiditySeconds())
                 .customer(ResponseMapper.toCustomerResponse(customer))
                 .build();
     }
     
+    // Exchanges a refresh token for a new access token and refresh token in the same session. Each refresh token
+    // can be used once; when one comes back a second time it has been copied, and the whole session is revoked.
+    public TokenResponse refresh(RefreshTokenRequest request) {
+        Claims claims = tokenProvider.parseToken(request.getRefreshToken())
+                .filter(tokenProvider::isRefreshToken)
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        String sessionId = tokenProvider.getSessionId(claims);
+        if (revocationList.isRevoked(sessionId)) {
+            throw new InvalidTokenException("Session has been revoked");
+        }
+        
+        Instant sessionExpiry = claims.getExpiration().toInstant();
+        if (!revocationList.revoke(claims.getId(), sessionExpiry)) {
+            revocationList.revoke(sessionId, sessionExpiry);
+            logger.warn("Refresh token of session {} was reused; session revoked", sessionId);
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+        
+        UserPrincipal userPrincipal = (UserPrincipal) principalCache.get(tokenProvider.getUserId(claims));
+        return TokenResponse.builder()
+                .token(tokenProvider.generateToken(userPrincipal, sessionId))
+                .tokenType("Bearer")
+                .refreshToken(tokenProvider.generateRefreshToken(userPrincipal.getId(), sessionId, sessionExpiry))
+                .expiresIn(tokenProvider.getAccessTokenValiditySeconds())
+                .build();
+    }
+    
+    // Revokes the session of the given access or refresh token, and with it every token issued to that login
+    public void logout(String token) {
+        tokenProvider.parseToken(token)
+                .map(tokenProvider::getSessionId)
+                .ifPresent(sessionId -> revocationList.revoke(sessionId, tokenProvider.newSessionExpiry()));
+    }
+    
     @Transactional(readOnly = true)
     public DashboardResponse getDashboard(Long customerId) {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new BadRequestException("Customer not found"));
         
-        int totalAccounts = accountRepository.findByCustomerId(customerId).size();
-        
-        BigDecimal totalBalance = accountRepository.findByCustomerId(customerId).stream()
-                .map(account -> account.getBalance())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        int totalTransactions = (int) transactionRepository.findByCustomerId(customerId, 
-                org.springframework.data.domain.Pageable.unpaged()).getTotalElements();
+        CustomerSummary summary = customerSummaryService.getSummary(customerId);
         
         return DashboardResponse.builder()
                 .customer(ResponseMapper.toCustomerResponse(customer))
-                .totalAccounts(totalAccounts)
-                .totalBalance(totalBalance)
-                .totalTransactions(totalTransactions)
+                .totalAccounts(summary.accounts())
+                .totalBalance(summary.balance())
+                .totalTransactions((int) summary.transactions())
+                .lastActivityAt(summary.lastActivityAt())
                 .build();
     }
+    
+    private Counter loginCounter(String outcome) {
+        return Counter.builder("auth.logins")
+                .description("Login attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,137 @@
+package com.bank.service;
+
+import com.bank.entity.LedgerCheckpoint;
+import com.bank.repository.BalanceCheckpoint;
+import com.bank.repository.BalanceCheckpointRepository;
+import com.bank.repository.LedgerCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Writes end-of-day balance_checkpoints rows, one day per transaction, for every account with postings that
+// day. A day is only checkpointed once it ended graceMs ago and no transfer accepted on or before it is still
+// PENDING, since settling one changes the balances of the day it was accepted.
+@Service
+@RequiredArgsConstructor
+public class BalanceCheckpointService {
+    
+    // Epoch day of the last day checkpointed
+    static final String CHECKPOINT = "balance-checkpoints";
+    
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointService.class);
+    
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.balance-checkpoint.interval-ms}")
+    private long intervalMs;
+    
+    @Value("${app.balance-checkpoint.batch-size}")
+    private int batchSize;
+    
+    @Value("${app.balance-checkpoint.grace-ms}")
+    private long graceMs;
+    
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+    
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (intervalMs <= 0) {
+            return;
+        }
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-checkpoints");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint(LocalDateTime.now());
+            } catch (RuntimeException ex) {
+                logger.warn("Balance checkpointing failed: {}", ex.getMessage());
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    // Checkpoints every closed day after the last one done, starting from the first posting on a fresh
+    // database. Returns the number of days checkpointed.
+    public int checkpoint(LocalDateTime now) {
+        LocalDate open = now.minusNanos(graceMs * 1_000_000).toLocalDate();
+        Optional<LocalDateTime> oldestPending = balanceCheckpointRepository.findOldestPendingAt();
+        if (oldestPending.isPresent() && oldestPending.get().toLocalDate().isBefore(open)) {
+            open = oldestPending.get().toLocalDate();
+        }
+        
+        Optional<LocalDate> next = ledgerCheckpointRepository.findById(CHECKPOINT)
+                .map(checkpoint -> LocalDate.ofEpochDay(checkpoint.getAppliedSequence()).plusDays(1))
+                .or(() -> balanceCheckpointRepository.findFirstPostingAt().map(LocalDateTime::toLocalDate));
+        if (next.isEmpty()) {
+            return 0;
+        }
+        
+        int days = 0;
+        for (LocalDate day = next.get(); day.isBefore(open); day = day.plusDays(1)) {
+            checkpointDay(day);
+            days++;
+        }
+        if (days > 0) {
+            logger.info("Balance checkpoints written through {}", open.minusDays(1));
+        }
+        return days;
+    }
+    
+    private void checkpointDay(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime until = day.plusDays(1).atStartOfDay();
+        transactionTemplate.executeWithoutResult(status -> {
+            balanceCheckpointRepository.streamDailyChanges(from, until, batchSize, changes -> {
+                Map<Long, BigDecimal> previous = balanceCheckpointRepository.findLatestBalances(changes.keySet(), from);
+                // An account's first checkpoint is taken from its current balance, which covers opening
+                // balances that never went through a posting
+                List<Long> unseen = changes.keySet().stream().filter(id -> !previous.containsKey(id)).toList();
+                Map<Long, BigDecimal> rewound = unseen.isEmpty()
+                        ? Map.of() : balanceCheckpointRepository.rewindBalances(unseen, until);
+                
+                List<BalanceCheckpoint> checkpoints = new ArrayList<>(changes.size());
+                changes.forEach((accountId, change) -> {
+                    BigDecimal balance = previous.containsKey(accountId)
+                            ? previous.get(accountId).add(change) : rewound.get(accountId);
+                    checkpoints.add(new BalanceCheckpoint(accountId, until, balance));
+                });
+                balanceCheckpointRepository.insert(checkpoints);
+            });
+            ledgerCheckpointRepository.save(LedgerCheckpoint.builder()
+                    .name(CHECKPOINT)
+                    .appliedSequence(day.toEpochDay())
+                    .build());
+        });
+    }
+}
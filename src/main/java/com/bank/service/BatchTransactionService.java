@@ -0,0 +1,352 @@
+package com.bank.service;
+
+import com.bank.dto.request.BatchItemRequest;
+import com.bank.dto.request.BatchTransactionRequest;
+import com.bank.dto.response.BatchItemResult;
+import com.bank.dto.response.BatchTransactionResponse;
+import com.bank.dto.response.TransactionResponse;
+import com.bank.entity.Account;
+import com.bank.entity.Transaction;
+import com.bank.exception.AccountInactiveException;
+import com.bank.exception.BadRequestException;
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.exception.LedgerBusyException;
+import com.bank.exception.ResourceNotFoundException;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.TransactionBatchRepository;
+import com.bank.util.AccountNumberGenerator;
+import com.bank.util.ResponseMapper;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BatchTransactionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransactionService.class);
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+    
+    private final AccountRepository accountRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final LedgerJournal ledgerJournal;
+    private final CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @Value("${app.ledger.batch.chunk-size}")
+    private int chunkSize;
+    
+    @Value("${app.ledger.transfer.single-row}")
+    private boolean singleRowTransfers;
+    
+    public BatchTransactionResponse processBatch(Long customerId, BatchTransactionRequest request) {
+        List<BatchItemRequest> items = request.getItems();
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            String error = validate(items.get(i));
+            if (error != null) {
+                results[i] = failure(i, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+        
+        if (ledgerJournal.isEnabled()) {
+            postToJournal(customerId, items, accepted, results);
+        } else {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (int start = 0; start < accepted.size(); start += chunkSize) {
+                List<Integer> chunk = accepted.subList(start, Math.min(start + chunkSize, accepted.size()));
+                postChunk(transactionTemplate, customerId, items, chunk, results);
+            }
+        }
+        
+        int succeeded = (int) Arrays.stream(results).filter(BatchItemResult::isSuccess).count();
+        return BatchTransactionResponse.builder()
+                .totalItems(items.size())
+                .succeeded(succeeded)
+                .failed(items.size() - succeeded)
+                .results(Arrays.asList(results))
+                .build();
+    }
+    
+    // Every item becomes its own journal posting; the journal groups them into a few fsyncs
+    private void postToJournal(Long customerId, List<BatchItemRequest> items, List<Integer> accepted,
+                               BatchItemResult[] results) {
+        Map<Integer, CompletableFuture<TransactionResponse>> postings = new LinkedHashMap<>();
+        for (int index : accepted) {
+            BatchItemRequest item = items.get(index);
+            try {
+                postings.put(index, switch (item.getType()) {
+                    case DEPOSIT -> ledgerJournal.submitDeposit(customerId, item.getAccountNumber(),
+                            item.getAmount(), item.getDescription());
+                    case WITHDRAWAL -> ledgerJournal.submitWithdrawal(customerId, item.getAccountNumber(),
+                            item.getAmount(), item.getDescription());
+                    case TRANSFER -> ledgerJournal.submitTransfer(customerId, item.getFromAccountNumber(),
+                            item.getToAccountNumber(), item.getAmount(), item.getDescription());
+                });
+            } catch (LedgerBusyException ex) {
+                results[index] = failure(index, ex.getMessage());
+            }
+        }
+        
+        postings.forEach((index, posting) -> {
+            try {
+                results[index] = BatchItemResult.builder()
+                        .index(index)
+                        .success(true)
+                        .message("Transaction successful")
+                        .transaction(posting.join())
+                        .build();
+            } catch (CompletionException ex) {
+                results[index] = failure(index, ex.getCause().getMessage());
+            }
+        });
+    }
+    
+    private void postChunk(TransactionTemplate transactionTemplate, Long customerId, List<BatchItemRequest> items,
+                           List<Integer> chunk, BatchItemResult[] results) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Map<Integer, BatchItemResult> chunkResults =
+                        transactionTemplate.execute(status -> applyChunk(customerId, items, chunk));
+                chunkResults.forEach((index, result) -> results[index] = result);
+                return;
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt < MAX_CHUNK_ATTEMPTS) {
+                    continue;
+                }
+                logger.warn("Giving up on batch chunk after {} attempts: {}", attempt, ex.getMessage());
+            } catch (RuntimeException ex) {
+                logger.error("Batch chunk could not be applied", ex);
+            }
+            chunk.forEach(index -> results[index] = failure(index, "Item could not be applied, please retry"));
+            return;
+        }
+    }
+    
+    private Map<Integer, BatchItemResult> applyChunk(Long customerId, List<BatchItemRequest> items, List<Integer> chunk) {
+        Set<String> accountNumbers = new LinkedHashSet<>();
+        for (int index : chunk) {
+            BatchItemRequest item = items.get(index);
+            if (item.getType() == BatchItemRequest.ItemType.TRANSFER) {
+                accountNumbers.add(item.getFromAccountNumber());
+                accountNumbers.add(item.getToAccountNumber());
+            } else {
+                accountNumbers.add(item.getAccountNumber());
+            }
+        }
+        
+        // Locks are taken in id order, so concurrent batches touching the same accounts cannot deadlock
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllForUpdate(accountNumbers)) {
+            accounts.put(account.getAccountNumber(), account);
+        }
+        
+        ChunkPostings postings = new ChunkPostings(LocalDateTime.now());
+        Map<Integer, Transaction> applied = new LinkedHashMap<>();
+        Map<Integer, BatchItemResult> chunkResults = new LinkedHashMap<>();
+        for (int index : chunk) {
+            try {
+                applied.put(index, apply(customerId, items.get(index), accounts, postings));
+            } catch (ResourceNotFoundException | BadRequestException | AccountInactiveException
+                     | InsufficientBalanceException ex) {
+                chunkResults.put(index, failure(index, ex.getMessage()));
+            }
+        }
+        
+        if (!postings.transactions.isEmpty()) {
+            transactionBatchRepository.updateBalances(postings.balances);
+            transactionBatchRepository.insertTransactions(postings.transactions);
+            postings.transactions.forEach(customerSummaryRecorder::posted);
+        }
+        
+        // Ids are assigned on insert, so the responses are built once the rows are written
+        applied.forEach((index, transaction) -> chunkResults.put(index, BatchItemResult.builder()
+                .index(index)
+                .success(true)
+                .message("Transaction successful")
+                .transaction(ResponseMapper.toTransactionResponse(transaction))
+                .build()));
+        return chunkResults;
+    }
+    
+    private Transaction apply(Long customerId, BatchItemRequest item, Map<String, Account> accounts,
+                              ChunkPostings postings) {
+        switch (item.getType()) {
+            case DEPOSIT: {
+                Account account = ownedActiveAccount(customerId, accounts, item.getAccountNumber());
+                BigDecimal balanceBefore = postings.balanceOf(account);
+                return postings.add(item, Transaction.TransactionType.DEPOSIT, account,
+                        balanceBefore, balanceBefore.add(item.getAmount()));
+            }
+            case WITHDRAWAL: {
+                Account account = ownedActiveAccount(customerId, accounts, item.getAccountNumber());
+                BigDecimal balanceBefore = postings.balanceOf(account);
+                if (balanceBefore.compareTo(item.getAmount()) < 0) {
+                    throw new InsufficientBalanceException("Insufficient balance for withdrawal");
+                }
+                return postings.add(item, Transaction.TransactionType.WITHDRAWAL, account,
+                        balanceBefore, balanceBefore.subtract(item.getAmount()));
+            }
+            default: {
+                Account fromAccount = accounts.get(item.getFromAccountNumber());
+                if (fromAccount == null) {
+                    throw new ResourceNotFoundException("Source account not found");
+                }
+                Account toAccount = accounts.get(item.getToAccountNumber());
+                if (toAccount == null) {
+                    throw new ResourceNotFoundException("Destination account not found");
+                }
+                if (!fromAccount.getCustomer().getId().equals(customerId)) {
+                    throw new BadRequestException("You don't have access to the source account");
+                }
+                if (fromAccount.getStatus() != Account.AccountStatus.ACTIVE) {
+                    throw new AccountInactiveException("Source account is not active");
+                }
+                if (toAccount.getStatus() != Account.AccountStatus.ACTIVE) {
+                    throw new AccountInactiveException("Destination account is not active");
+                }
+                
+                BigDecimal fromBalanceBefore = postings.balanceOf(fromAccount);
+                if (fromBalanceBefore.compareTo(item.getAmount()) < 0) {
+                    throw new InsufficientBalanceException("Insufficient balance for transfer");
+                }
+                BigDecimal toBalanceBefore = postings.balanceOf(toAccount);
+                if (singleRowTransfers) {
+                    return postings.addTransfer(item, fromAccount, fromBalanceBefore, toAccount, toBalanceBefore);
+                }
+                
+                Transaction debitTransaction = postings.add(item, Transaction.TransactionType.TRANSFER_OUT, fromAccount,
+                        fromBalanceBefore, fromBalanceBefore.subtract(item.getAmount()));
+                postings.add(item, Transaction.TransactionType.TRANSFER_IN, toAccount,
+                        toBalanceBefore, toBalanceBefore.add(item.getAmount()));
+                return debitTransaction;
+            }
+        }
+    }
+    
+    private Account ownedActiveAccount(Long customerId, Map<String, Account> accounts, String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            throw new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+        if (!account.getCustomer().getId().equals(customerId)) {
+            throw new BadRequestException("You don't have access to this account");
+        }
+        if (account.getStatus() != Account.AccountStatus.ACTIVE) {
+            throw new AccountInactiveException("Account is not active");
+        }
+        return account;
+    }
+    
+    private String validate(BatchItemRequest item) {
+        if (item == null) {
+            return "Item is required";
+        }
+        
+        List<String> errors = validator.validate(item).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+        if (!errors.isEmpty()) {
+            return String.join(", ", errors);
+        }
+        
+        if (item.getType() != BatchItemRequest.ItemType.TRANSFER) {
+            return StringUtils.hasText(item.getAccountNumber()) ? null : "accountNumber: Account number is required";
+        }
+        if (!StringUtils.hasText(item.getFromAccountNumber())) {
+            return "fromAccountNumber: From account number is required";
+        }
+        if (!StringUtils.hasText(item.getToAccountNumber())) {
+            return "toAccountNumber: To account number is required";
+        }
+        if (item.getFromAccountNumber().equals(item.getToAccountNumber())) {
+            return "Cannot transfer to the same account";
+        }
+        return null;
+    }
+    
+    private BatchItemResult failure(int index, String message) {
+        return BatchItemResult.builder()
+                .index(index)
+                .success(false)
+                .message(message)
+                .build();
+    }
+    
+    // Running balances and pending rows for one chunk, written with two JDBC batches at the end
+    private static class ChunkPostings {
+        
+        private final LocalDateTime createdAt;
+        private final Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+        private final List<Transaction> transactions = new ArrayList<>();
+        
+        ChunkPostings(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+        }
+        
+        BigDecimal balanceOf(Account account) {
+            return balances.getOrDefault(account.getId(), account.getBalance());
+        }
+        
+        Transaction add(BatchItemRequest item, Transaction.TransactionType type, Account account,
+                        BigDecimal balanceBefore, BigDecimal balanceAfter) {
+            boolean transfer = item.getType() == BatchItemRequest.ItemType.TRANSFER;
+            Transaction transaction = Transaction.builder()
+                    .transactionId(AccountNumberGenerator.generateTransactionId())
+                    .type(type)
+                    .amount(item.getAmount())
+                    .balanceBefore(balanceBefore)
+                    .balanceAfter(balanceAfter)
+                    .description(item.getDescription())
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .account(account)
+                    .fromAccountNumber(transfer ? item.getFromAccountNumber() : null)
+                    .toAccountNumber(transfer ? item.getToAccountNumber() : null)
+                    .createdAt(createdAt)
+                    .build();
+            balances.put(account.getId(), balanceAfter);
+            transactions.add(transaction);
+            return transaction;
+        }
+        
+        Transaction addTransfer(BatchItemRequest item, Account fromAccount, BigDecimal fromBalanceBefore,
+                                Account toAccount, BigDecimal toBalanceBefore) {
+            Transaction transaction = add(item, Transaction.TransactionType.TRANSFER, fromAccount,
+                    fromBalanceBefore, fromBalanceBefore.subtract(item.getAmount()));
+            transaction.setCounterAccount(toAccount);
+            transaction.setCounterBalanceBefore(toBalanceBefore);
+            transaction.setCounterBalanceAfter(toBalanceBefore.add(item.getAmount()));
+            balances.put(toAccount.getId(), transaction.getCounterBalanceAfter());
+            return transaction;
+        }
+    }
+}
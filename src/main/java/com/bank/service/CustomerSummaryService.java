@@ -0,0 +1,119 @@
+package com.bank.service;
+
+import com.bank.repository.CustomerSummary;
+import com.bank.repository.CustomerSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Serves the dashboard figures from customer_summaries and periodically rebuilds every row from the ledger,
+// which creates missing rows and repairs any drift from writes that bypassed CustomerSummaryRecorder.
+@Service
+@RequiredArgsConstructor
+public class CustomerSummaryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSummaryService.class);
+    
+    private final CustomerSummaryRepository customerSummaryRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.customer-summary.rebuild-interval-ms}")
+    private long rebuildIntervalMs;
+    
+    @Value("${app.customer-summary.rebuild-batch-size}")
+    private int rebuildBatchSize;
+    
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+    
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (rebuildIntervalMs <= 0) {
+            return;
+        }
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-summary-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuildAll();
+            } catch (RuntimeException ex) {
+                logger.warn("Customer summary rebuild failed: {}", ex.getMessage());
+            }
+        }, rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    // One primary key read; a customer without a row yet is computed from the ledger instead
+    public CustomerSummary getSummary(Long customerId) {
+        return customerSummaryRepository.findByCustomerId(customerId)
+                .orElseGet(() -> customerSummaryRepository.compute(customerId));
+    }
+    
+    // Returns true when the row was missing or did not match the ledger
+    public boolean rebuild(Long customerId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            // Locking the row first means the ledger is read after any posting that already added to it has
+            // committed, and postings still in flight add their change on top of the rebuilt figures
+            Optional<CustomerSummary> stored = customerSummaryRepository.findForUpdate(customerId);
+            CustomerSummary actual = customerSummaryRepository.compute(customerId);
+            if (stored.isEmpty()) {
+                customerSummaryRepository.insert(actual);
+                return true;
+            }
+            if (stored.get().matches(actual)) {
+                return false;
+            }
+            customerSummaryRepository.replace(actual);
+            logger.warn("Repaired customer summary {}: was {}, ledger has {}", customerId, stored.get(), actual);
+            return true;
+        }));
+    }
+    
+    // Each customer is rebuilt in its own short transaction; returns the number of rows created or repaired
+    public int rebuildAll() {
+        int repaired = 0;
+        long afterId = Long.MIN_VALUE;
+        List<Long> customerIds;
+        do {
+            customerIds = customerSummaryRepository.findCustomerIdsAfter(afterId, rebuildBatchSize);
+            for (Long customerId : customerIds) {
+                try {
+                    if (rebuild(customerId)) {
+                        repaired++;
+                    }
+                } catch (RuntimeException ex) {
+                    logger.warn("Could not rebuild summary of customer {}: {}", customerId, ex.getMessage());
+                }
+            }
+            if (!customerIds.isEmpty()) {
+                afterId = customerIds.get(customerIds.size() - 1);
+            }
+        } while (customerIds.size() == rebuildBatchSize);
+        
+        logger.info("Customer summaries rebuilt, {} created or repaired", repaired);
+        return repaired;
+    }
+}
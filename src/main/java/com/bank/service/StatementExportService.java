@@ -0,0 +1,150 @@
+package com.bank.service;
+
+import com.bank.dto.response.TransactionResponse;
+import com.bank.exception.BadRequestException;
+import com.bank.exception.ResourceNotFoundException;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.AccountSnapshot;
+import com.bank.repository.TransactionExportRepository;
+import com.bank.util.ResponseMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Writes an account's full statement straight from a database cursor to the response, one line per posting,
+// so memory use does not depend on the size of the account's history.
+@Service
+@RequiredArgsConstructor
+public class StatementExportService {
+    
+    public enum Format {
+        CSV, NDJSON;
+        
+        public static Format of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+    }
+    
+    private static final LocalDateTime EXPORT_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime EXPORT_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    
+    private static final String CSV_HEADER = "transactionId,type,amount,balanceBefore,balanceAfter,description," +
+            "status,accountNumber,fromAccountNumber,toAccountNumber,failureReason,createdAt\n";
+    
+    private final AccountRepository accountRepository;
+    private final TransactionExportRepository transactionExportRepository;
+    private final ObjectMapper objectMapper;
+    
+    // Checked before the response starts, so an unknown or foreign account still gets a JSON error
+    @Transactional(readOnly = true)
+    public Long getExportableAccountId(Long customerId, String accountNumber) {
+        AccountSnapshot account = accountRepository.findSnapshotByAccountNumber(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
+        
+        if (!account.customerId().equals(customerId)) {
+            throw new BadRequestException("You don't have access to this account");
+        }
+        return account.id();
+    }
+    
+    // Oldest first. Returns the number of postings written; the stream is flushed but not closed.
+    @Transactional(readOnly = true)
+    public long export(
+            Long accountId,
+            String accountNumber,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            Format format,
+            OutputStream out) throws IOException {
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        long[] count = {0};
+        try {
+            transactionExportRepository.streamPostings(accountId,
+                    startDate != null ? startDate : EXPORT_START,
+                    endDate != null ? endDate : EXPORT_END,
+                    transaction -> {
+                        TransactionResponse line = ResponseMapper.toTransactionResponse(transaction, accountNumber);
+                        try {
+                            if (format == Format.CSV) {
+                                writeCsv(writer, line);
+                            } else {
+                                writer.write(objectMapper.writeValueAsString(line));
+                                writer.write('\n');
+                            }
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                        count[0]++;
+                    });
+        } catch (UncheckedIOException ex) {
+            // Usually the client went away; stop reading rather than drain the cursor
+            throw ex.getCause();
+        }
+        writer.flush();
+        return count[0];
+    }
+    
+    private static void writeCsv(Writer writer, TransactionResponse line) throws IOException {
+        writer.write(csv(line.getTransactionId()));
+        writer.write(',');
+        writer.write(line.getType().name());
+        writer.write(',');
+        writer.write(line.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(line.getBalanceBefore() != null ? line.getBalanceBefore().toPlainString() : "");
+        writer.write(',');
+        writer.write(line.getBalanceAfter() != null ? line.getBalanceAfter().toPlainString() : "");
+        writer.write(',');
+        writer.write(csv(line.getDescription()));
+        writer.write(',');
+        writer.write(line.getStatus().name());
+        writer.write(',');
+        writer.write(csv(line.getAccountNumber()));
+        writer.write(',');
+        writer.write(csv(line.getFromAccountNumber()));
+        writer.write(',');
+        writer.write(csv(line.getToAccountNumber()));
+        writer.write(',');
+        writer.write(csv(line.getFailureReason()));
+        writer.write(',');
+        writer.write(line.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        writer.write('\n');
+    }
+    
+    // RFC 4180 quoting for free-text fields. A value a spreadsheet would read as a formula is prefixed with a
+    // quote, so a description like =HYPERLINK(...) is shown as text when the statement is opened.
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
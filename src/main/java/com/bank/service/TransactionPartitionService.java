@@ -0,0 +1,118 @@
+package com.bank.service;
+
+import com.bank.repository.LedgerCheckpointRepository;
+import com.bank.repository.TransactionPartitionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Keeps the monthly partitions of transactions ahead of the clock and retires expired months. Does nothing
+// unless transactions is a partitioned PostgreSQL table (see db/migration/postgresql/V3).
+// Balances as of a retained time are rebuilt from balance checkpoints and the postings after them
+// (BalanceCheckpointRepository), so a month is only retired once BalanceCheckpointService has checkpointed
+// every day of it. Customer summary rebuilds count retained postings only.
+@Service
+@RequiredArgsConstructor
+public class TransactionPartitionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionService.class);
+    
+    private final TransactionPartitionRepository partitionRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    
+    @Value("${app.ledger.partitions.months-ahead}")
+    private int monthsAhead;
+    
+    @Value("${app.ledger.partitions.retention-months}")
+    private int retentionMonths;
+    
+    @Value("${app.ledger.partitions.drop-expired}")
+    private boolean dropExpired;
+    
+    @Value("${app.ledger.partitions.maintenance-interval-ms}")
+    private long maintenanceIntervalMs;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @PostConstruct
+    public void start() {
+        if (!partitionRepository.isPartitioned()) {
+            return;
+        }
+        
+        // The first run happens before the application takes traffic, so the current month always exists
+        maintain(LocalDate.now());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                maintain(LocalDate.now());
+            } catch (RuntimeException ex) {
+                logger.warn("Transaction partition maintenance failed: {}", ex.getMessage());
+            }
+        }, maintenanceIntervalMs, maintenanceIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Transaction partition maintenance started, {} months ahead, retention {} months",
+                monthsAhead, retentionMonths);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    // Creates the partitions from the current month to monthsAhead months out, then detaches (and optionally
+    // drops) every month that ended more than retentionMonths months before the current one and has been
+    // checkpointed. A retention of 0 keeps every month.
+    public void maintain(LocalDate today) {
+        LocalDate currentMonth = today.withDayOfMonth(1);
+        List<LocalDate> existing = partitionRepository.findMonths();
+        
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate month = currentMonth.plusMonths(i);
+            if (!existing.contains(month)) {
+                partitionRepository.createMonth(month);
+                logger.info("Created partition {}", TransactionPartitionRepository.name(month));
+            }
+        }
+        
+        if (retentionMonths <= 0) {
+            return;
+        }
+        LocalDate oldestKept = currentMonth.minusMonths(retentionMonths);
+        LocalDate checkpointedThrough = ledgerCheckpointRepository.findById(BalanceCheckpointService.CHECKPOINT)
+                .map(checkpoint -> LocalDate.ofEpochDay(checkpoint.getAppliedSequence()))
+                .orElse(LocalDate.MIN);
+        for (LocalDate month : existing) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            if (checkpointedThrough.isBefore(month.plusMonths(1).minusDays(1))) {
+                logger.warn("Keeping expired partition {} until balance checkpoints cover it",
+                        TransactionPartitionRepository.name(month));
+                break;
+            }
+            partitionRepository.detachMonth(month);
+            if (dropExpired) {
+                partitionRepository.dropMonth(month);
+                logger.info("Dropped expired partition {}", TransactionPartitionRepository.name(month));
+            } else {
+                logger.info("Detached expired partition {}", TransactionPartitionRepository.name(month));
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.bank.service;
 import com.bank.dto.request.DepositRequest;
 import com.bank.dto.request.FundTransferRequest;
 import com.bank.dto.request.WithdrawalRequest;
+import com.bank.dto.response.CursorPagedResponse;
 import com.bank.dto.response.PagedResponse;
 import com.bank.dto.response.TransactionResponse;
 import com.bank.entity.Account;
@@ -11,48 +12,154 @@ import com.bank.exception.AccountInactiveException;
 import com.bank.exception.BadRequestException;
 import com.bank.exception.InsufficientBalanceException;
 import com.bank.exception.ResourceNotFoundException;
+import com.bank.ledger.AccountLockManager;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountBalance;
 import com.bank.repository.AccountRepository;
+import com.bank.repository.AccountSnapshot;
+import com.bank.repository.BalanceCheckpointRepository;
 import com.bank.repository.TransactionRepository;
+import com.bank.repository.TransactionView;
 import com.bank.util.AccountNumberGenerator;
 import com.bank.util.ResponseMapper;
+import com.bank.util.TransactionCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
     
+    // Bounds for a statement, which covers every posting of the account
+    private static final LocalDateTime STATEMENT_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime STATEMENT_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final Comparator<TransactionView> NEWEST_FIRST =
+            Comparator.comparing(TransactionView::createdAt).thenComparing(TransactionView::id).reversed();
+    
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
+    private final LedgerEngine ledgerEngine;
+    private final AccountLockManager accountLockManager;
+    private final LedgerJournal ledgerJournal;
+    private final CustomerSummaryRecorder customerSummaryRecorder;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.ledger.settlement.async-transfers}")
+    private boolean asyncTransfers;
+    
+    @Value("${app.ledger.transfer.single-row}")
+    private boolean singleRowTransfers;
+    
+    // Whether any posting has a credit leg on another account, which only single-row transfers store. Until one
+    // exists, statements and histories read the debit leg alone.
+    private volatile boolean counterLegs;
+    
+    // Checked once, after migrations; turn single-row transfers on for every instance at once, since an instance
+    // started without them only notices the credit legs once restarted
+    @EventListener(ApplicationReadyEvent.class)
+    public void detectCounterLegs() {
+        counterLegs = singleRowTransfers || transactionRepository.existsByCounterAccountIsNotNull();
+    }
     
-    @Transactional
     public TransactionResponse deposit(Long customerId, DepositRequest request) {
-        Account account = accountRepository.findByAccountNumber(request.getAccountNumber())
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + request.getAccountNumber()));
-        
-        if (!account.getCustomer().getId().equals(customerId)) {
-            throw new BadRequestException("You don't have access to this account");
+        if (ledgerJournal.isEnabled()) {
+            return ledgerJournal.deposit(customerId, request);
+        }
+        return ledgerEngine.execute(List.of(request.getAccountNumber()), () -> postDeposit(customerId, request));
+    }
+    
+    public TransactionResponse withdraw(Long customerId, WithdrawalRequest request) {
+        if (ledgerJournal.isEnabled()) {
+            return ledgerJournal.withdraw(customerId, request);
+        }
+        return ledgerEngine.execute(List.of(request.getAccountNumber()), () -> postWithdrawal(customerId, request));
+    }
+    
+    public TransactionResponse fundTransfer(Long customerId, FundTransferRequest request) {
+        if (request.getFromAccountNumber().equals(request.getToAccountNumber())) {
+            throw new BadRequestException("Cannot transfer to the same account");
         }
+        if (ledgerJournal.isEnabled()) {
+            return ledgerJournal.transfer(customerId, request);
+        }
+        if (asyncTransfers) {
+            return new TransactionTemplate(transactionManager).execute(status -> acceptTransfer(customerId, request));
+        }
+        
+        return accountLockManager.withRetry("transfer", () -> ledgerEngine.execute(
+                List.of(request.getFromAccountNumber(), request.getToAccountNumber()),
+                () -> postTransfer(customerId, request)));
+    }
+    
+    // Validates the transfer and stores it as PENDING; the settlement workers move the money later. The checks
+    // read snapshots, which always come from the database, so a cached balance never approves a transfer.
+    private TransactionResponse acceptTransfer(Long customerId, FundTransferRequest request) {
+        AccountSnapshot fromAccount = accountRepository.findSnapshotByAccountNumber(request.getFromAccountNumber())
+                .orElseThrow(() -> new ResourceNotFoundException("Source account not found"));
+        AccountSnapshot toAccount = accountRepository.findSnapshotByAccountNumber(request.getToAccountNumber())
+                .orElseThrow(() -> new ResourceNotFoundException("Destination account not found"));
         
-        if (account.getStatus() != Account.AccountStatus.ACTIVE) {
-            throw new AccountInactiveException("Account is not active");
+        if (!fromAccount.customerId().equals(customerId)) {
+            throw new BadRequestException("You don't have access to the source account");
+        }
+        if (fromAccount.status() != Account.AccountStatus.ACTIVE) {
+            throw new AccountInactiveException("Source account is not active");
+        }
+        if (toAccount.status() != Account.AccountStatus.ACTIVE) {
+            throw new AccountInactiveException("Destination account is not active");
+        }
+        if (fromAccount.balance().compareTo(request.getAmount()) < 0) {
+            throw new InsufficientBalanceException("Insufficient balance for transfer");
         }
         
-        BigDecimal balanceBefore = account.getBalance();
-        BigDecimal balanceAfter = balanceBefore.add(request.getAmount());
+        // Settlement adds the credit leg to this row, or a TRANSFER_IN row for the two-row model
+        Transaction.TransactionType type = singleRowTransfers
+                ? Transaction.TransactionType.TRANSFER : Transaction.TransactionType.TRANSFER_OUT;
+        Transaction pendingTransfer = Transaction.builder()
+                .transactionId(AccountNumberGenerator.generateTransactionId())
+                .type(type)
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .status(Transaction.TransactionStatus.PENDING)
+                .account(accountRepository.getReferenceById(fromAccount.id()))
+                .fromAccountNumber(request.getFromAccountNumber())
+                .toAccountNumber(request.getToAccountNumber())
+                .build();
         
-        account.setBalance(balanceAfter);
-        accountRepository.save(account);
+        Transaction savedTransaction = transactionRepository.save(pendingTransfer);
+        customerSummaryRecorder.posted(customerId, BigDecimal.ZERO, savedTransaction.getCreatedAt());
+        return ResponseMapper.toTransactionResponse(savedTransaction, request.getFromAccountNumber());
+    }
+    
+    private TransactionResponse postDeposit(Long customerId, DepositRequest request) {
+        AccountBalance updated = accountRepository.credit(request.getAccountNumber(), customerId, request.getAmount())
+                .orElseThrow(() -> rejectPosting(customerId, request.getAccountNumber(), null));
+        
+        BigDecimal balanceAfter = updated.balance();
+        BigDecimal balanceBefore = balanceAfter.subtract(request.getAmount());
         
         Transaction transaction = Transaction.builder()
                 .transactionId(AccountNumberGenerator.generateTransactionId())
@@ -62,35 +169,21 @@ public class TransactionService {
                 .balanceAfter(balanceAfter)
                 .description(request.getDescription())
                 .status(Transaction.TransactionStatus.SUCCESS)
-                .account(account)
+                .account(accountRepository.getReferenceById(updated.accountId()))
                 .build();
         
         Transaction savedTransaction = transactionRepository.save(transaction);
-        return ResponseMapper.toTransactionResponse(savedTransaction);
+        customerSummaryRecorder.posted(updated.customerId(), request.getAmount(), savedTransaction.getCreatedAt());
+        return ResponseMapper.toTransactionResponse(savedTransaction, request.getAccountNumber());
     }
     
-    @Transactional
-    public TransactionResponse withdraw(Long customerId, WithdrawalRequest request) {
-        Account account = accountRepository.findByAccountNumber(request.getAccountNumber())
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + request.getAccountNumber()));
-        
-        if (!account.getCustomer().getId().equals(customerId)) {
-            throw new BadRequestException("You don't have access to this account");
-        }
-        
-        if (account.getStatus() != Account.AccountStatus.ACTIVE) {
-            throw new AccountInactiveException("Account is not active");
-        }
-        
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientBalanceException("Insufficient balance for withdrawal");
-        }
+    private TransactionResponse postWithdrawal(Long customerId, WithdrawalRequest request) {
+        AccountBalance updated = accountRepository.debit(request.getAccountNumber(), customerId, request.getAmount())
+                .orElseThrow(() -> rejectPosting(customerId, request.getAccountNumber(),
+                        "Insufficient balance for withdrawal"));
         
-        BigDecimal balanceBefore = account.getBalance();
-        BigDecimal balanceAfter = balanceBefore.subtract(request.getAmount());
-        
-        account.setBalance(balanceAfter);
-        accountRepository.save(account);
+        BigDecimal balanceAfter = updated.balance();
+        BigDecimal balanceBefore = balanceAfter.add(request.getAmount());
         
         Transaction transaction = Transaction.builder()
                 .transactionId(AccountNumberGenerator.generateTransactionId())
@@ -100,65 +193,74 @@ public class TransactionService {
                 .balanceAfter(balanceAfter)
                 .description(request.getDescription())
                 .status(Transaction.TransactionStatus.SUCCESS)
-                .account(account)
+                .account(accountRepository.getReferenceById(updated.accountId()))
                 .build();
         
         Transaction savedTransaction = transactionRepository.save(transaction);
-        return ResponseMapper.toTransactionResponse(savedTransaction);
+        customerSummaryRecorder.posted(updated.customerId(), request.getAmount().negate(),
+                savedTransaction.getCreatedAt());
+        return ResponseMapper.toTransactionResponse(savedTransaction, request.getAccountNumber());
     }
     
-    @Transactional
-    public TransactionResponse fundTransfer(Long customerId, FundTransferRequest request) {
-        if (request.getFromAccountNumber().equals(request.getToAccountNumber())) {
-            throw new BadRequestException("Cannot transfer to the same account");
+    private TransactionResponse postTransfer(Long customerId, FundTransferRequest request) {
+        String fromAccountNumber = request.getFromAccountNumber();
+        String toAccountNumber = request.getToAccountNumber();
+        BigDecimal amount = request.getAmount();
+        
+        // No-op unless the pessimistic locking mode is enabled
+        accountLockManager.lockInIdOrder("transfer", List.of(fromAccountNumber, toAccountNumber));
+        
+        // Rows are updated in account number order so opposite transfers cannot deadlock each other
+        Optional<AccountBalance> debited;
+        Optional<AccountBalance> credited;
+        if (fromAccountNumber.compareTo(toAccountNumber) < 0) {
+            debited = accountRepository.debit(fromAccountNumber, customerId, amount);
+            credited = debited.isPresent() ? accountRepository.credit(toAccountNumber, null, amount) : Optional.empty();
+        } else {
+            credited = accountRepository.credit(toAccountNumber, null, amount);
+            debited = credited.isPresent() ? accountRepository.debit(fromAccountNumber, customerId, amount) : Optional.empty();
         }
         
-        Account fromAccount = accountRepository.findByAccountNumber(request.getFromAccountNumber())
-                .orElseThrow(() -> new ResourceNotFoundException("Source account not found"));
-        
-        Account toAccount = accountRepository.findByAccountNumber(request.getToAccountNumber())
-                .orElseThrow(() -> new ResourceNotFoundException("Destination account not found"));
-        
-        if (!fromAccount.getCustomer().getId().equals(customerId)) {
-            throw new BadRequestException("You don't have access to the source account");
-        }
-        
-        if (fromAccount.getStatus() != Account.AccountStatus.ACTIVE) {
-            throw new AccountInactiveException("Source account is not active");
+        // Throwing rolls back whichever leg was already applied
+        if (debited.isEmpty() || credited.isEmpty()) {
+            throw rejectTransfer(customerId, request);
         }
         
-        if (toAccount.getStatus() != Account.AccountStatus.ACTIVE) {
-            throw new AccountInactiveException("Destination account is not active");
-        }
-        
-        if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientBalanceException("Insufficient balance for transfer");
+        if (singleRowTransfers) {
+            Transaction transfer = Transaction.builder()
+                    .transactionId(AccountNumberGenerator.generateTransactionId())
+                    .type(Transaction.TransactionType.TRANSFER)
+                    .amount(amount)
+                    .balanceBefore(debited.get().balance().add(amount))
+                    .balanceAfter(debited.get().balance())
+                    .counterBalanceBefore(credited.get().balance().subtract(amount))
+                    .counterBalanceAfter(credited.get().balance())
+                    .description(request.getDescription())
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .account(accountRepository.getReferenceById(debited.get().accountId()))
+                    .counterAccount(accountRepository.getReferenceById(credited.get().accountId()))
+                    .fromAccountNumber(fromAccountNumber)
+                    .toAccountNumber(toAccountNumber)
+                    .build();
+            transactionRepository.save(transfer);
+            customerSummaryRecorder.posted(debited.get().customerId(), amount.negate(), transfer.getCreatedAt());
+            customerSummaryRecorder.counterPosted(debited.get().customerId(), credited.get().customerId(), amount,
+                    transfer.getCreatedAt());
+            return ResponseMapper.toTransactionResponse(transfer, fromAccountNumber);
         }
         
-        // Debit from source account
-        BigDecimal fromBalanceBefore = fromAccount.getBalance();
-        BigDecimal fromBalanceAfter = fromBalanceBefore.subtract(request.getAmount());
-        fromAccount.setBalance(fromBalanceAfter);
-        accountRepository.save(fromAccount);
-        
-        // Credit to destination account
-        BigDecimal toBalanceBefore = toAccount.getBalance();
-        BigDecimal toBalanceAfter = toBalanceBefore.add(request.getAmount());
-        toAccount.setBalance(toBalanceAfter);
-        accountRepository.save(toAccount);
-        
         // Create debit transaction
         Transaction debitTransaction = Transaction.builder()
                 .transactionId(AccountNumberGenerator.generateTransactionId())
                 .type(Transaction.TransactionType.TRANSFER_OUT)
-                .amount(request.getAmount())
-                .balanceBefore(fromBalanceBefore)
-                .balanceAfter(fromBalanceAfter)
+                .amount(amount)
+                .balanceBefore(debited.get().balance().add(amount))
+                .balanceAfter(debited.get().balance())
                 .description(request.getDescription())
                 .status(Transaction.TransactionStatus.SUCCESS)
-                .account(fromAccount)
-                .fromAccountNumber(request.getFromAccountNumber())
-                .toAccountNumber(request.getToAccountNumber())
+                .account(accountRepository.getReferenceById(debited.get().accountId()))
+                .fromAccountNumber(fromAccountNumber)
+                .toAccountNumber(toAccountNumber)
                 .build();
         transactionRepository.save(debitTransaction);
         
@@ -166,18 +268,91 @@ public class TransactionService {
         Transaction creditTransaction = Transaction.builder()
                 .transactionId(AccountNumberGenerator.generateTransactionId())
                 .type(Transaction.TransactionType.TRANSFER_IN)
-                .amount(request.getAmount())
-                .balanceBefore(toBalanceBefore)
-                .balanceAfter(toBalanceAfter)
+                .amount(amount)
+                .balanceBefore(credited.get().balance().subtract(amount))
+                .balanceAfter(credited.get().balance())
                 .description(request.getDescription())
                 .status(Transaction.TransactionStatus.SUCCESS)
-                .account(toAccount)
-                .fromAccountNumber(request.getFromAccountNumber())
-                .toAccountNumber(request.getToAccountNumber())
+                .account(accountRepository.getReferenceById(credited.get().accountId()))
+                .fromAccountNumber(fromAccountNumber)
+                .toAccountNumber(toAccountNumber)
                 .build();
         transactionRepository.save(creditTransaction);
         
-        return ResponseMapper.toTransactionResponse(debitTransaction);
+        customerSummaryRecorder.posted(debited.get().customerId(), amount.negate(), debitTransaction.getCreatedAt());
+        customerSummaryRecorder.posted(credited.get().customerId(), amount, creditTransaction.getCreatedAt());
+        return ResponseMapper.toTransactionResponse(debitTransaction, fromAccountNumber);
+    }
+    
+    // Only reached when a guarded update matched no row, so the extra read stays off the happy path
+    private RuntimeException rejectPosting(Long customerId, String accountNumber, String insufficientMessage) {
+        Optional<Account> found = accountRepository.findByAccountNumber(accountNumber);
+        if (found.isEmpty()) {
+            return new ResourceNotFoundException("Account not found with number: " + accountNumber);
+        }
+        
+        Account account = found.get();
+        if (!account.getCustomer().getId().equals(customerId)) {
+            return new BadRequestException("You don't have access to this account");
+        }
+        if (account.getStatus() != Account.AccountStatus.ACTIVE || insufficientMessage == null) {
+            return new AccountInactiveException("Account is not active");
+        }
+        return new InsufficientBalanceException(insufficientMessage);
+    }
+    
+    private RuntimeException rejectTransfer(Long customerId, FundTransferRequest request) {
+        Optional<Account> fromAccount = accountRepository.findByAccountNumber(request.getFromAccountNumber());
+        if (fromAccount.isEmpty()) {
+            return new ResourceNotFoundException("Source account not found");
+        }
+        
+        Optional<Account> toAccount = accountRepository.findByAccountNumber(request.getToAccountNumber());
+        if (toAccount.isEmpty()) {
+            return new ResourceNotFoundException("Destination account not found");
+        }
+        
+        if (!fromAccount.get().getCustomer().getId().equals(customerId)) {
+            return new BadRequestException("You don't have access to the source account");
+        }
+        if (fromAccount.get().getStatus() != Account.AccountStatus.ACTIVE) {
+            return new AccountInactiveException("Source account is not active");
+        }
+        if (toAccount.get().getStatus() != Account.AccountStatus.ACTIVE) {
+            return new AccountInactiveException("Destination account is not active");
+        }
+        return new InsufficientBalanceException("Insufficient balance for transfer");
+    }
+    
+    // Not read-only, so it is served by the primary: the status of an async transfer is polled right after it is
+    // accepted, and a lagging replica would answer 404 until it caught up
+    @Transactional
+    public TransactionResponse getTransaction(Long customerId, String transactionId) {
+        TransactionView transaction = transactionRepository.findViewByTransactionId(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + transactionId));
+        
+        List<Long> accountIds = transaction.counterAccountId() == null
+                ? List.of(transaction.accountId()) : List.of(transaction.accountId(), transaction.counterAccountId());
+        Map<Long, AccountSnapshot> accounts = accountRepository.findSnapshotsByIdIn(accountIds).stream()
+                .collect(Collectors.toMap(AccountSnapshot::id, snapshot -> snapshot));
+        
+        AccountSnapshot account = accounts.get(transaction.accountId());
+        if (account.customerId().equals(customerId)) {
+            return ResponseMapper.toTransactionResponse(transaction, account.accountNumber());
+        }
+        // The receiving customer of a single-row transfer sees the credit line
+        AccountSnapshot counterAccount = accounts.get(transaction.counterAccountId());
+        if (counterAccount != null && counterAccount.customerId().equals(customerId)) {
+            return ResponseMapper.toTransactionResponse(transaction, counterAccount.accountNumber());
+        }
+        throw new BadRequestException("You don't have access to this transaction");
+    }
+    
+    // Balance from every SUCCESS posting created at or before the given time
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAt(Long customerId, String accountNumber, LocalDateTime time) {
+        AccountSnapshot account = ownedAccount(customerId, accountNumber);
+        return balanceThrough(account.id(), time);
     }
     
     @Transactional(readOnly = true)
@@ -187,18 +362,13 @@ public class TransactionService {
             int page,
             int size) {
         
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
-        
-        if (!account.getCustomer().getId().equals(customerId)) {
-            throw new BadRequestException("You don't have access to this account");
-        }
+        AccountSnapshot account = ownedAccount(customerId, accountNumber);
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Transaction> transactionPage = transactionRepository.findByAccountId(account.getId(), pageable);
+        Page<TransactionView> transactionPage = postingsAt(account.id(), STATEMENT_START, STATEMENT_END, page, size);
+        boolean firstPage = transactionPage.isFirst();
         
         List<TransactionResponse> content = transactionPage.getContent().stream()
-                .map(ResponseMapper::toTransactionResponse)
+                .map(transaction -> ResponseMapper.toTransactionResponse(transaction, accountNumber))
                 .collect(Collectors.toList());
         
         return PagedResponse.<TransactionResponse>builder()
@@ -209,6 +379,8 @@ public class TransactionService {
                 .totalPages(transactionPage.getTotalPages())
                 .last(transactionPage.isLast())
                 .first(transactionPage.isFirst())
+                .openingBalance(firstPage ? balanceBefore(account.id(), STATEMENT_START) : null)
+                .closingBalance(firstPage ? balanceThrough(account.id(), STATEMENT_END) : null)
                 .build();
     }
     
@@ -221,19 +393,13 @@ public class TransactionService {
             int page,
             int size) {
         
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
+        AccountSnapshot account = ownedAccount(customerId, accountNumber);
         
-        if (!account.getCustomer().getId().equals(customerId)) {
-            throw new BadRequestException("You don't have access to this account");
-        }
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Transaction> transactionPage = transactionRepository.findByAccountIdAndCreatedAtBetween(
-                account.getId(), startDate, endDate, pageable);
+        Page<TransactionView> transactionPage = postingsAt(account.id(), startDate, endDate, page, size);
+        boolean firstPage = transactionPage.isFirst();
         
         List<TransactionResponse> content = transactionPage.getContent().stream()
-                .map(ResponseMapper::toTransactionResponse)
+                .map(transaction -> ResponseMapper.toTransactionResponse(transaction, accountNumber))
                 .collect(Collectors.toList());
         
         return PagedResponse.<TransactionResponse>builder()
@@ -244,6 +410,116 @@ public class TransactionService {
                 .totalPages(transactionPage.getTotalPages())
                 .last(transactionPage.isLast())
                 .first(transactionPage.isFirst())
+                .openingBalance(firstPage ? balanceBefore(account.id(), startDate) : null)
+                .closingBalance(firstPage ? balanceThrough(account.id(), endDate) : null)
+                .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<TransactionResponse> getAccountStatement(
+            Long customerId,
+            String accountNumber,
+            String cursor,
+            int size) {
+        
+        AccountSnapshot account = ownedAccount(customerId, accountNumber);
+        return postingsPage(account, STATEMENT_START, STATEMENT_END, cursor, size);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<TransactionResponse> getTransactionHistory(
+            Long customerId,
+            String accountNumber,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            String cursor,
+            int size) {
+        
+        AccountSnapshot account = ownedAccount(customerId, accountNumber);
+        return postingsPage(account, startDate, endDate, cursor, size);
+    }
+    
+    // Offset page over both legs of an account's postings, newest first
+    private Page<TransactionView> postingsAt(Long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                         int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        // Offsets reach the database as an int; deeper pages are only reachable with a cursor
+        if (pageable.getOffset() > Integer.MAX_VALUE) {
+            throw new BadRequestException("Page " + page + " is too deep for offset paging, use the cursor parameter");
+        }
+        TransactionCursor first = TransactionCursor.first(endDate);
+        long debits = transactionRepository.countPostings(accountId, startDate, endDate);
+        long credits = counterLegs ? transactionRepository.countCounterPostings(accountId, startDate, endDate) : 0;
+        
+        if (credits == 0) {
+            List<TransactionView> content = transactionRepository.findPostingsBefore(
+                    accountId, startDate, first.createdAt(), first.id(), pageable);
+            return new PageImpl<>(content, pageable, debits);
+        }
+        
+        List<TransactionView> content = transactionRepository.findBothLegs(accountId, startDate, endDate, pageable);
+        return new PageImpl<>(content, pageable, debits + credits);
+    }
+    
+    private AccountSnapshot ownedAccount(Long customerId, String accountNumber) {
+        AccountSnapshot account = accountRepository.findSnapshotByAccountNumber(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
+        
+        if (!account.customerId().equals(customerId)) {
+            throw new BadRequestException("You don't have access to this account");
+        }
+        return account;
+    }
+    
+    // Newest first, without an offset or a count, so every page costs the same and rows arriving
+    // between requests never shift later pages. An empty cursor asks for the first page.
+    private CursorPagedResponse<TransactionResponse> postingsPage(
+            AccountSnapshot account,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            String cursor,
+            int size) {
+        
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        TransactionCursor position = cursor.isEmpty()
+                ? TransactionCursor.first(endDate) : TransactionCursor.decode(cursor);
+        
+        // One extra row tells whether another page follows
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TransactionView> postings = new ArrayList<>(transactionRepository.findPostingsBefore(
+                account.id(), startDate, position.createdAt(), position.id(), limit));
+        if (counterLegs) {
+            postings.addAll(transactionRepository.findCounterPostingsBefore(
+                    account.id(), startDate, position.createdAt(), position.id(), limit));
+            postings.sort(NEWEST_FIRST);
+        }
+        
+        boolean last = postings.size() <= size;
+        List<TransactionView> page = last ? postings : postings.subList(0, size);
+        
+        List<TransactionResponse> content = page.stream()
+                .map(transaction -> ResponseMapper.toTransactionResponse(transaction, account.accountNumber()))
+                .collect(Collectors.toList());
+        
+        return CursorPagedResponse.<TransactionResponse>builder()
+                .content(content)
+                .pageSize(size)
+                .nextCursor(last ? null : TransactionCursor.after(page.get(page.size() - 1)).encode())
+                .last(last)
+                .openingBalance(cursor.isEmpty() ? balanceBefore(account.id(), startDate) : null)
+                .closingBalance(cursor.isEmpty() ? balanceThrough(account.id(), endDate) : null)
                 .build();
     }
+    
+    private BigDecimal balanceBefore(Long accountId, LocalDateTime time) {
+        return balanceCheckpointRepository.balanceBefore(accountId, time);
+    }
+    
+    // Including postings at the given time, which are stored at microsecond precision
+    private BigDecimal balanceThrough(Long accountId, LocalDateTime time) {
+        return balanceCheckpointRepository.balanceBefore(
+                accountId, time.truncatedTo(ChronoUnit.MICROS).plus(1, ChronoUnit.MICROS));
+    }
 }
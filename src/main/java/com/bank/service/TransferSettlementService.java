@@ -0,0 +1,220 @@
+package com.bank.service;
+
+import com.bank.entity.Account;
+import com.bank.entity.Transaction;
+import com.bank.exception.AccountInactiveException;
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.exception.ResourceNotFoundException;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.TransactionBatchRepository;
+import com.bank.repository.TransactionRepository;
+import com.bank.util.AccountNumberGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Settles PENDING transfers accepted in async mode. Each worker owns a slot of transaction ids and settles
+// a batch of transfers per database transaction, writing balances and credit rows as batched statements.
+@Service
+@RequiredArgsConstructor
+public class TransferSettlementService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransferSettlementService.class);
+    
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @Value("${app.ledger.settlement.async-transfers}")
+    private boolean enabled;
+    
+    @Value("${app.ledger.settlement.workers}")
+    private int workers;
+    
+    @Value("${app.ledger.settlement.batch-size}")
+    private int batchSize;
+    
+    @Value("${app.ledger.settlement.poll-interval-ms}")
+    private long pollIntervalMs;
+    
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (!enabled) {
+            return;
+        }
+        
+        running = true;
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "transfer-settlement");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int worker = 0; worker < workers; worker++) {
+            int slot = worker;
+            executor.submit(() -> run(slot));
+        }
+        logger.info("Transfer settlement started with {} workers and batch size {}", workers, batchSize);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        running = false;
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+    
+    private void run(int worker) {
+        while (running) {
+            try {
+                if (settleBatch(worker) == 0) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                // The whole batch rolled back and stays PENDING, so it is picked up again on the next poll
+                logger.warn("Settlement batch failed on worker {}: {}", worker, ex.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    int settleBatch(int worker) {
+        List<Long> ids = transactionRepository.findIdsByStatusInSlot(
+                Transaction.TransactionStatus.PENDING, workers, worker, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        return transactionTemplate.execute(status -> {
+            // Another instance may have settled some of these since they were read
+            List<Transaction> pendingTransfers = transactionRepository.findAllForUpdate(ids).stream()
+                    .filter(transfer -> transfer.getStatus() == Transaction.TransactionStatus.PENDING)
+                    .collect(Collectors.toList());
+            
+            Set<String> accountNumbers = new HashSet<>();
+            for (Transaction transfer : pendingTransfers) {
+                accountNumbers.add(transfer.getFromAccountNumber());
+                accountNumbers.add(transfer.getToAccountNumber());
+            }
+            
+            // Locks are taken in id order, so workers settling transfers between the same accounts cannot deadlock
+            Map<String, Account> accounts = new HashMap<>();
+            for (Account account : accountRepository.findAllForUpdate(accountNumbers)) {
+                accounts.put(account.getAccountNumber(), account);
+            }
+            
+            Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+            List<Transaction> credits = new ArrayList<>();
+            for (Transaction transfer : pendingTransfers) {
+                try {
+                    settle(transfer, accounts, balances, credits);
+                } catch (ResourceNotFoundException | AccountInactiveException | InsufficientBalanceException ex) {
+                    transfer.setStatus(Transaction.TransactionStatus.FAILED);
+                    transfer.setFailureReason(ex.getMessage());
+                }
+            }
+            
+            // The pending rows are updated in place when the transaction commits
+            if (!balances.isEmpty()) {
+                transactionBatchRepository.updateBalances(balances);
+            }
+            if (!credits.isEmpty()) {
+                transactionRepository.saveAll(credits);
+                credits.forEach(customerSummaryRecorder::posted);
+            }
+            return pendingTransfers.size();
+        });
+    }
+    
+    private void settle(Transaction transfer, Map<String, Account> accounts, Map<Long, BigDecimal> balances,
+                        List<Transaction> credits) {
+        Account fromAccount = accounts.get(transfer.getFromAccountNumber());
+        if (fromAccount == null) {
+            throw new ResourceNotFoundException("Source account not found");
+        }
+        Account toAccount = accounts.get(transfer.getToAccountNumber());
+        if (toAccount == null) {
+            throw new ResourceNotFoundException("Destination account not found");
+        }
+        if (fromAccount.getStatus() != Account.AccountStatus.ACTIVE) {
+            throw new AccountInactiveException("Source account is not active");
+        }
+        if (toAccount.getStatus() != Account.AccountStatus.ACTIVE) {
+            throw new AccountInactiveException("Destination account is not active");
+        }
+        
+        BigDecimal amount = transfer.getAmount();
+        BigDecimal fromBalanceBefore = balances.getOrDefault(fromAccount.getId(), fromAccount.getBalance());
+        if (fromBalanceBefore.compareTo(amount) < 0) {
+            throw new InsufficientBalanceException("Insufficient balance for transfer");
+        }
+        BigDecimal toBalanceBefore = balances.getOrDefault(toAccount.getId(), toAccount.getBalance());
+        
+        transfer.setBalanceBefore(fromBalanceBefore);
+        transfer.setBalanceAfter(fromBalanceBefore.subtract(amount));
+        transfer.setStatus(Transaction.TransactionStatus.SUCCESS);
+        balances.put(fromAccount.getId(), fromBalanceBefore.subtract(amount));
+        balances.put(toAccount.getId(), toBalanceBefore.add(amount));
+        // The pending row was counted for the paying customer when it was accepted
+        customerSummaryRecorder.settled(fromAccount.getCustomer().getId(), amount.negate(), transfer.getCreatedAt());
+        
+        if (transfer.getType() == Transaction.TransactionType.TRANSFER) {
+            transfer.setCounterAccount(toAccount);
+            transfer.setCounterBalanceBefore(toBalanceBefore);
+            transfer.setCounterBalanceAfter(toBalanceBefore.add(amount));
+            customerSummaryRecorder.counterPosted(fromAccount.getCustomer().getId(), toAccount.getCustomer().getId(),
+                    amount, transfer.getCreatedAt());
+            return;
+        }
+        credits.add(Transaction.builder()
+                .transactionId(AccountNumberGenerator.generateTransactionId())
+                .type(Transaction.TransactionType.TRANSFER_IN)
+                .amount(amount)
+                .balanceBefore(toBalanceBefore)
+                .balanceAfter(toBalanceBefore.add(amount))
+                .description(transfer.getDescription())
+                .status(Transaction.TransactionStatus.SUCCESS)
+                .account(toAccount)
+                .fromAccountNumber(transfer.getFromAccountNumber())
+                .toAccountNumber(transfer.getToAccountNumber())
+                .build());
+    }
+}
@@ -1,23 +1,28 @@
 package com.bank.util;
 
-import java.security.SecureRandom;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
 public class AccountNumberGenerator {
     
-    private static final SecureRandom random = new SecureRandom();
     private static final String PREFIX = "ACC";
+    private static final String TRANSACTION_PREFIX = "TXN";
+    
+    private static volatile SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+    
+    // Each running instance needs its own node id for the ids to stay unique across instances
+    public static void useNodeId(long nodeId) {
+        if (generator.getNodeId() != nodeId) {
+            generator = new SnowflakeIdGenerator(nodeId);
+        }
+    }
+    
+    public static long nextId() {
+        return generator.nextId();
+    }
     
     public static String generateAccountNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        int randomNum = 1000 + random.nextInt(9000); // 4-digit random number
-        return PREFIX + timestamp + randomNum;
+        return PREFIX + generator.nextId();
     }
     
     public static String generateTransactionId() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS"));
-        int randomNum = 10000 + random.nextInt(90000); // 5-digit random number
-        return "TXN" + timestamp + randomNum;
+        return TRANSACTION_PREFIX + generator.nextId();
     }
 }
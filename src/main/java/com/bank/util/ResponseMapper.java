@@ -4,6 +4,8 @@ import com.bank.dto.response.*;
 import com.bank.entity.Account;
 import com.bank.entity.Customer;
 import com.bank.entity.Transaction;
+import com.bank.repository.AccountView;
+import com.bank.repository.TransactionView;
 
 public class ResponseMapper {
     
@@ -35,20 +37,50 @@ public class ResponseMapper {
                 .build();
     }
     
+    public static AccountResponse toAccountResponse(AccountView account) {
+        return AccountResponse.builder()
+                .id(account.id())
+                .accountNumber(account.accountNumber())
+                .accountName(account.accountName())
+                .accountType(account.accountType())
+                .balance(account.balance())
+                .status(account.status())
+                .createdAt(account.createdAt())
+                .updatedAt(account.updatedAt())
+                .build();
+    }
+    
     public static TransactionResponse toTransactionResponse(Transaction transaction) {
+        return toTransactionResponse(transaction, transaction.getAccount().getAccountNumber());
+    }
+    
+    // For postings that only hold a reference to the account, so mapping does not load it
+    public static TransactionResponse toTransactionResponse(Transaction transaction, String accountNumber) {
+        return toTransactionResponse(TransactionView.of(transaction), accountNumber);
+    }
+    
+    // A single-row transfer reads as the debit line for the source account and the credit line for the destination
+    public static TransactionResponse toTransactionResponse(TransactionView transaction, String accountNumber) {
+        boolean credit = transaction.type() == Transaction.TransactionType.TRANSFER
+                && accountNumber.equals(transaction.toAccountNumber());
+        Transaction.TransactionType type = transaction.type();
+        if (type == Transaction.TransactionType.TRANSFER) {
+            type = credit ? Transaction.TransactionType.TRANSFER_IN : Transaction.TransactionType.TRANSFER_OUT;
+        }
         return TransactionResponse.builder()
-                .id(transaction.getId())
-                .transactionId(transaction.getTransactionId())
-                .type(transaction.getType())
-                .amount(transaction.getAmount())
-                .balanceBefore(transaction.getBalanceBefore())
-                .balanceAfter(transaction.getBalanceAfter())
-                .description(transaction.getDescription())
-                .status(transaction.getStatus())
-                .accountNumber(transaction.getAccount().getAccountNumber())
-                .fromAccountNumber(transaction.getFromAccountNumber())
-                .toAccountNumber(transaction.getToAccountNumber())
-                .createdAt(transaction.getCreatedAt())
+                .id(transaction.id())
+                .transactionId(transaction.transactionId())
+                .type(type)
+                .amount(transaction.amount())
+                .balanceBefore(credit ? transaction.counterBalanceBefore() : transaction.balanceBefore())
+                .balanceAfter(credit ? transaction.counterBalanceAfter() : transaction.balanceAfter())
+                .description(transaction.description())
+                .status(transaction.status())
+                .accountNumber(accountNumber)
+                .fromAccountNumber(transaction.fromAccountNumber())
+                .toAccountNumber(transaction.toAccountNumber())
+                .failureReason(transaction.failureReason())
+                .createdAt(transaction.createdAt())
                 .build();
     }
 }
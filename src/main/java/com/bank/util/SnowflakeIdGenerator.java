@@ -0,0 +1,64 @@
+package com.bank.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// 64-bit ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id and a 12-bit per-node sequence
+public final class SnowflakeIdGenerator {
+    
+    public static final long EPOCH_MILLIS = 1704067200000L;
+    public static final long MAX_NODE_ID = (1L << 10) - 1;
+    
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_SHIFT = SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    private final long nodeId;
+    private final LongSupplier clock;
+    
+    // Last issued (timestamp << SEQUENCE_BITS | sequence). It only moves forward, so ids never repeat.
+    private final AtomicLong lastState = new AtomicLong();
+    
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+    
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+    
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long last;
+        long next;
+        do {
+            last = lastState.get();
+            // A new millisecond starts at sequence 0. Otherwise take the next slot, which carries into the
+            // following millisecond when the sequence runs out or the clock has stepped backwards.
+            next = now > last ? now : last + 1;
+        } while (!lastState.compareAndSet(last, next));
+        
+        return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | nodeId << NODE_SHIFT | (next & SEQUENCE_MASK);
+    }
+    
+    public long getNodeId() {
+        return nodeId;
+    }
+    
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+    
+    public static long nodeIdOf(long id) {
+        return (id >>> NODE_SHIFT) & MAX_NODE_ID;
+    }
+    
+    public static long sequenceOf(long id) {
+        return id & SEQUENCE_MASK;
+    }
+}
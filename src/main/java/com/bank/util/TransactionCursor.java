@@ -0,0 +1,36 @@
+package com.bank.util;
+
+import com.bank.repository.TransactionView;
+import com.bank.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position in a newest-first listing of postings. Encoded as an opaque string so clients cannot build their own.
+public record TransactionCursor(LocalDateTime createdAt, long id) {
+    
+    // Sorts before every stored posting, so it is the position of the first page
+    public static TransactionCursor first(LocalDateTime until) {
+        return new TransactionCursor(until, Long.MAX_VALUE);
+    }
+    
+    public static TransactionCursor after(TransactionView transaction) {
+        return new TransactionCursor(transaction.createdAt(), transaction.id());
+    }
+    
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new TransactionCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    public String encode() {
+        byte[] value = (createdAt + "|" + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+}
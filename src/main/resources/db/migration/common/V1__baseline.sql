@@ -0,0 +1,64 @@
+-- Schema as created by Hibernate before migrations took over the DDL. Databases created that way
+-- are baselined at this version and only receive the later migrations.
+
+CREATE SEQUENCE customers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE accounts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE customers (
+    id BIGINT NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    phone VARCHAR(255) NOT NULL,
+    address VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE', 'SUSPENDED')),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE accounts (
+    id BIGINT NOT NULL,
+    account_number VARCHAR(255) NOT NULL UNIQUE,
+    account_name VARCHAR(255) NOT NULL,
+    account_type VARCHAR(255) NOT NULL CHECK (account_type IN ('SAVINGS', 'CURRENT', 'FIXED_DEPOSIT', 'SALARY')),
+    balance NUMERIC(19, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE', 'CLOSED', 'SUSPENDED')),
+    customer_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_accounts_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL,
+    transaction_id VARCHAR(255) NOT NULL UNIQUE,
+    type VARCHAR(255) NOT NULL
+        CHECK (type IN ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER_IN', 'TRANSFER_OUT', 'TRANSFER')),
+    amount NUMERIC(19, 2) NOT NULL,
+    balance_before NUMERIC(19, 2),
+    balance_after NUMERIC(19, 2),
+    description VARCHAR(500),
+    status VARCHAR(255) NOT NULL CHECK (status IN ('SUCCESS', 'FAILED', 'PENDING')),
+    account_id BIGINT NOT NULL,
+    from_account_number VARCHAR(255),
+    to_account_number VARCHAR(255),
+    counter_account_id BIGINT,
+    counter_balance_before NUMERIC(19, 2),
+    counter_balance_after NUMERIC(19, 2),
+    failure_reason VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_account FOREIGN KEY (account_id) REFERENCES accounts (id),
+    CONSTRAINT fk_transactions_counter_account FOREIGN KEY (counter_account_id) REFERENCES accounts (id)
+);
+
+CREATE TABLE ledger_checkpoints (
+    name VARCHAR(50) NOT NULL,
+    applied_sequence BIGINT NOT NULL,
+    PRIMARY KEY (name)
+);
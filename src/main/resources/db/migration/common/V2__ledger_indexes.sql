@@ -0,0 +1,14 @@
+-- Indexes shaped after the repository queries. IF NOT EXISTS because databases created by Hibernate
+-- before migrations took over may already have some of them.
+
+-- Statements and history, offset or cursor: equality on the account, then newest first on (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_transactions_account_created ON transactions (account_id, created_at, id);
+
+-- The credit leg of single-row transfers, read the same way
+CREATE INDEX IF NOT EXISTS idx_transactions_counter_created ON transactions (counter_account_id, created_at, id);
+
+-- Settlement workers polling for PENDING transfers in id order
+CREATE INDEX IF NOT EXISTS idx_transactions_status_id ON transactions (status, id);
+
+-- Accounts of a customer, for listings and the joins from transactions to their customer
+CREATE INDEX IF NOT EXISTS idx_accounts_customer ON accounts (customer_id);
@@ -0,0 +1,29 @@
+-- One row per customer with the figures the dashboard shows. Postings adjust it in their own database
+-- transaction (see CustomerSummaryRecorder); CustomerSummaryService rebuilds rows from the ledger to repair
+-- drift. transactions counts the rows touching any of the customer's accounts, a transfer between two of
+-- them once per row.
+CREATE TABLE customer_summaries (
+    customer_id BIGINT NOT NULL,
+    accounts INTEGER NOT NULL,
+    balance NUMERIC(19, 2) NOT NULL,
+    transactions BIGINT NOT NULL,
+    last_activity_at TIMESTAMP(6),
+    PRIMARY KEY (customer_id),
+    CONSTRAINT fk_customer_summaries_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+INSERT INTO customer_summaries (customer_id, accounts, balance, transactions, last_activity_at)
+SELECT c.id,
+       (SELECT COUNT(*) FROM accounts a WHERE a.customer_id = c.id),
+       (SELECT COALESCE(SUM(a.balance), 0) FROM accounts a WHERE a.customer_id = c.id),
+       (SELECT COUNT(*) FROM transactions t JOIN accounts a ON a.id = t.account_id WHERE a.customer_id = c.id)
+           + (SELECT COUNT(*) FROM transactions t JOIN accounts a ON a.id = t.counter_account_id
+              JOIN accounts o ON o.id = t.account_id WHERE a.customer_id = c.id AND o.customer_id <> c.id),
+       -- GREATEST is NULL on H2 when either side is, so missing sides compare as the epoch
+       NULLIF(GREATEST(
+           COALESCE((SELECT MAX(t.created_at) FROM transactions t JOIN accounts a ON a.id = t.account_id
+                     WHERE a.customer_id = c.id), TIMESTAMP '1970-01-01 00:00:00'),
+           COALESCE((SELECT MAX(t.created_at) FROM transactions t JOIN accounts a ON a.id = t.counter_account_id
+                     WHERE a.customer_id = c.id), TIMESTAMP '1970-01-01 00:00:00')),
+           TIMESTAMP '1970-01-01 00:00:00')
+FROM customers c;
@@ -0,0 +1,5 @@
+-- Account search filters on the customer and pages newest first, so the customer's rows are read in order
+-- and the scan stops at the page. Supersedes idx_accounts_customer.
+CREATE INDEX IF NOT EXISTS idx_accounts_customer_created ON accounts (customer_id, created_at, id);
+
+DROP INDEX IF EXISTS idx_accounts_customer;
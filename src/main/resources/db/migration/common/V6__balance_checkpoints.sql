@@ -0,0 +1,13 @@
+-- End-of-day balances per account, written by BalanceCheckpointService for every account with postings that
+-- day. A row holds the balance from all SUCCESS postings created before as_of, so a balance at any time is
+-- the nearest row plus at most a day of postings.
+CREATE TABLE balance_checkpoints (
+    account_id BIGINT NOT NULL,
+    as_of TIMESTAMP(6) NOT NULL,
+    balance NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (account_id, as_of),
+    CONSTRAINT fk_balance_checkpoints_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+);
+
+-- The checkpoint job reads one day of postings across all accounts at a time
+CREATE INDEX IF NOT EXISTS idx_transactions_created ON transactions (created_at);
@@ -0,0 +1,10 @@
+-- Ids of revoked login sessions and of refresh tokens that have been used, written by TokenRevocationList.
+-- A row is only needed until the tokens it refers to expire; expired rows are deleted when the in-memory
+-- filter is rebuilt.
+CREATE TABLE revoked_tokens (
+    id VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_at);
@@ -0,0 +1,17 @@
+-- Moves PostgreSQL databases created with IDENTITY ids onto the pooled sequences used by the entities.
+-- A no-op on databases created by V1 apart from moving the sequences forward.
+
+CREATE SEQUENCE IF NOT EXISTS customers_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS accounts_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transactions_seq INCREMENT BY 50;
+
+-- The pooled optimizer hands out the 50 ids ending at each sequence value,
+-- so the sequence has to sit at least 50 above the highest existing id
+SELECT setval('customers_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM customers) + 50, nextval('customers_seq')));
+SELECT setval('accounts_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM accounts) + 50, nextval('accounts_seq')));
+SELECT setval('transactions_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM transactions) + 50, nextval('transactions_seq')));
+
+-- Ids now always come from the sequences
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE accounts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
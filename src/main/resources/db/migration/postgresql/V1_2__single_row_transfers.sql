@@ -0,0 +1,10 @@
+-- Prepares PostgreSQL databases created by Hibernate before single-row transfers existed. Hibernate's schema
+-- update added the columns but never widened the check constraint on transactions.type.
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS counter_account_id BIGINT REFERENCES accounts (id);
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS counter_balance_before NUMERIC(19, 2);
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS counter_balance_after NUMERIC(19, 2);
+
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS transactions_type_check;
+ALTER TABLE transactions ADD CONSTRAINT transactions_type_check
+    CHECK (type IN ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER_IN', 'TRANSFER_OUT', 'TRANSFER'));
@@ -0,0 +1,10 @@
+-- Adds what the journal and transfer settlement need to PostgreSQL databases created by Hibernate before
+-- those features existed. A no-op on databases created by V1.
+
+CREATE TABLE IF NOT EXISTS ledger_checkpoints (
+    name VARCHAR(50) NOT NULL,
+    applied_sequence BIGINT NOT NULL,
+    PRIMARY KEY (name)
+);
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS failure_reason VARCHAR(255);
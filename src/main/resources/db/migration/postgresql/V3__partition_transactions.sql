@@ -0,0 +1,88 @@
+-- Rebuilds transactions as a table range-partitioned by month on created_at, so statement and history
+-- reads only touch the months they ask for and old months can be detached instead of deleted row by row.
+-- Existing rows are copied into their partitions; on a large ledger run this in a maintenance window.
+-- TransactionPartitionService keeps creating partitions ahead of time once the application is running.
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+
+-- The partition key has to be part of every unique constraint, so the primary key becomes (id, created_at).
+-- id comes from transactions_seq, so it stays unique on its own. transaction_id keeps its uniqueness through
+-- transaction_ids below.
+CREATE TABLE transactions (
+    id BIGINT NOT NULL,
+    transaction_id VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL
+        CHECK (type IN ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER_IN', 'TRANSFER_OUT', 'TRANSFER')),
+    amount NUMERIC(19, 2) NOT NULL,
+    balance_before NUMERIC(19, 2),
+    balance_after NUMERIC(19, 2),
+    description VARCHAR(500),
+    status VARCHAR(255) NOT NULL CHECK (status IN ('SUCCESS', 'FAILED', 'PENDING')),
+    account_id BIGINT NOT NULL,
+    from_account_number VARCHAR(255),
+    to_account_number VARCHAR(255),
+    counter_account_id BIGINT,
+    counter_balance_before NUMERIC(19, 2),
+    counter_balance_after NUMERIC(19, 2),
+    failure_reason VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- One partition per month from the oldest row up to three months ahead. There is no DEFAULT partition: it would
+-- block creating the partition of any month it held rows for, and TransactionPartitionService creates months
+-- before they start, so an insert outside every partition is an error worth failing on.
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM transactions_unpartitioned),
+                                                     now()));
+    last_month DATE := date_trunc('month', now()) + INTERVAL '3 months';
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_' || to_char(month_start, 'YYYY_MM'),
+                       month_start, month_start + INTERVAL '1 month');
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- Every transaction_id ever inserted, written by a trigger in the inserting transaction, so a duplicate fails
+-- the insert as the table-wide unique constraint did. Rows of dropped months are deleted with them.
+CREATE TABLE transaction_ids (
+    transaction_id VARCHAR(255) PRIMARY KEY,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_transaction_ids_created ON transaction_ids (created_at);
+
+CREATE FUNCTION record_transaction_id() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO transaction_ids (transaction_id, created_at) VALUES (NEW.transaction_id, NEW.created_at);
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE TRIGGER transactions_unique_transaction_id AFTER INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION record_transaction_id();
+
+INSERT INTO transactions (id, transaction_id, type, amount, balance_before, balance_after, description, status,
+                          account_id, from_account_number, to_account_number, counter_account_id,
+                          counter_balance_before, counter_balance_after, failure_reason, created_at)
+SELECT id, transaction_id, type, amount, balance_before, balance_after, description, status,
+       account_id, from_account_number, to_account_number, counter_account_id,
+       counter_balance_before, counter_balance_after, failure_reason, created_at
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+ALTER TABLE transactions ADD CONSTRAINT fk_transactions_account
+    FOREIGN KEY (account_id) REFERENCES accounts (id);
+ALTER TABLE transactions ADD CONSTRAINT fk_transactions_counter_account
+    FOREIGN KEY (counter_account_id) REFERENCES accounts (id);
+
+-- The V2 indexes, now created on every partition
+CREATE INDEX idx_transactions_account_created ON transactions (account_id, created_at, id);
+CREATE INDEX idx_transactions_counter_created ON transactions (counter_account_id, created_at, id);
+CREATE INDEX idx_transactions_status_id ON transactions (status, id);
+
+-- Lookups by transaction id, which the primary key of transaction_ids cannot serve
+CREATE INDEX idx_transactions_transaction_id ON transactions (transaction_id);
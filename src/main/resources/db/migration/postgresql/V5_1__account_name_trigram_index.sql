@@ -0,0 +1,5 @@
+-- Substring search on account names. A trigram GIN index serves LOWER(account_name) LIKE '%term%' for
+-- terms of three characters or more; shorter terms fall back to the customer index.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_accounts_name_trgm ON accounts USING gin (LOWER(account_name) gin_trgm_ops);
@@ -0,0 +1,131 @@
+package com.bank.benchmark;
+
+import com.bank.entity.Account;
+import com.bank.repository.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Account search latency for customers with 10, 100 and 1000 accounts, before and after the rest of the table
+// grows by GLOBAL_ACCOUNTS rows, next to the catch-all page and count queries the search used to run.
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class AccountSearchBenchmark {
+    
+    private static final int[] CUSTOMER_ACCOUNTS = {10, 100, 1000};
+    private static final int GLOBAL_CUSTOMERS = 1000;
+    private static final int GLOBAL_ACCOUNTS = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int REPETITIONS = 200;
+    // Above anything the pooled sequences hand out during the run
+    private static final long FIRST_ID = 1_500_000_000L;
+    
+    // The page and count queries the search ran before, with every filter bound even when absent
+    private static final String CATCH_ALL_WHERE = " FROM accounts a WHERE a.customer_id = ? " +
+            "AND (? IS NULL OR LOWER(a.account_name) LIKE LOWER(CONCAT('%', ?, '%'))) " +
+            "AND (? IS NULL OR a.account_type = ?) AND (? IS NULL OR a.status = ?)";
+    
+    private static final String[] NAMES = {"Holiday Savings", "Rent", "Emergency Fund", "Payroll", "Tax Reserve"};
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private long nextId = FIRST_ID;
+    
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM accounts WHERE id >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM customers WHERE id >= ?", FIRST_ID);
+    }
+    
+    @Test
+    void searchLatencyByAccountCount() {
+        List<Long> customers = new ArrayList<>();
+        for (int accounts : CUSTOMER_ACCOUNTS) {
+            customers.add(seedCustomer(accounts));
+        }
+        report("before growth", customers);
+        
+        for (int i = 0; i < GLOBAL_CUSTOMERS; i++) {
+            seedCustomer(GLOBAL_ACCOUNTS / GLOBAL_CUSTOMERS);
+        }
+        report("after +" + GLOBAL_ACCOUNTS + " accounts", customers);
+    }
+    
+    private void report(String phase, List<Long> customers) {
+        for (int c = 0; c < customers.size(); c++) {
+            Long customerId = customers.get(c);
+            int accounts = CUSTOMER_ACCOUNTS[c];
+            String label = phase + " / " + accounts + " accounts / ";
+            
+            // Every fifth account is named "Emergency Fund #n"
+            long matches = accountRepository.searchAccounts(customerId, "emergency", null, null,
+                    PageRequest.of(0, PAGE_SIZE)).getTotalElements();
+            assertEquals(accounts / NAMES.length, matches);
+            
+            time(label + "name", () -> accountRepository.searchAccounts(customerId, "emergency", null, null,
+                    PageRequest.of(0, PAGE_SIZE)));
+            time(label + "rare name", () -> accountRepository.searchAccounts(customerId, "fund #7", null, null,
+                    PageRequest.of(0, PAGE_SIZE)));
+            time(label + "name + type", () -> accountRepository.searchAccounts(customerId, "fund",
+                    Account.AccountType.SAVINGS, null, PageRequest.of(0, PAGE_SIZE)));
+            time(label + "status", () -> accountRepository.searchAccounts(customerId, null, null,
+                    Account.AccountStatus.ACTIVE, PageRequest.of(0, PAGE_SIZE)));
+            time(label + "name (catch-all)", () -> {
+                Object[] arguments = {customerId, "emergency", "emergency", null, null, null, null};
+                jdbcTemplate.queryForList("SELECT a.id" + CATCH_ALL_WHERE + " ORDER BY a.created_at DESC LIMIT " +
+                        PAGE_SIZE, Long.class, arguments);
+                return jdbcTemplate.queryForObject("SELECT COUNT(*)" + CATCH_ALL_WHERE, Long.class, arguments);
+            });
+        }
+    }
+    
+    private Long seedCustomer(int accounts) {
+        long customerId = nextId++;
+        jdbcTemplate.update("INSERT INTO customers (id, first_name, last_name, email, username, password, phone, " +
+                "address, status, created_at) VALUES (?, 'Bench', 'Search', ?, ?, '{noop}password', '1234567890', " +
+                "'1 Benchmark Street', 'ACTIVE', ?)", customerId, "search" + customerId + "@example.com",
+                "search" + customerId, Timestamp.valueOf(LocalDateTime.now()));
+        
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            long id = nextId++;
+            Account.AccountType type = Account.AccountType.values()[i % Account.AccountType.values().length];
+            rows.add(new Object[] {id, "SRCH" + id, NAMES[i % NAMES.length] + " #" + i, type.name(),
+                    customerId, Timestamp.valueOf(start.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO accounts (id, account_number, account_name, account_type, balance, " +
+                "status, customer_id, created_at) VALUES (?, ?, ?, ?, 0, 'ACTIVE', ?, ?)", rows);
+        return customerId;
+    }
+    
+    private void time(String label, Supplier<?> search) {
+        for (int i = 0; i < REPETITIONS; i++) {
+            search.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            search.get();
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / REPETITIONS;
+        System.out.printf("%-60s %10.3f ms/search%n", label, millis);
+    }
+}
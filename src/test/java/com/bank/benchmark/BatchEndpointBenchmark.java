@@ -0,0 +1,94 @@
+package com.bank.benchmark;
+
+import com.bank.dto.request.BatchItemRequest;
+import com.bank.dto.request.BatchTransactionRequest;
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.TransactionRepository;
+import com.bank.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("benchmark")
+class BatchEndpointBenchmark {
+    
+    private static final int TRANSFERS = 5_000;
+    private static final int ACCOUNTS = 100;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Test
+    void singleTransfersVersusOneBatch() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        Customer customer = fixtures.seedCustomer();
+        UserPrincipal principal = UserPrincipal.create(customer);
+        
+        List<Account> singleAccounts = fixtures.seedAccounts(customer, ACCOUNTS, OPENING_BALANCE);
+        BenchmarkFixtures.run("single POST /transfer calls", 1, TRANSFERS, i -> () -> mockMvc.perform(
+                        post("/api/transactions/transfer")
+                                .with(user(principal))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(FundTransferRequest.builder()
+                                        .fromAccountNumber(singleAccounts.get(i % ACCOUNTS).getAccountNumber())
+                                        .toAccountNumber(singleAccounts.get((i + 1) % ACCOUNTS).getAccountNumber())
+                                        .amount(BigDecimal.ONE)
+                                        .build())))
+                .andExpect(status().isCreated()));
+        
+        List<Account> batchAccounts = fixtures.seedAccounts(customer, ACCOUNTS, OPENING_BALANCE);
+        List<BatchItemRequest> items = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            items.add(BatchItemRequest.builder()
+                    .type(BatchItemRequest.ItemType.TRANSFER)
+                    .fromAccountNumber(batchAccounts.get(i % ACCOUNTS).getAccountNumber())
+                    .toAccountNumber(batchAccounts.get((i + 1) % ACCOUNTS).getAccountNumber())
+                    .amount(BigDecimal.ONE)
+                    .build());
+        }
+        String body = objectMapper.writeValueAsString(new BatchTransactionRequest(items));
+        BenchmarkFixtures.Result batch = BenchmarkFixtures.run("one POST /batch call", 1, 1, i -> () -> mockMvc.perform(
+                        post("/api/transactions/batch")
+                                .with(user(principal))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                .andExpect(status().isOk()));
+        System.out.printf("%-40s %8d transfers %17.1f transfers/sec%n", "", TRANSFERS,
+                TRANSFERS * 1_000_000_000.0 / batch.elapsedNanos());
+        System.out.printf("%-40s %8d transaction rows written%n", "", transactionRepository.count());
+    }
+}
@@ -0,0 +1,101 @@
+package com.bank.benchmark;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+@RequiredArgsConstructor
+class BenchmarkFixtures {
+    
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.nanoTime());
+    
+    private final CustomerRepository customerRepository;
+    private final AccountRepository accountRepository;
+    
+    Customer seedCustomer() {
+        long n = SEQUENCE.incrementAndGet();
+        return customerRepository.save(Customer.builder()
+                .firstName("Bench")
+                .lastName("Customer")
+                .email("bench" + n + "@example.com")
+                .username("bench" + n)
+                .password("{noop}password")
+                .phone("1234567890")
+                .address("1 Benchmark Street, Test City")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+    }
+    
+    List<Account> seedAccounts(Customer customer, int count, BigDecimal openingBalance) {
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            accounts.add(Account.builder()
+                    .accountNumber("BEN" + SEQUENCE.incrementAndGet())
+                    .accountName("Benchmark Account " + i)
+                    .accountType(Account.AccountType.SAVINGS)
+                    .balance(openingBalance)
+                    .status(Account.AccountStatus.ACTIVE)
+                    .customer(customer)
+                    .build());
+        }
+        return accountRepository.saveAll(accounts);
+    }
+    
+    // Runs the operation the given number of times across a pool of client threads and reports ops/sec
+    static Result run(String label, int threads, int operations, IntFunction<Callable<?>> operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < operations) {
+                        try {
+                            operation.apply(i).call();
+                        } catch (Exception ex) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            Result result = new Result(label, operations, failures.get(), elapsedNanos);
+            System.out.println(result);
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    record Result(String label, int operations, int failures, long elapsedNanos) {
+        
+        double opsPerSecond() {
+            return (operations - failures) * 1_000_000_000.0 / elapsedNanos;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%-40s %8d ops %6d failed %10.1f ops/sec", label, operations, failures, opsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.bank.benchmark;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.security.CustomUserDetailsService;
+import com.bank.service.AccountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Database statements per authenticated account read: the JWT filter's loadUserById followed by getAccount.
+// Without the cache, the request's customer and account are evicted before it runs, so every lookup reaches the
+// database as it did before the second-level cache; with it, they are read from the warm cache.
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class EntityCacheBenchmark {
+    
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 20_000;
+    private static final int CUSTOMERS = 50;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+    
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteAll(accounts);
+        customerRepository.deleteAll(customers);
+    }
+    
+    @Test
+    void statementsPerRequest() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        for (int c = 0; c < CUSTOMERS; c++) {
+            Customer customer = fixtures.seedCustomer();
+            customers.add(customer);
+            accounts.addAll(fixtures.seedAccounts(customer, 1, BigDecimal.TEN));
+        }
+        
+        requests("warm-up", false);
+        requests("without cache", false);
+        requests("with cache", true);
+    }
+    
+    private void requests(String label, boolean cached) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BenchmarkFixtures.Result result = BenchmarkFixtures.run(label, THREADS, OPERATIONS, i -> () -> {
+            Customer customer = customers.get(i % CUSTOMERS);
+            Account account = accounts.get(i % CUSTOMERS);
+            if (!cached) {
+                entityManagerFactory.getCache().evict(Customer.class, customer.getId());
+                entityManagerFactory.getCache().evict(Account.class, account.getId());
+            }
+            customUserDetailsService.loadUserById(customer.getId());
+            return accountService.getAccount(customer.getId(), account.getId());
+        });
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+        System.out.printf("%-40s %6.2f statements/request  %5.1f%% cache hits%n", label,
+                (double) statistics.getPrepareStatementCount() / OPERATIONS,
+                hits + misses == 0 ? 0 : 100.0 * hits / (hits + misses));
+        assertEquals(0, result.failures());
+    }
+}
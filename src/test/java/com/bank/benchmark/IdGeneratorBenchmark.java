@@ -0,0 +1,60 @@
+package com.bank.benchmark;
+
+import com.bank.util.AccountNumberGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@Threads(4)
+public class IdGeneratorBenchmark {
+    
+    private static final SecureRandom random = new SecureRandom();
+    
+    // The generator this replaced: a formatter per call plus SecureRandom digits
+    @Benchmark
+    public String legacyTransactionId() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS"));
+        int randomNum = 10000 + random.nextInt(90000);
+        return "TXN" + timestamp + randomNum;
+    }
+    
+    @Benchmark
+    public String transactionId() {
+        return AccountNumberGenerator.generateTransactionId();
+    }
+    
+    @Benchmark
+    public long numericId() {
+        return AccountNumberGenerator.nextId();
+    }
+    
+    @Test
+    void runJmh() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(IdGeneratorBenchmark.class.getName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.bank.benchmark;
+
+import com.bank.dto.request.BatchItemRequest;
+import com.bank.dto.request.BatchTransactionRequest;
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.service.BatchTransactionService;
+import com.bank.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag("benchmark")
+// Tracing never renders arguments or results here, since rendering a whole batch response costs more than
+// writing it
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.tracing.sample-rate=0",
+        "app.tracing.slow-threshold-ms=600000"
+})
+@ActiveProfiles("benchmark")
+class InsertBatchingBenchmark {
+    
+    private static final int TRANSFERS = 5_000;
+    private static final int ACCOUNTS = 100;
+    private static final int BATCH_RUNS = 5;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private BatchTransactionService batchTransactionService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void transactionInsertsPerSecond() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        Customer customer = fixtures.seedCustomer();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        
+        List<Account> singleAccounts = fixtures.seedAccounts(customer, ACCOUNTS, OPENING_BALANCE);
+        statistics.clear();
+        BenchmarkFixtures.Result single = BenchmarkFixtures.run("fundTransfer", 1, TRANSFERS,
+                i -> () -> transactionService.fundTransfer(customer.getId(), FundTransferRequest.builder()
+                        .fromAccountNumber(singleAccounts.get(i % ACCOUNTS).getAccountNumber())
+                        .toAccountNumber(singleAccounts.get((i + 1) % ACCOUNTS).getAccountNumber())
+                        .amount(BigDecimal.ONE)
+                        .build()));
+        report(single, statistics);
+        
+        List<Account> batchAccounts = fixtures.seedAccounts(customer, ACCOUNTS, OPENING_BALANCE);
+        List<BatchItemRequest> items = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            items.add(BatchItemRequest.builder()
+                    .type(BatchItemRequest.ItemType.TRANSFER)
+                    .fromAccountNumber(batchAccounts.get(i % ACCOUNTS).getAccountNumber())
+                    .toAccountNumber(batchAccounts.get((i + 1) % ACCOUNTS).getAccountNumber())
+                    .amount(BigDecimal.ONE)
+                    .build());
+        }
+        BatchTransactionRequest request = new BatchTransactionRequest(items);
+        // The transfers go round the accounts, so the same batch can be posted again; the first run is a warm-up
+        batchTransactionService.processBatch(customer.getId(), request);
+        statistics.clear();
+        BenchmarkFixtures.Result batch = BenchmarkFixtures.run("processBatch", 1, BATCH_RUNS,
+                i -> () -> batchTransactionService.processBatch(customer.getId(), request));
+        report(new BenchmarkFixtures.Result(batch.label(), TRANSFERS * batch.operations(), TRANSFERS * batch.failures(),
+                batch.elapsedNanos()), statistics);
+    }
+    
+    // Each transfer writes two transaction rows
+    private void report(BenchmarkFixtures.Result result, Statistics statistics) {
+        System.out.printf("%-40s %10.1f inserts/sec, %d statements prepared, %d JPA inserts%n", "",
+                result.opsPerSecond() * 2, statistics.getPrepareStatementCount(), statistics.getEntityInsertCount());
+    }
+}
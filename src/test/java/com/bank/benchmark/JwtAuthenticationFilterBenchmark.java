@@ -0,0 +1,190 @@
+package com.bank.benchmark;
+
+import com.bank.repository.RevokedTokenRepository;
+import com.bank.security.CustomUserDetailsService;
+import com.bank.security.JwtAuthenticationFilter;
+import com.bank.security.JwtTokenProvider;
+import com.bank.security.PrincipalCache;
+import com.bank.security.TokenRevocationList;
+import com.bank.security.UserPrincipal;
+import com.zaxxer.hikari.HikariDataSource;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The JWT filter on an authenticated request with the customer lookup stubbed out, so only token handling
+// is measured: the filter before this change, which built the key and a parser and parsed the token twice,
+// against the single parse with and without the verified-token cache. The revocation check runs against
+// REVOKED revoked sessions in an in-memory H2 table, through the Bloom filter or with a query per request.
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@Threads(4)
+public class JwtAuthenticationFilterBenchmark {
+    
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+    private static final int CUSTOMERS = 256;
+    private static final int REVOKED = 100_000;
+    private static final FilterChain CHAIN = (request, response) -> { };
+    
+    private final String[] tokens = new String[CUSTOMERS];
+    private final CustomUserDetailsService userDetailsService = new CustomUserDetailsService(null) {
+        @Override
+        public UserDetails loadUserById(Long id) {
+            return new UserPrincipal(id, "customer" + id, "password",
+                    List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        }
+    };
+    private HikariDataSource dataSource;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter tableRevocationFilter;
+    
+    @Setup
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:jwt-filter-benchmark;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/common/V7__revoked_tokens.sql"))
+                .execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Object[]> revoked = new ArrayList<>(REVOKED);
+        Timestamp expiresAt = Timestamp.from(Instant.now().plusSeconds(3600));
+        for (int i = 0; i < REVOKED; i++) {
+            revoked.add(new Object[] {UUID.randomUUID().toString(), expiresAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO revoked_tokens (id, expires_at) VALUES (?, ?)", revoked);
+        RevokedTokenRepository repository = new RevokedTokenRepository(jdbcTemplate);
+        TokenRevocationList bloomFilter = revocationList(repository, 2 * REVOKED);
+        TokenRevocationList table = revocationList(repository, 0);
+        
+        JwtTokenProvider uncached = provider(0);
+        JwtTokenProvider cached = provider(10_000);
+        // No principal cache: every request goes to the stubbed lookup
+        PrincipalCache principalCache = new PrincipalCache(userDetailsService);
+        principalCache.init();
+        uncachedFilter = new JwtAuthenticationFilter(uncached, principalCache, bloomFilter);
+        cachedFilter = new JwtAuthenticationFilter(cached, principalCache, bloomFilter);
+        tableRevocationFilter = new JwtAuthenticationFilter(cached, principalCache, table);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            UserPrincipal principal = new UserPrincipal((long) i, "customer" + i, "password", List.of());
+            tokens[i] = cached.generateToken(principal, cached.newSessionId());
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+    
+    // validateToken followed by getUserIdFromJWT, each with a fresh key and parser, as the filter did before
+    @Benchmark
+    public Object legacyFilter() {
+        MockHttpServletRequest request = request();
+        String jwt = request.getHeader("Authorization").substring(7);
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parseSignedClaims(jwt);
+        Claims claims = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(jwt).getPayload();
+        UserDetails userDetails = userDetailsService.loadUserById(Long.parseLong(claims.getSubject()));
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return authenticated();
+    }
+    
+    @Benchmark
+    public Object singleParse() throws Exception {
+        uncachedFilter.doFilter(request(), new MockHttpServletResponse(), CHAIN);
+        return authenticated();
+    }
+    
+    @Benchmark
+    public Object verifiedTokenCache() throws Exception {
+        cachedFilter.doFilter(request(), new MockHttpServletResponse(), CHAIN);
+        return authenticated();
+    }
+    
+    @Benchmark
+    public Object revocationQueryPerRequest() throws Exception {
+        tableRevocationFilter.doFilter(request(), new MockHttpServletResponse(), CHAIN);
+        return authenticated();
+    }
+    
+    @Test
+    void runJmh() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getName())
+                .build()).run();
+    }
+    
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts");
+        request.addHeader("Authorization", "Bearer " + tokens[ThreadLocalRandom.current().nextInt(CUSTOMERS)]);
+        return request;
+    }
+    
+    private static Object authenticated() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+    
+    private static TokenRevocationList revocationList(RevokedTokenRepository repository, long expectedEntries) {
+        TokenRevocationList revocationList = new TokenRevocationList(repository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", expectedEntries);
+        ReflectionTestUtils.setField(revocationList, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(revocationList, "refreshIntervalMs", 0L);
+        revocationList.start();
+        return revocationList;
+    }
+    
+    private static JwtTokenProvider provider(long verifiedCacheMaxEntries) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxEntries", verifiedCacheMaxEntries);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,113 @@
+package com.bank.benchmark;
+
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.ledger.AccountLockManager;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.JournalApplier;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.BalanceCheckpointRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.TransactionRepository;
+import com.bank.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class LedgerJournalBenchmark {
+    
+    private static final int THREADS = 64;
+    private static final int OPERATIONS = 20_000;
+    private static final int ACCOUNTS = 200;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    
+    @TempDir
+    Path directory;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private LedgerEngine ledgerEngine;
+    
+    @Autowired
+    private AccountLockManager accountLockManager;
+    
+    @Autowired
+    private JournalApplier journalApplier;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    
+    @Test
+    void acknowledgedTransfersPerSecond() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        Customer customer = fixtures.seedCustomer();
+        
+        for (boolean journaled : new boolean[] {false, true}) {
+            LedgerJournal journal = ledgerJournal(journaled);
+            TransactionService service = new TransactionService(
+                    transactionRepository, accountRepository, ledgerEngine, accountLockManager, journal,
+                    customerSummaryRecorder, balanceCheckpointRepository, transactionManager);
+            List<Account> accounts = fixtures.seedAccounts(customer, ACCOUNTS, OPENING_BALANCE);
+            
+            long start = System.nanoTime();
+            BenchmarkFixtures.run("transfers / " + (journaled ? "journal" : "commit per posting"), THREADS, OPERATIONS,
+                    i -> () -> service.fundTransfer(customer.getId(), FundTransferRequest.builder()
+                            .fromAccountNumber(accounts.get(i % ACCOUNTS).getAccountNumber())
+                            .toAccountNumber(accounts.get((i * 7 + 1) % ACCOUNTS).getAccountNumber())
+                            .amount(BigDecimal.ONE)
+                            .build()));
+            journal.stop();
+            
+            // Stopping drains the journal, so this is the time until every posting reached the database
+            double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            BigDecimal total = accounts.stream()
+                    .map(account -> accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            System.out.printf("%-40s %10.1f ops/sec applied, money created or destroyed: %s%n", "",
+                    OPERATIONS / elapsedSeconds, total.subtract(OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS))));
+        }
+    }
+    
+    private LedgerJournal ledgerJournal(boolean enabled) throws Exception {
+        LedgerJournal journal = new LedgerJournal(accountRepository, journalApplier);
+        ReflectionTestUtils.setField(journal, "enabled", enabled);
+        ReflectionTestUtils.setField(journal, "path", directory.resolve("ledger.journal").toString());
+        ReflectionTestUtils.setField(journal, "sizeMb", 64);
+        ReflectionTestUtils.setField(journal, "groupSize", 512);
+        ReflectionTestUtils.setField(journal, "queueCapacity", 20_000);
+        ReflectionTestUtils.setField(journal, "enqueueTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(journal, "applyBatchSize", 2000);
+        ReflectionTestUtils.setField(journal, "applyIntervalMs", 20L);
+        journal.start();
+        return journal;
+    }
+}
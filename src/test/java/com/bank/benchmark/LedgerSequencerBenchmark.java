@@ -0,0 +1,114 @@
+package com.bank.benchmark;
+
+import com.bank.dto.request.DepositRequest;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.ledger.AccountLockManager;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.BalanceCheckpointRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.TransactionRepository;
+import com.bank.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class LedgerSequencerBenchmark {
+    
+    private static final int THREADS = 32;
+    private static final int OPERATIONS = 5_000;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private LedgerJournal ledgerJournal;
+    
+    @Autowired
+    private AccountLockManager accountLockManager;
+    
+    @Autowired
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    
+    private BenchmarkFixtures fixtures;
+    private Customer customer;
+    
+    @BeforeEach
+    void setUp() {
+        fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        customer = fixtures.seedCustomer();
+    }
+    
+    @Test
+    void depositsAcrossDistinctAccounts() throws Exception {
+        compare("deposits, 256 accounts", 256);
+    }
+    
+    @Test
+    void depositsOnHotAccount() throws Exception {
+        compare("deposits, 1 hot account", 1);
+    }
+    
+    private void compare(String scenario, int accountCount) throws Exception {
+        for (boolean sequenced : new boolean[] {false, true}) {
+            LedgerEngine engine = ledgerEngine(sequenced);
+            TransactionService service = new TransactionService(
+                    transactionRepository, accountRepository, engine, accountLockManager, ledgerJournal,
+                    customerSummaryRecorder, balanceCheckpointRepository, transactionManager);
+            List<Account> accounts = fixtures.seedAccounts(customer, accountCount, BigDecimal.ZERO);
+            try {
+                BenchmarkFixtures.Result result = BenchmarkFixtures.run(
+                        scenario + (sequenced ? " / sequencer" : " / direct"), THREADS, OPERATIONS,
+                        i -> () -> service.deposit(customer.getId(), DepositRequest.builder()
+                                .accountNumber(accounts.get(i % accountCount).getAccountNumber())
+                                .amount(BigDecimal.ONE)
+                                .build()));
+                
+                long booked = accounts.stream()
+                        .map(account -> accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                        .reduce(BigDecimal.ZERO, BigDecimal::add)
+                        .longValue();
+                System.out.printf("%-40s %8d lost updates%n", "", result.operations() - result.failures() - booked);
+            } finally {
+                engine.stop();
+            }
+        }
+    }
+    
+    private LedgerEngine ledgerEngine(boolean sequenced) {
+        LedgerEngine engine = new LedgerEngine(transactionManager);
+        ReflectionTestUtils.setField(engine, "enabled", sequenced);
+        ReflectionTestUtils.setField(engine, "shardCount", 0);
+        ReflectionTestUtils.setField(engine, "batchSize", 32);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 10_000);
+        ReflectionTestUtils.setField(engine, "enqueueTimeoutMs", 1000L);
+        engine.start();
+        return engine;
+    }
+}
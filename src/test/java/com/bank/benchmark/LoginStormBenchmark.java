@@ -0,0 +1,145 @@
+package com.bank.benchmark;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.security.BoundedPasswordEncoder;
+import com.bank.security.JwtTokenProvider;
+import com.bank.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Account reads while LOGIN_THREADS request threads keep logging in. With hashing as unbounded as it was on the
+// request threads, the storm competes with the reads for every core; with the bounded executor only the hashing
+// threads do, and logins beyond the queue are answered with 429 straight away.
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("benchmark")
+class LoginStormBenchmark {
+    
+    private static final int LOGIN_THREADS = 16;
+    private static final int READ_THREADS = 4;
+    private static final int READS = 1_000;
+    private static final int CUSTOMERS = 20;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+    
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+    
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+    
+    @AfterEach
+    void cleanUp() {
+        ReflectionTestUtils.setField(passwordEncoder, "threadCount", 0);
+        ReflectionTestUtils.setField(passwordEncoder, "queueCapacity", 64);
+        passwordEncoder.init();
+        accountRepository.deleteAll(accounts);
+        customerRepository.deleteAll(customers);
+    }
+    
+    @Test
+    void readsDuringLoginStorm() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        String hash = new BCryptPasswordEncoder().encode("password");
+        List<String> tokens = new ArrayList<>();
+        for (int c = 0; c < CUSTOMERS; c++) {
+            Customer customer = fixtures.seedCustomer();
+            customer.setPassword(hash);
+            customers.add(customerRepository.save(customer));
+            accounts.addAll(fixtures.seedAccounts(customer, 1, BigDecimal.TEN));
+            UserPrincipal principal = UserPrincipal.create(customer);
+            tokens.add(tokenProvider.generateToken(principal, tokenProvider.newSessionId()));
+        }
+        
+        storm("warm-up", 0, tokens);
+        storm("reads, no logins", 0, tokens);
+        
+        // As many hashing threads and queue slots as login threads: every login is hashed at once, as before
+        ReflectionTestUtils.setField(passwordEncoder, "threadCount", LOGIN_THREADS);
+        ReflectionTestUtils.setField(passwordEncoder, "queueCapacity", LOGIN_THREADS);
+        passwordEncoder.init();
+        storm("reads, unbounded hashing", LOGIN_THREADS, tokens);
+        
+        ReflectionTestUtils.setField(passwordEncoder, "threadCount", 1);
+        ReflectionTestUtils.setField(passwordEncoder, "queueCapacity", 4);
+        passwordEncoder.init();
+        storm("reads, bounded hashing", LOGIN_THREADS, tokens);
+    }
+    
+    private void storm(String label, int loginThreads, List<String> tokens) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger logins = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService storm = loginThreads > 0 ? Executors.newFixedThreadPool(loginThreads) : null;
+        for (int t = 0; t < loginThreads; t++) {
+            int thread = t;
+            storm.submit(() -> {
+                for (int i = thread; running.get(); i++) {
+                    String body = "{\"username\":\"" + customers.get(i % CUSTOMERS).getUsername()
+                            + "\",\"password\":\"password\"}";
+                    int code = mockMvc.perform(post("/api/auth/login")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                    (code == 429 ? rejected : logins).incrementAndGet();
+                }
+                return null;
+            });
+        }
+        
+        long start = System.nanoTime();
+        BenchmarkFixtures.Result result;
+        try {
+            result = BenchmarkFixtures.run(label, READ_THREADS, READS, i -> () ->
+                    mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + tokens.get(i % CUSTOMERS)))
+                            .andExpect(status().isOk()));
+        } finally {
+            running.set(false);
+            if (storm != null) {
+                storm.shutdown();
+                storm.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-40s %8.1f logins/sec  %8.1f rejected/sec%n", label,
+                logins.get() / seconds, rejected.get() / seconds);
+        assertEquals(0, result.failures());
+    }
+}
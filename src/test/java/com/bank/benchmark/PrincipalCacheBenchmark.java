@@ -0,0 +1,129 @@
+package com.bank.benchmark;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.security.JwtTokenProvider;
+import com.bank.security.PrincipalCache;
+import com.bank.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GET /api/accounts through the full filter chain with bearer tokens for CUSTOMERS customers, counting the
+// pooled connections and statements each request takes: with the customer loaded on every request, from the
+// database or the entity cache, with the principal cache, and with the principal embedded in the token. The
+// endpoint's own read is one connection and one statement.
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("benchmark")
+class PrincipalCacheBenchmark {
+    
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 20_000;
+    private static final int CUSTOMERS = 50;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+    
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+    
+    @AfterEach
+    void cleanUp() {
+        ReflectionTestUtils.setField(tokenProvider, "embedPrincipal", false);
+        ReflectionTestUtils.setField(principalCache, "maxEntries", 10_000L);
+        principalCache.init();
+        accountRepository.deleteAll(accounts);
+        customerRepository.deleteAll(customers);
+    }
+    
+    @Test
+    void databaseWorkPerRequest() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        for (int c = 0; c < CUSTOMERS; c++) {
+            Customer customer = fixtures.seedCustomer();
+            customers.add(customer);
+            accounts.addAll(fixtures.seedAccounts(customer, 1, BigDecimal.TEN));
+        }
+        
+        ReflectionTestUtils.setField(principalCache, "maxEntries", 0L);
+        principalCache.init();
+        requests("warm-up", true);
+        requests("customer query per request", true);
+        requests("customer from entity cache", false);
+        
+        ReflectionTestUtils.setField(principalCache, "maxEntries", 10_000L);
+        principalCache.init();
+        requests("principal cache", false);
+        
+        ReflectionTestUtils.setField(tokenProvider, "embedPrincipal", true);
+        requests("principal in token", false);
+    }
+    
+    // Evicting the customers from the second-level cache before each request gives the lookup as it was before
+    private void requests(String label, boolean evictCustomers) throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (Customer customer : customers) {
+            UserPrincipal principal = UserPrincipal.create(customer);
+            tokens.add(tokenProvider.generateToken(principal, tokenProvider.newSessionId()));
+        }
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long connectionsBefore = connections();
+        BenchmarkFixtures.Result result = BenchmarkFixtures.run(label, THREADS, OPERATIONS, i -> () -> {
+            if (evictCustomers) {
+                entityManagerFactory.getCache().evict(Customer.class, customers.get(i % CUSTOMERS).getId());
+            }
+            return mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + tokens.get(i % CUSTOMERS)))
+                    .andExpect(status().isOk());
+        });
+        System.out.printf("%-40s %6.2f connections/request  %6.2f statements/request%n", label,
+                (double) (connections() - connectionsBefore) / OPERATIONS,
+                (double) statistics.getPrepareStatementCount() / OPERATIONS);
+        assertEquals(0, result.failures());
+    }
+    
+    private long connections() {
+        return meterRegistry.get("hikaricp.connections.acquire").timer().count();
+    }
+}
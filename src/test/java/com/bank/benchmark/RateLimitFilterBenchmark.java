@@ -0,0 +1,138 @@
+package com.bank.benchmark;
+
+import com.bank.security.RateLimitFilter;
+import com.bank.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The rate limit filter on reads by a few customers at once, with budgets large enough that every request is
+// allowed, so only the bookkeeping is measured: the lock-free buckets against the same token buckets guarded by
+// a lock each, and against no limit at all.
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimitFilterBenchmark {
+    
+    private static final int CUSTOMERS = 4;
+    private static final FilterChain CHAIN = (request, response) -> { };
+    
+    private final UsernamePasswordAuthenticationToken[] authentications =
+            new UsernamePasswordAuthenticationToken[CUSTOMERS];
+    private final Map<String, LockedBucket> lockedBuckets = new ConcurrentHashMap<>();
+    private RateLimitFilter filter;
+    
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < CUSTOMERS; i++) {
+            UserPrincipal principal = new UserPrincipal((long) i, "customer" + i, "password",
+                    List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+            authentications[i] = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        }
+        filter = new RateLimitFilter(new SimpleMeterRegistry(), new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxKeys", 100_000L);
+        for (String budget : List.of("read", "write", "auth")) {
+            ReflectionTestUtils.setField(filter, budget + "Capacity", 100_000_000L);
+            ReflectionTestUtils.setField(filter, budget + "PerSecond", 1e8);
+        }
+        filter.init();
+    }
+    
+    @Benchmark
+    public Object noLimit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticate();
+        CHAIN.doFilter(request(), response);
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+    
+    @Benchmark
+    public Object lockedBuckets() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticate();
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        MockHttpServletRequest request = request();
+        if (lockedBuckets.computeIfAbsent("customer:" + principal.getId(), k -> new LockedBucket()).tryAcquire()) {
+            CHAIN.doFilter(request, response);
+        }
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+    
+    @Benchmark
+    public Object lockFreeBuckets() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticate();
+        filter.doFilter(request(), response, CHAIN);
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+    
+    @Test
+    void runJmh() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitFilterBenchmark.class.getName())
+                .build()).run();
+    }
+    
+    private void authenticate() {
+        SecurityContextHolder.getContext()
+                .setAuthentication(authentications[ThreadLocalRandom.current().nextInt(CUSTOMERS)]);
+    }
+    
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/accounts");
+    }
+    
+    // A conventional token bucket: refilled by elapsed time and decremented under its monitor
+    private static final class LockedBucket {
+        
+        private double tokens = 1e9;
+        private long refilledAt = System.nanoTime();
+        
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(1e18, tokens + (now - refilledAt));
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
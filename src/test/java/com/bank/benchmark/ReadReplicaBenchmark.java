@@ -0,0 +1,152 @@
+package com.bank.benchmark;
+
+import com.bank.dto.request.DepositRequest;
+import com.bank.service.TransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A read-heavy mix of statement pages and deposits against the benchmark database as primary and a second
+// in-memory database as its replica. The same rows are seeded into both, and a copier stands in for replication
+// of the heartbeat; stopping it makes the replica fall behind so that reads fall back to the primary. Both
+// databases share this JVM's CPUs, so the figure to compare is the primary's connection count; throughput only
+// improves once the replica runs on its own hardware.
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "app.datasource.replicas.urls=" + ReadReplicaBenchmark.REPLICA_URL,
+        "app.datasource.replicas.username=sa",
+        "app.datasource.replicas.password=",
+        "app.datasource.replicas.max-lag-ms=1000",
+        "app.datasource.replicas.check-interval-ms=200"
+})
+@ActiveProfiles("benchmark")
+class ReadReplicaBenchmark {
+    
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1";
+    
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 20_000;
+    // One operation in WRITE_EVERY is a deposit, the rest are statement pages
+    private static final int WRITE_EVERY = 10;
+    private static final int ACCOUNTS = 50;
+    private static final int POSTINGS_PER_ACCOUNT = 200;
+    private static final long FIRST_ID = 1_700_000_000L;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    
+    @AfterEach
+    void cleanUp() {
+        for (JdbcTemplate database : List.of(jdbcTemplate, replica)) {
+            database.update("DELETE FROM transactions WHERE account_id >= ?", FIRST_ID);
+            database.update("DELETE FROM customer_summaries WHERE customer_id >= ?", FIRST_ID);
+            database.update("DELETE FROM accounts WHERE id >= ?", FIRST_ID);
+            database.update("DELETE FROM customers WHERE id >= ?", FIRST_ID);
+        }
+    }
+    
+    @Test
+    void primaryLoadUnderReadHeavyMix() throws Exception {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/common").load().migrate();
+        seed(jdbcTemplate);
+        seed(replica);
+        jdbcTemplate.execute("ANALYZE");
+        replica.execute("ANALYZE");
+        
+        ScheduledExecutorService replication = Executors.newSingleThreadScheduledExecutor();
+        replication.scheduleWithFixedDelay(this::copyHeartbeat, 0, 50, TimeUnit.MILLISECONDS);
+        try {
+            Thread.sleep(1000);
+            mix("warm-up", OPERATIONS);
+            mix("replica in sync", OPERATIONS);
+        } finally {
+            replication.shutdownNow();
+        }
+        
+        Thread.sleep(2000);
+        mix("replica behind (fallback)", OPERATIONS);
+    }
+    
+    private void mix(String label, int operations) throws Exception {
+        double primaryBefore = connections("primary");
+        double replicaBefore = connections("replica-0");
+        BenchmarkFixtures.Result result = BenchmarkFixtures.run(label, THREADS, operations, i -> () -> {
+            long accountId = FIRST_ID + 1 + i % ACCOUNTS;
+            if (i % WRITE_EVERY == 0) {
+                return transactionService.deposit(FIRST_ID, DepositRequest.builder()
+                        .accountNumber("RPL" + accountId).amount(BigDecimal.ONE).build());
+            }
+            return transactionService.getAccountStatement(FIRST_ID, "RPL" + accountId, i % 5, 20);
+        });
+        double primary = connections("primary") - primaryBefore;
+        double replicaReads = connections("replica-0") - replicaBefore;
+        System.out.printf("%-40s primary connections %8.0f  replica connections %8.0f%n", label, primary, replicaReads);
+        assertEquals(0, result.failures());
+    }
+    
+    private void copyHeartbeat() {
+        List<Long> heartbeat = jdbcTemplate.queryForList(
+                "SELECT applied_sequence FROM ledger_checkpoints WHERE name = 'replica-heartbeat'", Long.class);
+        if (!heartbeat.isEmpty()) {
+            replica.update("MERGE INTO ledger_checkpoints (name, applied_sequence) KEY (name) " +
+                    "VALUES ('replica-heartbeat', ?)", heartbeat.get(0));
+        }
+    }
+    
+    private double connections(String target) {
+        return meterRegistry.find("datasource.connections").tag("target", target).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+    
+    private void seed(JdbcTemplate database) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        database.update("INSERT INTO customers (id, first_name, last_name, email, username, password, phone, " +
+                "address, status, created_at) VALUES (?, 'Bench', 'Replica', 'replica@example.com', 'replica', " +
+                "'{noop}password', '1234567890', '1 Benchmark Street', 'ACTIVE', ?)", FIRST_ID, now);
+        
+        List<Object[]> accounts = new ArrayList<>();
+        List<Object[]> postings = new ArrayList<>();
+        long nextPosting = FIRST_ID;
+        for (int a = 1; a <= ACCOUNTS; a++) {
+            long accountId = FIRST_ID + a;
+            accounts.add(new Object[] {accountId, "RPL" + accountId, FIRST_ID, now});
+            for (int p = 0; p < POSTINGS_PER_ACCOUNT; p++) {
+                long id = nextPosting++;
+                postings.add(new Object[] {id, "RPLTX" + id, accountId,
+                        Timestamp.valueOf(LocalDateTime.now().minusMinutes(POSTINGS_PER_ACCOUNT - p))});
+            }
+        }
+        database.batchUpdate("INSERT INTO accounts (id, account_number, account_name, account_type, balance, " +
+                "status, customer_id, created_at) VALUES (?, ?, 'Replica', 'SAVINGS', 200, 'ACTIVE', ?, ?)", accounts);
+        database.batchUpdate("INSERT INTO transactions (id, transaction_id, type, amount, description, status, " +
+                "account_id, created_at) VALUES (?, ?, 'DEPOSIT', 1, 'Seed', 'SUCCESS', ?, ?)", postings);
+    }
+}
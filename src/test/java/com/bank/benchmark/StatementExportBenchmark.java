@@ -0,0 +1,135 @@
+package com.bank.benchmark;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.service.StatementExportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Exports accounts of very different sizes and reports throughput and the largest heap still in use after
+// a GC while the export runs. A streaming export keeps that flat as the account grows.
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class StatementExportBenchmark {
+    
+    private static final int[] SIZES = {1_000, 50_000, 500_000};
+    // Above anything the pooled sequence hands out during the run
+    private static final long FIRST_ID = 1_500_000_000L;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private StatementExportService statementExportService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void exportMemoryBySize() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        Customer customer = fixtures.seedCustomer();
+        List<Account> accounts = fixtures.seedAccounts(customer, SIZES.length, BigDecimal.ZERO);
+        long nextId = FIRST_ID;
+        for (int i = 0; i < SIZES.length; i++) {
+            seedPostings(accounts.get(i), nextId, SIZES[i]);
+            nextId += SIZES[i];
+        }
+        
+        for (StatementExportService.Format format : StatementExportService.Format.values()) {
+            for (boolean gzip : new boolean[] {false, true}) {
+                for (int i = 0; i < SIZES.length; i++) {
+                    export(accounts.get(i), SIZES[i], format, gzip);
+                }
+            }
+        }
+    }
+    
+    private void export(Account account, int rows, StatementExportService.Format format, boolean gzip)
+            throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                System.gc();
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+        
+        CountingOutputStream counter = new CountingOutputStream();
+        sampler.start();
+        long start = System.nanoTime();
+        if (gzip) {
+            GZIPOutputStream compressed = new GZIPOutputStream(counter, 8192);
+            statementExportService.export(account.getId(), account.getAccountNumber(), null, null, format, compressed);
+            compressed.finish();
+        } else {
+            statementExportService.export(account.getId(), account.getAccountNumber(), null, null, format, counter);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        sampler.interrupt();
+        sampler.join();
+        
+        System.out.printf("%-28s %8d rows %10.0f rows/sec %8.1f MB out %8.1f MB retained heap peak%n",
+                format + (gzip ? " gzip" : ""), rows, rows * 1_000_000_000.0 / elapsedNanos,
+                counter.bytes / 1_048_576.0, (peak.get() - baseline) / 1_048_576.0);
+    }
+    
+    private void seedPostings(Account account, long firstId, int count) {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            rows.add(new Object[] {id, "SEED" + id, BigDecimal.ONE, account.getId(),
+                    Timestamp.valueOf(start.plusSeconds(i))});
+            if (rows.size() == 5000 || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (id, transaction_id, type, amount, status, " +
+                        "account_id, created_at) VALUES (?, ?, 'DEPOSIT', ?, 'SUCCESS', ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+    
+    // Stands in for the response: counts the bytes and drops them
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+        
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
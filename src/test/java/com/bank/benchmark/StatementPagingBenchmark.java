@@ -0,0 +1,95 @@
+package com.bank.benchmark;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.service.TransactionService;
+import com.bank.util.TransactionCursor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class StatementPagingBenchmark {
+    
+    private static final int ROWS = 200_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 1000;
+    private static final int REPETITIONS = 20;
+    // Above anything the pooled sequence hands out during the run
+    private static final long FIRST_ID = 1_000_000_000L;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void pageLatencyByDepth() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        Customer customer = fixtures.seedCustomer();
+        Account account = fixtures.seedAccounts(customer, 1, BigDecimal.ZERO).get(0);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        seedPostings(account, start);
+        
+        // The last row of the page before the deep page, newest first
+        long previous = ROWS - (long) DEEP_PAGE * PAGE_SIZE;
+        String deepCursor = new TransactionCursor(start.plusSeconds(previous), FIRST_ID + previous).encode();
+        
+        String accountNumber = account.getAccountNumber();
+        Long customerId = customer.getId();
+        time("offset / page 1", () -> transactionService.getAccountStatement(
+                customerId, accountNumber, 0, PAGE_SIZE));
+        time("offset / page " + (DEEP_PAGE + 1), () -> transactionService.getAccountStatement(
+                customerId, accountNumber, DEEP_PAGE, PAGE_SIZE));
+        time("cursor / page 1", () -> transactionService.getAccountStatement(
+                customerId, accountNumber, "", PAGE_SIZE));
+        time("cursor / page " + (DEEP_PAGE + 1), () -> transactionService.getAccountStatement(
+                customerId, accountNumber, deepCursor, PAGE_SIZE));
+    }
+    
+    private void seedPostings(Account account, LocalDateTime start) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[] {FIRST_ID + i, "SEED" + (FIRST_ID + i), BigDecimal.ONE,
+                    account.getId(), Timestamp.valueOf(start.plusSeconds(i))});
+            if (rows.size() == 5000 || i == ROWS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (id, transaction_id, type, amount, status, " +
+                        "account_id, created_at) VALUES (?, ?, 'DEPOSIT', ?, 'SUCCESS', ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+    
+    private void time(String label, Supplier<?> page) {
+        for (int i = 0; i < REPETITIONS; i++) {
+            page.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            page.get();
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / REPETITIONS;
+        System.out.printf("%-40s %10.2f ms/page%n", label, millis);
+    }
+}
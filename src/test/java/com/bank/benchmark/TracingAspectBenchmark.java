@@ -0,0 +1,181 @@
+package com.bank.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.bank.aspect.TracingAspect;
+import com.bank.dto.response.PagedResponse;
+import com.bank.dto.response.TransactionResponse;
+import com.bank.entity.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// A service call returning a page of PAGE_SIZE transactions, made directly, through the tracing aspect, and
+// through the logging aspect it replaced, which logged the arguments and the whole page on the way in and out.
+// Log output is formatted with the application's pattern and discarded, so only the aspects' own work and the
+// formatting are measured, not the console.
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@Threads(4)
+public class TracingAspectBenchmark {
+    
+    private static final int PAGE_SIZE = 20;
+    
+    private StatementService direct;
+    private StatementService traced;
+    private StatementService logged;
+    
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.setLevel(Level.INFO);
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} - %msg%n");
+        encoder.start();
+        OutputStreamAppender<ch.qos.logback.classic.spi.ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        root.addAppender(appender);
+        
+        direct = new StatementService();
+        
+        TracingAspect tracingAspect = new TracingAspect(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tracingAspect, "sampleRate", 0.001);
+        ReflectionTestUtils.setField(tracingAspect, "slowThresholdMs", 500L);
+        ReflectionTestUtils.setField(tracingAspect, "maxDetailLength", 2000);
+        ReflectionTestUtils.setField(tracingAspect, "redactedFields",
+                new String[] {"password", "token", "refreshToken", "secret", "authorization"});
+        tracingAspect.init();
+        traced = proxy(tracingAspect);
+        logged = proxy(new LegacyLoggingAspect());
+    }
+    
+    @Benchmark
+    public Object noAspect() {
+        return direct.getStatement(ThreadLocalRandom.current().nextLong(1_000), 0);
+    }
+    
+    @Benchmark
+    public Object tracingAspect() {
+        return traced.getStatement(ThreadLocalRandom.current().nextLong(1_000), 0);
+    }
+    
+    @Benchmark
+    public Object legacyLoggingAspect() {
+        return logged.getStatement(ThreadLocalRandom.current().nextLong(1_000), 0);
+    }
+    
+    @Test
+    void runJmh() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TracingAspectBenchmark.class.getName())
+                .build()).run();
+    }
+    
+    private StatementService proxy(Object aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new StatementService());
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+    
+    @Service
+    public static class StatementService {
+        
+        private final PagedResponse<TransactionResponse> page;
+        
+        public StatementService() {
+            List<TransactionResponse> content = new ArrayList<>();
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                content.add(TransactionResponse.builder()
+                        .id((long) i)
+                        .transactionId("TXN" + i)
+                        .type(Transaction.TransactionType.DEPOSIT)
+                        .amount(BigDecimal.TEN)
+                        .balanceBefore(BigDecimal.valueOf(i * 10L))
+                        .balanceAfter(BigDecimal.valueOf(i * 10L + 10))
+                        .description("Deposit " + i)
+                        .status(Transaction.TransactionStatus.SUCCESS)
+                        .accountNumber("ACC0000000001")
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            }
+            page = PagedResponse.<TransactionResponse>builder()
+                    .content(content)
+                    .pageSize(PAGE_SIZE)
+                    .totalElements(PAGE_SIZE)
+                    .totalPages(1)
+                    .first(true)
+                    .last(true)
+                    .build();
+        }
+        
+        public PagedResponse<TransactionResponse> getStatement(Long accountId, int pageNumber) {
+            return page;
+        }
+    }
+    
+    // The service advice of the LoggingAspect this replaced
+    @Aspect
+    public static class LegacyLoggingAspect {
+        
+        private final Logger logger = LoggerFactory.getLogger(this.getClass());
+        
+        @Around("within(@org.springframework.stereotype.Service *)")
+        public Object logAroundService(ProceedingJoinPoint joinPoint) throws Throwable {
+            long startTime = System.currentTimeMillis();
+            logger.info("Entering Service: {}.{}() with arguments = {}",
+                    joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(),
+                    Arrays.toString(joinPoint.getArgs()));
+            Object result = joinPoint.proceed();
+            logger.info("Exiting Service: {}.{}() with result = {} | Execution time: {} ms",
+                    joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(),
+                    result,
+                    System.currentTimeMillis() - startTime);
+            return result;
+        }
+    }
+}
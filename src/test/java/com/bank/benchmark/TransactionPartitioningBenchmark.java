@@ -0,0 +1,135 @@
+package com.bank.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Compares a one-month history read and batched inserts on a plain and a monthly partitioned copy of the
+// transactions table. PostgreSQL only; run with -Dspring.datasource.* pointing at a PostgreSQL database.
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class TransactionPartitioningBenchmark {
+    
+    private static final String PLAIN = "bench_transactions_plain";
+    private static final String MONTHLY = "bench_transactions_monthly";
+    private static final LocalDate FIRST_MONTH = LocalDate.of(2023, 1, 1);
+    private static final int MONTHS = 24;
+    private static final int ROWS_PER_MONTH = 100_000;
+    private static final int ACCOUNTS = 1000;
+    private static final int REPETITIONS = 500;
+    private static final int INSERT_BATCHES = 200;
+    private static final int INSERT_BATCH_SIZE = 500;
+    
+    // The history query of TransactionRepository.findPostingsBefore
+    private static final String HISTORY = "SELECT * FROM %s WHERE account_id = ? AND created_at >= ? " +
+            "AND created_at <= ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT 21";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void historyAndInsertsByLayout() throws Exception {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        assumeTrue("PostgreSQL".equals(product), "Partitioning is PostgreSQL only");
+        
+        createTables();
+        for (String table : List.of(PLAIN, MONTHLY)) {
+            seed(table);
+        }
+        
+        for (String table : List.of(PLAIN, MONTHLY)) {
+            history(table);
+        }
+        for (String table : List.of(PLAIN, MONTHLY)) {
+            long[] nextId = {2_000_000_000L};
+            BenchmarkFixtures.run("insert batches / " + table, 4, INSERT_BATCHES, i -> () -> {
+                List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+                LocalDateTime now = FIRST_MONTH.plusMonths(MONTHS - 1).atStartOfDay().plusSeconds(i);
+                for (int r = 0; r < INSERT_BATCH_SIZE; r++) {
+                    long id;
+                    synchronized (nextId) {
+                        id = nextId[0]++;
+                    }
+                    rows.add(new Object[] {id, "INS" + id, ThreadLocalRandom.current().nextLong(ACCOUNTS),
+                            Timestamp.valueOf(now)});
+                }
+                return jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, transaction_id, type, amount, " +
+                        "status, account_id, created_at) VALUES (?, ?, 'DEPOSIT', 1, 'SUCCESS', ?, ?)", rows);
+            });
+        }
+    }
+    
+    @AfterEach
+    void dropTables() {
+        if ("PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()))) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + PLAIN + ", " + MONTHLY);
+        }
+    }
+    
+    // Same columns and indexes as transactions, without the foreign keys so seeding needs no accounts
+    private void createTables() {
+        dropTables();
+        String columns = "(LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS, PRIMARY KEY (id, created_at))";
+        jdbcTemplate.execute("CREATE TABLE " + PLAIN + " " + columns);
+        jdbcTemplate.execute("CREATE TABLE " + MONTHLY + " " + columns + " PARTITION BY RANGE (created_at)");
+        for (int m = 0; m < MONTHS; m++) {
+            LocalDate month = FIRST_MONTH.plusMonths(m);
+            jdbcTemplate.execute(String.format("CREATE TABLE %s_%d PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    MONTHLY, m, MONTHLY, month, month.plusMonths(1)));
+        }
+        for (String table : List.of(PLAIN, MONTHLY)) {
+            jdbcTemplate.execute("CREATE INDEX ON " + table + " (account_id, created_at, id)");
+        }
+    }
+    
+    private void seed(String table) {
+        long start = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO " + table + " (id, transaction_id, type, amount, status, account_id, " +
+                "created_at) SELECT g, 'SEED' || g, 'DEPOSIT', 1, 'SUCCESS', g % ?, " +
+                "?::timestamp + (g * (? / ?::float8)) * INTERVAL '1 second' FROM generate_series(0, ? - 1) g",
+                ACCOUNTS, Timestamp.valueOf(FIRST_MONTH.atStartOfDay()),
+                (double) MONTHS * 30 * 24 * 3600, (long) MONTHS * ROWS_PER_MONTH, (long) MONTHS * ROWS_PER_MONTH);
+        jdbcTemplate.execute("ANALYZE " + table);
+        System.out.printf("%-40s %10.0f ms for %d rows%n", "seed / " + table,
+                (System.nanoTime() - start) / 1_000_000.0, MONTHS * ROWS_PER_MONTH);
+    }
+    
+    // A first page of one account's history for a random month; the statement is prepared, as from Hibernate
+    private void history(String table) {
+        String sql = String.format(HISTORY, table);
+        for (int i = 0; i < REPETITIONS; i++) {
+            queryMonth(sql);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            queryMonth(sql);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / REPETITIONS;
+        System.out.printf("%-40s %10.3f ms/query%n", "history / " + table, millis);
+    }
+    
+    private void queryMonth(String sql) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime from = FIRST_MONTH.plusMonths(random.nextInt(MONTHS)).atStartOfDay();
+        LocalDateTime to = from.plusMonths(1).minusNanos(1000);
+        jdbcTemplate.queryForList(sql, random.nextLong(ACCOUNTS), Timestamp.valueOf(from), Timestamp.valueOf(to),
+                Timestamp.valueOf(to), Long.MAX_VALUE);
+    }
+}
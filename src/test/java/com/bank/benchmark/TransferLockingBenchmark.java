@@ -0,0 +1,108 @@
+package com.bank.benchmark;
+
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.ledger.AccountLockManager;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.BalanceCheckpointRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.TransactionRepository;
+import com.bank.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class TransferLockingBenchmark {
+    
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 2_000;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private LedgerJournal ledgerJournal;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    
+    @Test
+    void oppositeTransfersOnTwoAccounts() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        Customer customer = fixtures.seedCustomer();
+        
+        for (boolean locking : new boolean[] {false, true}) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            AccountLockManager lockManager = accountLockManager(locking, meterRegistry);
+            LedgerEngine engine = new LedgerEngine(transactionManager);
+            engine.start();
+            TransactionService service = new TransactionService(
+                    transactionRepository, accountRepository, engine, lockManager, ledgerJournal,
+                    customerSummaryRecorder, balanceCheckpointRepository, transactionManager);
+            List<Account> accounts = fixtures.seedAccounts(customer, 2, OPENING_BALANCE);
+            
+            BenchmarkFixtures.run("opposite transfers / " + (locking ? "ordered locks" : "no locks"),
+                    THREADS, OPERATIONS, i -> () -> service.fundTransfer(customer.getId(), FundTransferRequest.builder()
+                            .fromAccountNumber(accounts.get(i % 2).getAccountNumber())
+                            .toAccountNumber(accounts.get((i + 1) % 2).getAccountNumber())
+                            .amount(BigDecimal.ONE)
+                            .build()));
+            
+            BigDecimal total = accounts.stream()
+                    .map(account -> accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            System.out.printf("%-40s money created or destroyed: %s%n", "", total.subtract(OPENING_BALANCE.add(OPENING_BALANCE)));
+            System.out.printf("%-40s attempts %.0f, aborts %.0f, retries %.0f, lock wait mean %.2f ms%n", "",
+                    meterRegistry.counter("ledger.lock.attempts", "operation", "transfer").count(),
+                    meterRegistry.counter("ledger.lock.aborts", "operation", "transfer").count(),
+                    meterRegistry.counter("ledger.lock.retries", "operation", "transfer").count(),
+                    meterRegistry.timer("ledger.lock.wait", "operation", "transfer").mean(TimeUnit.MILLISECONDS));
+            engine.stop();
+        }
+    }
+    
+    private AccountLockManager accountLockManager(boolean enabled, SimpleMeterRegistry meterRegistry) {
+        AccountLockManager lockManager = new AccountLockManager(accountRepository, meterRegistry);
+        ReflectionTestUtils.setField(lockManager, "entityManager", entityManager);
+        ReflectionTestUtils.setField(lockManager, "enabled", enabled);
+        ReflectionTestUtils.setField(lockManager, "lockTimeoutMs", 3000L);
+        ReflectionTestUtils.setField(lockManager, "maxRetries", 5);
+        ReflectionTestUtils.setField(lockManager, "backoffBaseMs", 5L);
+        ReflectionTestUtils.setField(lockManager, "backoffMaxMs", 200L);
+        ReflectionTestUtils.setField(lockManager, "databasePlatform", "org.hibernate.dialect.H2Dialect");
+        return lockManager;
+    }
+}
@@ -0,0 +1,121 @@
+package com.bank.benchmark;
+
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.entity.Transaction;
+import com.bank.ledger.AccountLockManager;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.BalanceCheckpointRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.TransactionBatchRepository;
+import com.bank.repository.TransactionRepository;
+import com.bank.service.TransactionService;
+import com.bank.service.TransferSettlementService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class TransferSettlementBenchmark {
+    
+    private static final int THREADS = 64;
+    private static final int OPERATIONS = 20_000;
+    private static final int ACCOUNTS = 8;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionBatchRepository transactionBatchRepository;
+    
+    @Autowired
+    private LedgerEngine ledgerEngine;
+    
+    @Autowired
+    private AccountLockManager accountLockManager;
+    
+    @Autowired
+    private LedgerJournal ledgerJournal;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    
+    @Test
+    void acceptedTransfersPerSecond() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        Customer customer = fixtures.seedCustomer();
+        
+        for (boolean async : new boolean[] {false, true}) {
+            TransactionService service = new TransactionService(
+                    transactionRepository, accountRepository, ledgerEngine, accountLockManager, ledgerJournal,
+                    customerSummaryRecorder, balanceCheckpointRepository, transactionManager);
+            ReflectionTestUtils.setField(service, "asyncTransfers", async);
+            TransferSettlementService settlement = settlementService(async);
+            List<Account> accounts = fixtures.seedAccounts(customer, ACCOUNTS, OPENING_BALANCE);
+            
+            long start = System.nanoTime();
+            BenchmarkFixtures.run("transfers / " + (async ? "accepted as pending" : "settled inline"), THREADS, OPERATIONS,
+                    i -> () -> service.fundTransfer(customer.getId(), FundTransferRequest.builder()
+                            .fromAccountNumber(accounts.get(i % ACCOUNTS).getAccountNumber())
+                            .toAccountNumber(accounts.get((i + 1) % ACCOUNTS).getAccountNumber())
+                            .amount(BigDecimal.ONE)
+                            .build()));
+            while (!transactionRepository.findIdsByStatusInSlot(
+                    Transaction.TransactionStatus.PENDING, 1, 0, PageRequest.of(0, 1)).isEmpty()) {
+                Thread.sleep(10);
+            }
+            settlement.stop();
+            
+            double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            BigDecimal total = accounts.stream()
+                    .map(account -> accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            long failed = transactionRepository.findAll().stream()
+                    .filter(transaction -> transaction.getStatus() == Transaction.TransactionStatus.FAILED)
+                    .count();
+            System.out.printf("%-40s %10.1f ops/sec settled, failed: %d, money created or destroyed: %s%n", "",
+                    OPERATIONS / elapsedSeconds, failed,
+                    total.subtract(OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS))));
+        }
+    }
+    
+    private TransferSettlementService settlementService(boolean enabled) {
+        TransferSettlementService settlement =
+                new TransferSettlementService(
+                transactionRepository, accountRepository, transactionBatchRepository, transactionManager,
+                customerSummaryRecorder);
+        ReflectionTestUtils.setField(settlement, "enabled", enabled);
+        ReflectionTestUtils.setField(settlement, "workers", 2);
+        ReflectionTestUtils.setField(settlement, "batchSize", 200);
+        ReflectionTestUtils.setField(settlement, "pollIntervalMs", 20L);
+        settlement.start();
+        return settlement;
+    }
+}
@@ -0,0 +1,107 @@
+package com.bank.benchmark;
+
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.ledger.AccountLockManager;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.BalanceCheckpointRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.TransactionRepository;
+import com.bank.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class TransferStorageBenchmark {
+    
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 10_000;
+    private static final int ACCOUNTS = 200;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private LedgerEngine ledgerEngine;
+    
+    @Autowired
+    private AccountLockManager accountLockManager;
+    
+    @Autowired
+    private LedgerJournal ledgerJournal;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    
+    @Test
+    void bytesWrittenPerTransfer() throws Exception {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(customerRepository, accountRepository);
+        Customer customer = fixtures.seedCustomer();
+        
+        for (boolean singleRow : new boolean[] {false, true}) {
+            TransactionService service = new TransactionService(
+                    transactionRepository, accountRepository, ledgerEngine, accountLockManager, ledgerJournal,
+                    customerSummaryRecorder, balanceCheckpointRepository, transactionManager);
+            ReflectionTestUtils.setField(service, "singleRowTransfers", singleRow);
+            List<Account> accounts = fixtures.seedAccounts(customer, ACCOUNTS, OPENING_BALANCE);
+            
+            long rowsBefore = transactionRepository.count();
+            long bytesBefore = tableBytes();
+            BenchmarkFixtures.Result result = BenchmarkFixtures.run(
+                    "transfers / " + (singleRow ? "single row" : "two rows"), THREADS, OPERATIONS,
+                    i -> () -> service.fundTransfer(customer.getId(), FundTransferRequest.builder()
+                            .fromAccountNumber(accounts.get(i % ACCOUNTS).getAccountNumber())
+                            .toAccountNumber(accounts.get((i * 7 + 1) % ACCOUNTS).getAccountNumber())
+                            .amount(BigDecimal.ONE)
+                            .description("Benchmark transfer")
+                            .build()));
+            
+            int transfers = result.operations() - result.failures();
+            double rows = (transactionRepository.count() - rowsBefore) / (double) transfers;
+            long bytes = tableBytes();
+            System.out.printf("%-40s %10.2f rows/transfer %10s bytes/transfer (table and indexes)%n", "", rows,
+                    bytes < 0 ? "n/a" : String.format("%.1f", (bytes - bytesBefore) / (double) transfers));
+        }
+    }
+    
+    // Only PostgreSQL reports the on-disk size of a table with its indexes
+    private long tableBytes() {
+        try {
+            return jdbcTemplate.queryForObject("SELECT pg_total_relation_size('transactions')", Long.class);
+        } catch (DataAccessException ex) {
+            return -1;
+        }
+    }
+}
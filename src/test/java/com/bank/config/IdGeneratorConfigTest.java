@@ -0,0 +1,24 @@
+package com.bank.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorConfigTest {
+    
+    @Test
+    void unsetNodeIdFallsBackToZeroOnAnEmbeddedDatabase() {
+        assertEquals(0, IdGeneratorConfig.resolveNodeId(null, false));
+    }
+    
+    @Test
+    void unsetNodeIdFailsStartupOnASharedDatabase() {
+        assertThrows(IllegalStateException.class, () -> IdGeneratorConfig.resolveNodeId(null, true));
+    }
+    
+    @Test
+    void explicitNodeIdIsUsedOnASharedDatabase() {
+        assertEquals(0, IdGeneratorConfig.resolveNodeId(0L, true));
+        assertEquals(7, IdGeneratorConfig.resolveNodeId(7L, true));
+    }
+}
@@ -0,0 +1,122 @@
+package com.bank.config;
+
+import com.bank.dto.request.DepositRequest;
+import com.bank.dto.response.TransactionResponse;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The application's own database configured as its replica, so that read-only transactions are routed to it
+// without any replication to wait for.
+@SpringBootTest(properties = {
+        "app.datasource.replicas.urls=jdbc:h2:mem:benchdb;DB_CLOSE_DELAY=-1",
+        "app.datasource.replicas.username=sa",
+        "app.datasource.replicas.password=",
+        "app.datasource.replicas.check-interval-ms=50"
+})
+@ActiveProfiles("benchmark")
+class ReplicaReadTest {
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Customer customer;
+    private Account account;
+    
+    @BeforeEach
+    void seed() throws InterruptedException {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Replica")
+                .lastName("Test")
+                .email("replica-read@example.com")
+                .username("replica-read")
+                .password("{noop}password")
+                .phone("1234567890")
+                .address("1 Replica Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+        account = accountRepository.save(Account.builder()
+                .accountNumber("REPLICA-1")
+                .accountName("Replica Account")
+                .accountType(Account.AccountType.SAVINGS)
+                .balance(new BigDecimal("100.00"))
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build());
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (meterRegistry.get("datasource.replica.healthy").gauge().value() < 1) {
+            assertTrue(System.nanoTime() < deadline, "replica was never marked healthy");
+            Thread.sleep(20);
+        }
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteById(account.getId());
+        customerRepository.deleteById(customer.getId());
+    }
+    
+    @Test
+    void replicaReadsDoNotPopulateTheEntityCache() {
+        entityManagerFactory.getCache().evict(Account.class);
+        TransactionTemplate reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+        
+        double replicaReads = replicaReads();
+        reads.executeWithoutResult(status -> accountRepository.findById(account.getId()).orElseThrow());
+        assertEquals(replicaReads + 1, replicaReads());
+        assertFalse(entityManagerFactory.getCache().contains(Account.class, account.getId()));
+        
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                accountRepository.findById(account.getId()).orElseThrow());
+        assertTrue(entityManagerFactory.getCache().contains(Account.class, account.getId()));
+    }
+    
+    @Test
+    void transactionLookupsAreServedByThePrimary() {
+        TransactionResponse deposit = transactionService.deposit(customer.getId(), DepositRequest.builder()
+                .accountNumber(account.getAccountNumber())
+                .amount(new BigDecimal("10.00"))
+                .build());
+        
+        double replicaReads = replicaReads();
+        TransactionResponse found = transactionService.getTransaction(customer.getId(), deposit.getTransactionId());
+        assertEquals(deposit.getTransactionId(), found.getTransactionId());
+        assertEquals(replicaReads, replicaReads());
+    }
+    
+    private double replicaReads() {
+        return meterRegistry.get("datasource.connections").tag("target", "replica-0").counter().count();
+    }
+}
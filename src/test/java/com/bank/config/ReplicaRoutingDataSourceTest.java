@@ -0,0 +1,117 @@
+package com.bank.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Routes transactions over three in-memory databases standing in for a primary and two replicas, whose
+// heartbeats are set by hand to play the part of replication.
+class ReplicaRoutingDataSourceTest {
+    
+    private static final String[] DATABASES = {"primary", "replica0", "replica1"};
+    
+    private final List<JdbcTemplate> databases = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate reads;
+    private TransactionTemplate writes;
+    
+    @BeforeEach
+    void setUp() {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String name : DATABASES) {
+            DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+            JdbcTemplate database = new JdbcTemplate(dataSource);
+            database.execute("CREATE TABLE ledger_checkpoints (name VARCHAR(50) PRIMARY KEY, applied_sequence BIGINT)");
+            database.execute("CREATE TABLE node (name VARCHAR(50))");
+            database.update("INSERT INTO node VALUES (?)", name);
+            databases.add(database);
+            if (!name.equals("primary")) {
+                replicas.add(dataSource);
+            }
+        }
+        
+        routing = new ReplicaRoutingDataSource(databases.get(0).getDataSource(), replicas, 1000, meterRegistry);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writes = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        reads = new TransactionTemplate(writes.getTransactionManager());
+        reads.setReadOnly(true);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        for (JdbcTemplate database : databases) {
+            database.execute("DROP ALL OBJECTS");
+        }
+    }
+    
+    @Test
+    void readsRotateOverHealthyReplicasAndWritesStayOnThePrimary() {
+        // Nothing is routed to a replica before its first check
+        assertEquals("primary", readNode());
+        
+        replicate(1, 0);
+        replicate(2, 0);
+        routing.checkReplicas();
+        List<String> rotation = List.of(readNode(), readNode(), readNode(), readNode());
+        assertEquals(Set.of("replica0", "replica1"), Set.copyOf(rotation.subList(0, 2)));
+        assertEquals(rotation.subList(0, 2), rotation.subList(2, 4));
+        assertEquals("primary", writeNode());
+        
+        replicate(1, 60_000);
+        routing.checkReplicas();
+        assertEquals(List.of("replica1", "replica1"), List.of(readNode(), readNode()));
+        
+        databases.get(2).execute("DROP TABLE ledger_checkpoints");
+        routing.checkReplicas();
+        assertEquals("primary", readNode());
+        
+        assertEquals(0, meterRegistry.get("datasource.replica.healthy").tag("replica", "replica-0").gauge().value());
+        assertEquals(-1, meterRegistry.get("datasource.replica.lag").tag("replica", "replica-1").gauge().value());
+        assertEquals(2, meterRegistry.get("datasource.connections")
+                .tags("target", "primary", "access", "read").counter().count());
+        assertEquals(4, meterRegistry.get("datasource.connections")
+                .tags("target", "replica-1", "access", "read").counter().count());
+    }
+    
+    @Test
+    void heartbeatIsWrittenToThePrimary() {
+        routing.checkReplicas();
+        routing.checkReplicas();
+        Long heartbeat = databases.get(0).queryForObject("SELECT applied_sequence FROM ledger_checkpoints WHERE name = ?",
+                Long.class, ReplicaRoutingDataSource.HEARTBEAT);
+        assertTrue(System.currentTimeMillis() - heartbeat < 60_000);
+    }
+    
+    // Sets the replica's heartbeat as if the primary's had reached it lagMs ago
+    private void replicate(int replica, long lagMs) {
+        JdbcTemplate database = databases.get(replica);
+        database.update("DELETE FROM ledger_checkpoints");
+        database.update("INSERT INTO ledger_checkpoints VALUES (?, ?)",
+                ReplicaRoutingDataSource.HEARTBEAT, System.currentTimeMillis() - lagMs);
+    }
+    
+    private String readNode() {
+        return reads.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+    
+    private String writeNode() {
+        return writes.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+}
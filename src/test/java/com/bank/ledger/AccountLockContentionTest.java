@@ -0,0 +1,125 @@
+package com.bank.ledger;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two real transactions on H2 contending for the same account row: the second times out on the lock held by the
+// first, which the database reports through the JPA exceptions, and must be retried rather than surface as an error.
+@SpringBootTest(properties = {
+        "app.ledger.locking.enabled=true",
+        "app.ledger.locking.max-retries=5",
+        "app.ledger.locking.backoff-base-ms=5",
+        "app.ledger.locking.backoff-max-ms=20"
+})
+@ActiveProfiles("benchmark")
+class AccountLockContentionTest {
+    
+    private static final String OPERATION = "contention-test";
+    
+    @Autowired
+    private AccountLockManager accountLockManager;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Customer customer;
+    private Account account;
+    
+    @BeforeEach
+    void seed() {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Lock")
+                .lastName("Test")
+                .email("lock-contention@example.com")
+                .username("lock-contention")
+                .password("{noop}password")
+                .phone("1234567890")
+                .address("1 Lock Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+        account = accountRepository.save(Account.builder()
+                .accountNumber("LOCK-1")
+                .accountName("Lock Account")
+                .accountType(Account.AccountType.SAVINGS)
+                .balance(new BigDecimal("100.00"))
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteById(account.getId());
+        customerRepository.deleteById(customer.getId());
+    }
+    
+    @Test
+    void lockTimeoutIsRetriedUntilTheHolderCommits() throws Exception {
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        List<String> accountNumbers = List.of(account.getAccountNumber());
+        CountDownLatch locked = new CountDownLatch(1);
+        
+        // Holds the row until the contender has given up on it at least once
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactions.executeWithoutResult(status -> {
+            accountLockManager.lockInIdOrder(OPERATION, accountNumbers);
+            locked.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (count("ledger.lock.aborts") < 1 && System.nanoTime() < deadline) {
+                sleep();
+            }
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        
+        String result = accountLockManager.withRetry(OPERATION, () -> transactions.execute(status -> {
+            accountLockManager.lockInIdOrder(OPERATION, accountNumbers);
+            return "committed";
+        }));
+        holder.get(30, TimeUnit.SECONDS);
+        
+        assertEquals("committed", result);
+        assertTrue(count("ledger.lock.retries") >= 1);
+        assertEquals(count("ledger.lock.attempts") - 1, count("ledger.lock.aborts"));
+        assertEquals(0, count("ledger.lock.failures"));
+    }
+    
+    private double count(String name) {
+        return meterRegistry.counter(name, "operation", OPERATION).count();
+    }
+    
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
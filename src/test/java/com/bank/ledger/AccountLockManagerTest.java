@@ -0,0 +1,73 @@
+package com.bank.ledger;
+
+import com.bank.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountLockManagerTest {
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private AccountLockManager accountLockManager;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountLockManager = new AccountLockManager(accountRepository, meterRegistry);
+        ReflectionTestUtils.setField(accountLockManager, "enabled", true);
+        ReflectionTestUtils.setField(accountLockManager, "lockTimeoutMs", 100L);
+        ReflectionTestUtils.setField(accountLockManager, "maxRetries", 3);
+        ReflectionTestUtils.setField(accountLockManager, "backoffBaseMs", 1L);
+        ReflectionTestUtils.setField(accountLockManager, "backoffMaxMs", 5L);
+    }
+    
+    @Test
+    void withRetry_GivesUpAfterMaxRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        assertThrows(CannotAcquireLockException.class, () -> accountLockManager.withRetry("transfer", () -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("lock timeout");
+        }));
+        
+        assertEquals(4, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("ledger.lock.failures", "operation", "transfer").count());
+    }
+    
+    @Test
+    void withRetry_DoesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        assertThrows(DataIntegrityViolationException.class, () -> accountLockManager.withRetry("transfer", () -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate transaction id");
+        }));
+        
+        assertEquals(1, attempts.get());
+    }
+    
+    @Test
+    void lockInIdOrder_IsNoOpWhenDisabled() {
+        ReflectionTestUtils.setField(accountLockManager, "enabled", false);
+        
+        accountLockManager.lockInIdOrder("transfer", List.of("ACC1", "ACC2"));
+        
+        verifyNoInteractions(accountRepository);
+    }
+}
@@ -0,0 +1,189 @@
+package com.bank.ledger;
+
+import com.bank.exception.InsufficientBalanceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerEngineTest {
+    
+    private static final int SHARDS = 4;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private LedgerEngine ledgerEngine;
+    
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        
+        ledgerEngine = new LedgerEngine(transactionManager);
+        ReflectionTestUtils.setField(ledgerEngine, "enabled", true);
+        ReflectionTestUtils.setField(ledgerEngine, "shardCount", SHARDS);
+        ReflectionTestUtils.setField(ledgerEngine, "batchSize", 16);
+        ReflectionTestUtils.setField(ledgerEngine, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(ledgerEngine, "enqueueTimeoutMs", 1000L);
+        ledgerEngine.start();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ledgerEngine.stop();
+    }
+    
+    @Test
+    void execute_SerializesPostingsPerAccount() throws Exception {
+        long[] balance = new long[1];
+        
+        runConcurrently(8, 500, () -> ledgerEngine.execute(List.of("ACC1001"), () -> balance[0]++));
+        
+        assertEquals(4000L, balance[0]);
+    }
+    
+    @Test
+    void execute_OppositeCrossShardTransfersDoNotDeadlock() {
+        String first = "ACC1001";
+        String second = accountOnOtherShard(first);
+        long[] balances = new long[2];
+        
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> runConcurrently(8, 250, () -> {
+            ledgerEngine.execute(List.of(first, second), () -> {
+                balances[0]--;
+                return balances[1]++;
+            });
+            ledgerEngine.execute(List.of(second, first), () -> {
+                balances[1]--;
+                return balances[0]++;
+            });
+            return null;
+        }));
+        
+        assertEquals(0L, balances[0]);
+        assertEquals(0L, balances[1]);
+    }
+    
+    @Test
+    void execute_FullShardDoesNotStallCrossShardPostingsElsewhere() throws Exception {
+        LedgerEngine engine = new LedgerEngine(transactionManager);
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "shardCount", SHARDS);
+        ReflectionTestUtils.setField(engine, "batchSize", 16);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 1);
+        ReflectionTestUtils.setField(engine, "enqueueTimeoutMs", 5000L);
+        engine.start();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            String busy = accountOnShard(0);
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            
+            // Shard 0 is stuck in a posting with a full queue behind it, and a transfer to it is waiting for room
+            executor.submit(() -> engine.execute(List.of(busy), () -> {
+                started.countDown();
+                return await(release);
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            executor.submit(() -> engine.execute(List.of(busy), () -> true));
+            Future<Boolean> waiting = executor.submit(() -> engine.execute(List.of(busy, accountOnShard(1)), () -> true));
+            Thread.sleep(200);
+            
+            assertTimeoutPreemptively(Duration.ofSeconds(2),
+                    () -> assertTrue(engine.execute(List.of(accountOnShard(2), accountOnShard(3)), () -> true)));
+            assertFalse(waiting.isDone());
+            
+            release.countDown();
+            assertTrue(waiting.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            engine.stop();
+        }
+    }
+    
+    @Test
+    void execute_PropagatesPostingException() {
+        assertThrows(InsufficientBalanceException.class, () -> ledgerEngine.execute(List.of("ACC1001"), () -> {
+            throw new InsufficientBalanceException("Insufficient balance for withdrawal");
+        }));
+    }
+    
+    @Test
+    void execute_WithoutSequencerRunsOnCallingThread() throws InterruptedException {
+        LedgerEngine directEngine = new LedgerEngine(transactionManager);
+        directEngine.start();
+        
+        Thread caller = Thread.currentThread();
+        assertSame(caller, directEngine.execute(List.of("ACC1001"), Thread::currentThread));
+        verify(transactionManager, times(1)).commit(any());
+        directEngine.stop();
+    }
+    
+    private String accountOnShard(int shard) {
+        for (int i = 2000; ; i++) {
+            String candidate = "ACC" + i;
+            if (Math.floorMod(candidate.hashCode(), SHARDS) == shard) {
+                return candidate;
+            }
+        }
+    }
+    
+    private String accountOnOtherShard(String accountNumber) {
+        int shard = Math.floorMod(accountNumber.hashCode(), SHARDS);
+        for (int i = 2000; ; i++) {
+            String candidate = "ACC" + i;
+            if (Math.floorMod(candidate.hashCode(), SHARDS) != shard) {
+                return candidate;
+            }
+        }
+    }
+    
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private void runConcurrently(int threads, int iterations, Callable<?> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        task.call();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
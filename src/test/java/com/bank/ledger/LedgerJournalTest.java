@@ -0,0 +1,197 @@
+package com.bank.ledger;
+
+import com.bank.dto.request.DepositRequest;
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.dto.request.WithdrawalRequest;
+import com.bank.dto.response.TransactionResponse;
+import com.bank.entity.Account;
+import com.bank.exception.BadRequestException;
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.AccountSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerJournalTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private JournalApplier journalApplier;
+    
+    private LedgerJournal ledgerJournal;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(accountRepository.findSnapshotsByAccountNumberIn(any())).thenReturn(List.of(
+                new AccountSnapshot(1L, "ACC1001", 1L, Account.AccountStatus.ACTIVE, new BigDecimal("100.00")),
+                new AccountSnapshot(2L, "ACC1002", 2L, Account.AccountStatus.ACTIVE, new BigDecimal("0.00"))));
+        ledgerJournal = startJournal();
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        ledgerJournal.stop();
+    }
+    
+    @Test
+    void deposit_IsAcknowledgedAndThenApplied() {
+        TransactionResponse response = ledgerJournal.deposit(1L, DepositRequest.builder()
+                .accountNumber("ACC1001")
+                .amount(new BigDecimal("50.00"))
+                .build());
+        
+        assertEquals(new BigDecimal("100.00"), response.getBalanceBefore());
+        assertEquals(new BigDecimal("150.00"), response.getBalanceAfter());
+        assertTrue(response.getTransactionId().startsWith("TXN"));
+        verify(journalApplier, timeout(2000)).apply(anyList());
+    }
+    
+    @Test
+    void postings_AreValidatedAgainstJournalBalances() {
+        ledgerJournal.transfer(1L, FundTransferRequest.builder()
+                .fromAccountNumber("ACC1001")
+                .toAccountNumber("ACC1002")
+                .amount(new BigDecimal("80.00"))
+                .build());
+        
+        InsufficientBalanceException insufficient = assertThrows(InsufficientBalanceException.class,
+                () -> ledgerJournal.withdraw(1L, WithdrawalRequest.builder()
+                        .accountNumber("ACC1001")
+                        .amount(new BigDecimal("30.00"))
+                        .build()));
+        assertEquals("Insufficient balance for withdrawal", insufficient.getMessage());
+        
+        BadRequestException notOwner = assertThrows(BadRequestException.class,
+                () -> ledgerJournal.withdraw(1L, WithdrawalRequest.builder()
+                        .accountNumber("ACC1002")
+                        .amount(new BigDecimal("10.00"))
+                        .build()));
+        assertEquals("You don't have access to this account", notOwner.getMessage());
+        
+        BadRequestException notEmpty = assertThrows(BadRequestException.class,
+                () -> ledgerJournal.closeAccount("ACC1002"));
+        assertEquals("Cannot delete account with non-zero balance", notEmpty.getMessage());
+    }
+    
+    @Test
+    void transfer_ToTheSameAccountIsRejected() {
+        CompletableFuture<TransactionResponse> result = ledgerJournal.submitTransfer(1L, "ACC1001", "ACC1001",
+                new BigDecimal("40.00"), null);
+        
+        CompletionException failure = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(BadRequestException.class, failure.getCause());
+        assertEquals("Cannot transfer to the same account", failure.getCause().getMessage());
+        assertEquals(new BigDecimal("110.00"), deposit("ACC1001", "10.00").getBalanceAfter());
+    }
+    
+    @Test
+    void start_ReplaysEntriesTheDatabaseHasNotApplied() throws Exception {
+        doThrow(new IllegalStateException("database down")).when(journalApplier).apply(anyList());
+        for (int i = 0; i < 3; i++) {
+            ledgerJournal.deposit(1L, DepositRequest.builder()
+                    .accountNumber("ACC1001")
+                    .amount(new BigDecimal("10.00"))
+                    .build());
+        }
+        ledgerJournal.stop();
+        
+        reset(journalApplier);
+        when(journalApplier.appliedSequence()).thenReturn(1L);
+        ledgerJournal = startJournal();
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<JournalEntry>> replayed = ArgumentCaptor.forClass(List.class);
+        verify(journalApplier).apply(replayed.capture());
+        assertEquals(List.of(2L, 3L), replayed.getValue().stream().map(JournalEntry::sequence).toList());
+        assertEquals(new BigDecimal("130.00"), replayed.getValue().get(1).legs().get(0).balanceAfter());
+    }
+    
+    @Test
+    void start_RefusesToRunWithAsyncTransfers() throws Exception {
+        LedgerJournal journal = new LedgerJournal(accountRepository, journalApplier);
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "asyncTransfers", true);
+        
+        assertThrows(IllegalStateException.class, journal::start);
+    }
+    
+    @Test
+    void accounts_AreDroppedBeyondTheLimitOnceApplied() throws Exception {
+        ReflectionTestUtils.setField(ledgerJournal, "maxAccounts", 1);
+        deposit("ACC1001", "50.00");
+        awaitApplied(1);
+        
+        // ACC1002 was loaded alongside and never posted to, so it is the one dropped
+        assertEquals(new BigDecimal("160.00"), deposit("ACC1001", "10.00").getBalanceAfter());
+        assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(ledgerJournal, "accounts")).size());
+    }
+    
+    @Test
+    void accounts_WithUnappliedPostingsAreKeptBeyondTheLimit() {
+        doThrow(new IllegalStateException("database down")).when(journalApplier).apply(anyList());
+        ReflectionTestUtils.setField(ledgerJournal, "maxAccounts", 1);
+        ledgerJournal.transfer(1L, FundTransferRequest.builder()
+                .fromAccountNumber("ACC1001")
+                .toAccountNumber("ACC1002")
+                .amount(new BigDecimal("80.00"))
+                .build());
+        
+        // Reloading ACC1001 from the database would start again from 100.00
+        assertEquals(new BigDecimal("30.00"), deposit("ACC1001", "10.00").getBalanceAfter());
+        assertEquals(2, ((Map<?, ?>) ReflectionTestUtils.getField(ledgerJournal, "accounts")).size());
+    }
+    
+    private void awaitApplied(long sequence) throws InterruptedException {
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while ((long) ReflectionTestUtils.getField(ledgerJournal, "appliedSequence") < sequence) {
+            assertTrue(System.nanoTime() < deadline, "entry " + sequence + " was not applied");
+            Thread.sleep(10);
+        }
+    }
+    
+    private TransactionResponse deposit(String accountNumber, String amount) {
+        return ledgerJournal.deposit(1L, DepositRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(new BigDecimal(amount))
+                .build());
+    }
+    
+    private LedgerJournal startJournal() throws Exception {
+        LedgerJournal journal = new LedgerJournal(accountRepository, journalApplier);
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "path", directory.resolve("ledger.journal").toString());
+        ReflectionTestUtils.setField(journal, "sizeMb", 1);
+        ReflectionTestUtils.setField(journal, "groupSize", 64);
+        ReflectionTestUtils.setField(journal, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(journal, "enqueueTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(journal, "applyBatchSize", 100);
+        ReflectionTestUtils.setField(journal, "applyIntervalMs", 5L);
+        journal.start();
+        return journal;
+    }
+}
@@ -0,0 +1,96 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Substring search combined with the optional filters, including LIKE wildcards in the term and accounts of
+// other customers with matching names.
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class AccountSearchRepositoryTest {
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+    
+    private Customer owner;
+    
+    @BeforeEach
+    void seed() {
+        owner = customer("search-owner");
+        Customer other = customer("search-other");
+        account(owner, "Holiday Savings", Account.AccountType.SAVINGS);
+        account(owner, "Rent 100% covered", Account.AccountType.CURRENT);
+        account(owner, "Emergency fund", Account.AccountType.SAVINGS);
+        account(other, "Holiday Savings", Account.AccountType.SAVINGS);
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteAll(accounts);
+        customerRepository.deleteAll(customers);
+    }
+    
+    @Test
+    void matchesSubstringsOfTheCustomersAccountsOnly() {
+        assertEquals(List.of("Holiday Savings"), names(search("IDAY SAV", null)));
+        assertEquals(List.of("Emergency fund", "Holiday Savings"), names(search("n", Account.AccountType.SAVINGS)));
+        assertEquals(List.of("Rent 100% covered"), names(search("0%", null)));
+        assertTrue(search("ent_100", null).isEmpty());
+        assertTrue(search("savings fund", null).isEmpty());
+        assertEquals(3, search(null, null).getTotalElements());
+    }
+    
+    private Page<AccountView> search(String accountName, Account.AccountType accountType) {
+        return accountRepository.searchAccounts(owner.getId(), accountName, accountType, null, PageRequest.of(0, 20));
+    }
+    
+    private static List<String> names(Page<AccountView> page) {
+        return page.getContent().stream().map(AccountView::accountName).toList();
+    }
+    
+    private Customer customer(String username) {
+        Customer customer = customerRepository.save(Customer.builder()
+                .firstName("Search")
+                .lastName("Test")
+                .email(username + "@example.com")
+                .username(username)
+                .password("{noop}password")
+                .phone("1234567890")
+                .address("1 Search Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+        customers.add(customer);
+        return customer;
+    }
+    
+    private void account(Customer customer, String name, Account.AccountType type) {
+        accounts.add(accountRepository.save(Account.builder()
+                .accountNumber("SEARCH-" + customer.getUsername() + "-" + accounts.size())
+                .accountName(name)
+                .accountType(type)
+                .balance(BigDecimal.ZERO)
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build()));
+    }
+}
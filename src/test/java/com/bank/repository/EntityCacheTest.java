@@ -0,0 +1,142 @@
+package com.bank.repository;
+
+import com.bank.dto.request.WithdrawalRequest;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.security.CustomUserDetailsService;
+import com.bank.service.AccountService;
+import com.bank.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Repeated lookups by id and by natural id must not reach the database, and balances written by guarded SQL or
+// JDBC batches, which bypass Hibernate, must never be read back from a stale cache entry.
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class EntityCacheTest {
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionBatchRepository transactionBatchRepository;
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private Customer customer;
+    private Account account;
+    
+    @BeforeEach
+    void seed() {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Cache")
+                .lastName("Test")
+                .email("entity-cache@example.com")
+                .username("entity-cache")
+                .password("{noop}password")
+                .phone("1234567890")
+                .address("1 Cache Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+        account = accountRepository.save(Account.builder()
+                .accountNumber("CACHE-1")
+                .accountName("Cache Account")
+                .accountType(Account.AccountType.SAVINGS)
+                .balance(new BigDecimal("100.00"))
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteById(account.getId());
+        customerRepository.deleteById(customer.getId());
+    }
+    
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        lookUp();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        lookUp();
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getSecondLevelCacheMissCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() >= 2);
+    }
+    
+    @Test
+    void balancesWrittenOutsideHibernateAreNotServedStale() {
+        assertBalance("100.00");
+        assertTrue(entityManagerFactory.getCache().contains(Account.class, account.getId()));
+        
+        transactionService.withdraw(customer.getId(), withdrawal("60.00"));
+        assertBalance("40.00");
+        // Approved against the database, not the 100.00 the cache held before the first withdrawal
+        assertThrows(InsufficientBalanceException.class,
+                () -> transactionService.withdraw(customer.getId(), withdrawal("60.00")));
+        assertBalance("40.00");
+        
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        transactions.executeWithoutResult(status ->
+                transactionBatchRepository.updateBalances(Map.of(account.getId(), new BigDecimal("75.00"))));
+        assertBalance("75.00");
+        
+        transactions.executeWithoutResult(status -> {
+            transactionBatchRepository.updateBalances(Map.of(account.getId(), BigDecimal.ONE));
+            status.setRollbackOnly();
+        });
+        assertBalance("75.00");
+        assertBalance("75.00");
+        assertTrue(entityManagerFactory.getCache().contains(Account.class, account.getId()));
+    }
+    
+    private void lookUp() {
+        customUserDetailsService.loadUserById(customer.getId());
+        customUserDetailsService.loadUserByUsername(customer.getUsername());
+        accountService.getAccount(customer.getId(), account.getId());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow());
+    }
+    
+    private void assertBalance(String expected) {
+        BigDecimal balance = accountService.getAccount(customer.getId(), account.getId()).getBalance();
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), () -> balance + " != " + expected);
+    }
+    
+    private WithdrawalRequest withdrawal(String amount) {
+        return WithdrawalRequest.builder().accountNumber(account.getAccountNumber()).amount(new BigDecimal(amount)).build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.service.AccountService;
+import com.bank.service.AuthService;
+import com.bank.service.TransactionService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the SQL statements each read issues for a customer with two accounts and for one with many
+// accounts and postings. The counts must match and stay within budget, so an N+1 fails the build.
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class ReadQueryCountTest {
+    
+    private static final long FIRST_ID = 2_100_000_000L;
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    
+    @TestConfiguration
+    static class SqlCount {
+        @Bean
+        HibernatePropertiesCustomizer sqlCountCustomizer() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                STATEMENTS.incrementAndGet();
+                return sql;
+            });
+        }
+    }
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+    private long nextId = FIRST_ID;
+    
+    private Ledger small;
+    private Ledger large;
+    
+    private record Ledger(Customer customer, String accountNumber, String transferId) {
+    }
+    
+    @BeforeEach
+    void seed() {
+        small = seedLedger("small", 2, 60);
+        large = seedLedger("large", 12, 300);
+        // The rows are written directly, after the service looked for credit legs at startup
+        transactionService.detectCounterLegs();
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE id >= ?", FIRST_ID);
+        accountRepository.deleteAll(accounts);
+        customerRepository.deleteAll(customers);
+    }
+    
+    @Test
+    void readsIssueAFixedNumberOfStatements() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 0, 0);
+        
+        Map<String, Consumer<Ledger>> reads = new LinkedHashMap<>();
+        reads.put("statement", l -> transactionService.getAccountStatement(l.customer().getId(), l.accountNumber(), 0, 20));
+        reads.put("statement cursor", l ->
+                transactionService.getAccountStatement(l.customer().getId(), l.accountNumber(), "", 20));
+        reads.put("history", l ->
+                transactionService.getTransactionHistory(l.customer().getId(), l.accountNumber(), from, to, 0, 20));
+        reads.put("transaction", l -> transactionService.getTransaction(l.customer().getId(), l.transferId()));
+        reads.put("accounts", l -> accountService.getAllAccounts(l.customer().getId()));
+        reads.put("account search", l -> accountService.searchAccounts(l.customer().getId(), null, null, null, 0, 20));
+        reads.put("dashboard", l -> authService.getDashboard(l.customer().getId()));
+        
+        // One statement per query the read needs; offset pages add their count queries. Only Hibernate
+        // statements are seen, so the dashboard's JdbcTemplate summary read is not counted.
+        Map<String, Integer> budget = Map.of(
+                "statement", 5,
+                "statement cursor", 3,
+                "history", 5,
+                "transaction", 2,
+                "accounts", 1,
+                "account search", 2,
+                "dashboard", 1);
+        
+        reads.forEach((name, read) -> {
+            int smallCount = count(read, small);
+            int largeCount = count(read, large);
+            assertEquals(smallCount, largeCount, () -> name + " issues more statements as the data grows");
+            assertTrue(largeCount <= budget.get(name),
+                    () -> name + " issued " + largeCount + " statements, budget " + budget.get(name));
+        });
+    }
+    
+    private static int count(Consumer<Ledger> read, Ledger ledger) {
+        STATEMENTS.set(0);
+        read.accept(ledger);
+        return STATEMENTS.get();
+    }
+    
+    // Postings rotate over the customer's accounts; every third is a transfer, so the first account has both legs
+    private Ledger seedLedger(String name, int accountCount, int postings) {
+        Customer customer = customerRepository.save(Customer.builder()
+                .firstName("Count")
+                .lastName(name)
+                .email("count-" + name + "@example.com")
+                .username("count-" + name)
+                .password("{noop}password")
+                .phone("1234567890")
+                .address("1 Count Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+        customers.add(customer);
+        List<Account> owned = new ArrayList<>();
+        for (int i = 0; i < accountCount; i++) {
+            owned.add(accountRepository.save(Account.builder()
+                    .accountNumber("COUNT-" + name + "-" + i)
+                    .accountName("Count Account " + i)
+                    .accountType(Account.AccountType.SAVINGS)
+                    .balance(BigDecimal.TEN)
+                    .status(Account.AccountStatus.ACTIVE)
+                    .customer(customer)
+                    .build()));
+        }
+        accounts.addAll(owned);
+        
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        String transferId = null;
+        for (int i = 0; i < postings; i++) {
+            boolean transfer = i % 3 == 0;
+            long id = nextId++;
+            String transactionId = "COUNT" + id;
+            if (transfer && transferId == null) {
+                transferId = transactionId;
+            }
+            Account account = owned.get(i % accountCount);
+            Account counter = owned.get(account == owned.get(0) ? 1 : 0);
+            rows.add(new Object[] {id, transactionId, transfer ? "TRANSFER" : "DEPOSIT", account.getId(),
+                    transfer ? counter.getId() : null, transfer ? account.getAccountNumber() : null,
+                    transfer ? counter.getAccountNumber() : null, Timestamp.valueOf(start.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, transaction_id, type, amount, status, account_id, " +
+                "counter_account_id, from_account_number, to_account_number, created_at) " +
+                "VALUES (?, ?, ?, 1, 'SUCCESS', ?, ?, ?, ?, ?)", rows);
+        return new Ledger(customer, owned.get(0).getAccountNumber(), transferId);
+    }
+}
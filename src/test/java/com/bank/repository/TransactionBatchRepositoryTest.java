@@ -0,0 +1,132 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.entity.Transaction;
+import com.bank.util.AccountNumberGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Rows written by the JDBC batch take their ids from the same pooled generator as rows saved through JPA, so
+// the two can be mixed in one transaction without an id being handed out twice.
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class TransactionBatchRepositoryTest {
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionBatchRepository transactionBatchRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private Customer customer;
+    private Account source;
+    private Account destination;
+    
+    @BeforeEach
+    void seed() {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Batch")
+                .lastName("Test")
+                .email("batch-insert@example.com")
+                .username("batch-insert")
+                .password("{noop}password")
+                .phone("1234567890")
+                .address("1 Batch Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+        source = account("BATCH-1");
+        destination = account("BATCH-2");
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE account_id IN (?, ?)", source.getId(), destination.getId());
+        accountRepository.deleteById(source.getId());
+        accountRepository.deleteById(destination.getId());
+        customerRepository.deleteById(customer.getId());
+    }
+    
+    @Test
+    void batchedRowsShareTheIdPoolWithJpaInserts() {
+        List<Long> ids = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Long> assigned = new ArrayList<>();
+            for (int round = 0; round < 3; round++) {
+                List<Transaction> batch = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    batch.add(deposit(source));
+                }
+                Transaction transfer = deposit(source);
+                transfer.setType(Transaction.TransactionType.TRANSFER);
+                transfer.setCounterAccount(destination);
+                transfer.setCounterBalanceBefore(BigDecimal.ZERO);
+                transfer.setCounterBalanceAfter(BigDecimal.ONE);
+                batch.add(transfer);
+                transactionBatchRepository.insertTransactions(batch);
+                batch.forEach(transaction -> assigned.add(transaction.getId()));
+                assigned.add(transactionRepository.saveAndFlush(deposit(destination)).getId());
+            }
+            return assigned;
+        });
+        
+        Set<Long> distinct = new HashSet<>(ids);
+        assertEquals(ids.size(), distinct.size());
+        assertEquals(ids.size(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE account_id IN (?, ?)", Integer.class,
+                source.getId(), destination.getId()));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE counter_account_id = ? AND counter_balance_after = 1",
+                Integer.class, destination.getId()));
+    }
+    
+    private Account account(String accountNumber) {
+        return accountRepository.save(Account.builder()
+                .accountNumber(accountNumber)
+                .accountName("Batch Account")
+                .accountType(Account.AccountType.SAVINGS)
+                .balance(BigDecimal.ZERO)
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build());
+    }
+    
+    private static Transaction deposit(Account account) {
+        return Transaction.builder()
+                .transactionId(AccountNumberGenerator.generateTransactionId())
+                .type(Transaction.TransactionType.DEPOSIT)
+                .amount(BigDecimal.ONE)
+                .balanceBefore(BigDecimal.ZERO)
+                .balanceAfter(BigDecimal.ONE)
+                .account(account)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,237 @@
+package com.bank.repository;
+
+import com.bank.entity.Account;
+import com.bank.dto.response.CursorPagedResponse;
+import com.bank.dto.response.PagedResponse;
+import com.bank.dto.response.TransactionResponse;
+import com.bank.entity.Customer;
+import com.bank.exception.BadRequestException;
+import com.bank.service.TransactionService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the statement and history reads against a seeded ledger and fails if the database plans a full scan
+// of transactions for any SQL they issue. Uses the benchmark profile's H2 database; pass -Dspring.datasource.*
+// to run it against PostgreSQL instead.
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class TransactionQueryPlanTest {
+    
+    private static final int ACCOUNTS = 20;
+    private static final int POSTINGS_PER_ACCOUNT = 500;
+    private static final long FIRST_ID = 2_000_000_000L;
+    private static final List<String> CAPTURED = new CopyOnWriteArrayList<>();
+    
+    @TestConfiguration
+    static class SqlCapture {
+        @Bean
+        HibernatePropertiesCustomizer sqlCaptureCustomizer() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                CAPTURED.add(sql);
+                return sql;
+            });
+        }
+    }
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Customer customer;
+    private List<Account> accounts;
+    private boolean postgres;
+    private List<String> populatedTables;
+    
+    @BeforeEach
+    void seed() {
+        postgres = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()));
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Plan")
+                .lastName("Test")
+                .email("plan-test@example.com")
+                .username("plan-test")
+                .password("{noop}password")
+                .phone("1234567890")
+                .address("1 Plan Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+        accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(accountRepository.save(Account.builder()
+                    .accountNumber("PLAN" + i)
+                    .accountName("Plan Account " + i)
+                    .accountType(Account.AccountType.SAVINGS)
+                    .balance(BigDecimal.ZERO)
+                    .status(Account.AccountStatus.ACTIVE)
+                    .customer(customer)
+                    .build()));
+        }
+        
+        // Every tenth posting is a single-row transfer, so both legs of the statement queries have rows
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS * POSTINGS_PER_ACCOUNT; i++) {
+            boolean transfer = i % 10 == 0;
+            rows.add(new Object[] {FIRST_ID + i, "PLAN" + i, transfer ? "TRANSFER" : "DEPOSIT",
+                    accounts.get(i % ACCOUNTS).getId(), transfer ? accounts.get((i + 1) % ACCOUNTS).getId() : null,
+                    Timestamp.valueOf(start.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, transaction_id, type, amount, status, account_id, " +
+                "counter_account_id, created_at) VALUES (?, ?, ?, 1, 'SUCCESS', ?, ?, ?)", rows);
+        if (postgres) {
+            jdbcTemplate.execute("ANALYZE transactions");
+            // transactions itself, or the partitions the rows landed in; empty partitions are always seq scanned
+            populatedTables = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT tableoid::regclass::text FROM transactions WHERE id >= ?", String.class, FIRST_ID);
+        }
+        // The rows are written directly, after the service looked for credit legs at startup
+        transactionService.detectCounterLegs();
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE id >= ?", FIRST_ID);
+        accountRepository.deleteAll(accounts);
+        customerRepository.delete(customer);
+    }
+    
+    @Test
+    void statementAndHistoryUseIndexes() {
+        // Receives the transfers made from account 0, so it has rows in both legs
+        String accountNumber = accounts.get(1).getAccountNumber();
+        LocalDateTime from = LocalDateTime.of(2024, 1, 2, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 3, 0, 0);
+        
+        CAPTURED.clear();
+        transactionService.getAccountStatement(customer.getId(), accountNumber, 0, 20);
+        transactionService.getAccountStatement(customer.getId(), accountNumber, 10, 20);
+        transactionService.getTransactionHistory(customer.getId(), accountNumber, from, to, 0, 20);
+        String cursor = transactionService.getAccountStatement(customer.getId(), accountNumber, "", 20).getNextCursor();
+        transactionService.getAccountStatement(customer.getId(), accountNumber, cursor, 20);
+        transactionService.getTransactionHistory(customer.getId(), accountNumber, from, to, "", 20);
+        
+        List<String> queries = CAPTURED.stream()
+                .filter(sql -> sql.toLowerCase().startsWith("select") && sql.toLowerCase().contains("transactions"))
+                .distinct()
+                .toList();
+        assertFalse(queries.isEmpty());
+        assertTrue(queries.stream().anyMatch(sql -> sql.toLowerCase().contains("union all")), "offset pages merge in SQL");
+        for (String sql : queries) {
+            String plan = explain(sql);
+            assertFalse(fullScan(plan), () -> "Full scan of transactions for:\n" + sql + "\nPlan:\n" + plan);
+            assertTrue(rangeOnIndex(sql, plan), () -> "created_at filtered outside the index for:\n" + sql + "\nPlan:\n" + plan);
+        }
+    }
+    
+    @Test
+    void offsetPagesMatchTheCursorWalk() {
+        String accountNumber = accounts.get(1).getAccountNumber();
+        List<Long> walked = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            CursorPagedResponse<TransactionResponse> page =
+                    transactionService.getAccountStatement(customer.getId(), accountNumber, cursor, 70);
+            page.getContent().forEach(transaction -> walked.add(transaction.getId()));
+            cursor = page.getNextCursor();
+        }
+        
+        List<Long> paged = new ArrayList<>();
+        PagedResponse<TransactionResponse> page;
+        int number = 0;
+        do {
+            page = transactionService.getAccountStatement(customer.getId(), accountNumber, number++, 70);
+            page.getContent().forEach(transaction -> paged.add(transaction.getId()));
+        } while (!page.isLast());
+        
+        assertEquals(POSTINGS_PER_ACCOUNT * 2, walked.size());
+        assertEquals(walked, paged);
+        assertThrows(BadRequestException.class,
+                () -> transactionService.getAccountStatement(customer.getId(), accountNumber, Integer.MAX_VALUE, 100));
+    }
+    
+    private String explain(String sql) {
+        if (!postgres) {
+            // H2 plans parameterised statements without values
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        }
+        // Prepare the statement and force the generic plan, which is the one a reused prepared statement gets.
+        // Partition pruning is off so the NULL parameters do not prune every partition out of the plan.
+        StringBuilder numbered = new StringBuilder();
+        List<String> nulls = new ArrayList<>();
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                nulls.add("NULL");
+                numbered.append('$').append(nulls.size());
+            } else {
+                numbered.append(c);
+            }
+        }
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("SET enable_partition_pruning = off");
+                statement.execute("PREPARE plan_check AS " + numbered);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery("EXPLAIN EXECUTE plan_check(" + String.join(", ", nulls) + ")")) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                statement.execute("DEALLOCATE plan_check");
+                statement.execute("RESET plan_cache_mode");
+                statement.execute("RESET enable_partition_pruning");
+                return plan.toString();
+            }
+        });
+    }
+    
+    private boolean fullScan(String plan) {
+        if (!postgres) {
+            return plan.contains("TRANSACTIONS.tableScan");
+        }
+        return populatedTables.stream().anyMatch(table -> plan.contains("Seq Scan on " + table + " "));
+    }
+    
+    // H2 also plans the foreign key indexes, which match on the account alone and leave the date range to a filter
+    private boolean rangeOnIndex(String sql, String plan) {
+        if (!sql.contains("created_at")) {
+            return true;
+        }
+        if (postgres) {
+            return plan.contains("Index Cond: ") && plan.substring(plan.indexOf("Index Cond: ")).contains("created_at");
+        }
+        int start = plan.indexOf("/*");
+        return start >= 0 && plan.substring(start, plan.indexOf("*/", start)).contains("CREATED_AT");
+    }
+}
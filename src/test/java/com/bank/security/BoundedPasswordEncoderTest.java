@@ -0,0 +1,142 @@
+package com.bank.security;
+
+import com.bank.config.SecurityConfig;
+import com.bank.dto.request.LoginRequest;
+import com.bank.entity.Customer;
+import com.bank.exception.AuthenticationBusyException;
+import com.bank.repository.CustomerRepository;
+import com.bank.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class BoundedPasswordEncoderTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    private Customer customer;
+    
+    @BeforeEach
+    void seed() {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Hashing")
+                .lastName("Test")
+                .email("password-hashing@example.com")
+                .username("password-hashing")
+                .password(new BCryptPasswordEncoder(4).encode("secret"))
+                .phone("1234567890")
+                .address("1 Hashing Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteById(customer.getId());
+    }
+    
+    @Test
+    void passwordsAreRehashedAtTheConfiguredStrengthOnLogin() {
+        principalCache.get(customer.getId());
+        
+        authService.login(login("secret"));
+        String rehashed = customerRepository.findById(customer.getId()).orElseThrow().getPassword();
+        assertTrue(rehashed.startsWith("$2a$10$"), rehashed);
+        assertEquals(rehashed, principalCache.get(customer.getId()).getPassword());
+        
+        authService.login(login("secret"));
+        assertEquals(rehashed, customerRepository.findById(customer.getId()).orElseThrow().getPassword());
+    }
+    
+    @Test
+    void hashesBeyondTheQueueAreRejected() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(meterRegistry);
+        ReflectionTestUtils.setField(encoder, "strength", 4);
+        ReflectionTestUtils.setField(encoder, "threadCount", 1);
+        ReflectionTestUtils.setField(encoder, "queueCapacity", 1);
+        encoder.init();
+        try {
+            // Occupy the only hashing thread and the only queue slot
+            CountDownLatch release = new CountDownLatch(1);
+            ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(encoder, "executor");
+            Future<Boolean> running = executor.submit(() -> release.await(10, TimeUnit.SECONDS));
+            Future<Boolean> queued = executor.submit(() -> release.await(10, TimeUnit.SECONDS));
+            
+            assertThrows(AuthenticationBusyException.class, () -> encoder.encode("secret"));
+            assertNull(encoder.tryEncode("secret"));
+            assertEquals(1, meterRegistry.get("auth.password.hashing.rejected").counter().count());
+            assertEquals(1, meterRegistry.get("auth.password.rehash.deferred").counter().count());
+            
+            release.countDown();
+            running.get();
+            queued.get();
+            assertTrue(encoder.matches("secret", encoder.encode("secret")));
+            assertTrue(encoder.matches("secret", encoder.tryEncode("secret")));
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+            assertEquals(4, meterRegistry.get("auth.password.hashing").tag("operation", "encode").timer().count()
+                    + meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count());
+        } finally {
+            encoder.shutdown();
+        }
+    }
+    
+    @Test
+    void loginSucceedsWhenTheRehashFindsTheQueueFull() {
+        BoundedPasswordEncoder encoder = mock(BoundedPasswordEncoder.class);
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        UserPrincipal principal = new UserPrincipal(1L, "alice", "$2a$04$stale",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(principal);
+        when(encoder.matches("secret", "$2a$04$stale")).thenReturn(true);
+        when(encoder.upgradeEncoding("$2a$04$stale")).thenReturn(true);
+        when(encoder.tryEncode("secret")).thenReturn(null);
+        AuthenticationProvider provider = new SecurityConfig(userDetailsService, null, null, encoder, null)
+                .authenticationProvider();
+        
+        Authentication authentication = provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("alice", "secret"));
+        
+        assertTrue(authentication.isAuthenticated());
+        assertSame(principal, authentication.getPrincipal());
+        verify(encoder, never()).encode("secret");
+        verify(userDetailsService, never()).updatePassword(any(), any());
+    }
+    
+    private LoginRequest login(String password) {
+        return LoginRequest.builder().username(customer.getUsername()).password(password).build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+    
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+    
+    @Test
+    void verifiedTokensAreParsedOnce() {
+        JwtTokenProvider provider = provider(SECRET, 60_000, 100);
+        String token = token(provider, 42L);
+        
+        Optional<Claims> first = provider.parseToken(token);
+        assertTrue(first.isPresent());
+        assertEquals(42L, provider.getUserId(first.get()));
+        assertSame(first.get(), provider.parseToken(token).orElseThrow());
+    }
+    
+    @Test
+    void invalidTokensAreRejected() {
+        JwtTokenProvider provider = provider(SECRET, 60_000, 100);
+        String token = token(provider, 42L);
+        provider.parseToken(token);
+        
+        // A cached token must not vouch for a tampered copy of itself
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertTrue(provider.parseToken(tampered).isEmpty());
+        assertTrue(provider.parseToken("not.a.token").isEmpty());
+        assertTrue(provider.parseToken(token(provider(SECRET.replace('5', '6'), 60_000, 0), 42L)).isEmpty());
+        assertTrue(provider.parseToken(token(provider(SECRET, -1000, 0), 42L)).isEmpty());
+    }
+    
+    @Test
+    void embeddedPrincipalsAreOnlyTrustedWhenEnabled() {
+        JwtTokenProvider provider = provider(SECRET, 60_000, 100);
+        ReflectionTestUtils.setField(provider, "embedPrincipal", true);
+        Claims claims = provider.parseToken(token(provider, 42L)).orElseThrow();
+        
+        UserDetails principal = provider.getEmbeddedPrincipal(claims).orElseThrow();
+        assertEquals(42L, ((UserPrincipal) principal).getId());
+        assertEquals("customer", principal.getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), List.copyOf(principal.getAuthorities()));
+        
+        ReflectionTestUtils.setField(provider, "embedPrincipal", false);
+        assertTrue(provider.getEmbeddedPrincipal(claims).isEmpty());
+    }
+    
+    private static JwtTokenProvider provider(String secret, long expirationMs, long cacheEntries) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", expirationMs);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxEntries", cacheEntries);
+        provider.init();
+        return provider;
+    }
+    
+    private static String token(JwtTokenProvider provider, Long customerId) {
+        UserPrincipal principal = new UserPrincipal(customerId, "customer", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        return provider.generateToken(principal, provider.newSessionId());
+    }
+}
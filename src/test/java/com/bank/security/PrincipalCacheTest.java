@@ -0,0 +1,60 @@
+package com.bank.security;
+
+import com.bank.entity.Customer;
+import com.bank.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class PrincipalCacheTest {
+    
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    private Customer customer;
+    
+    @BeforeEach
+    void seed() {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Principal")
+                .lastName("Test")
+                .email("principal-cache@example.com")
+                .username("principal-cache")
+                .password("{noop}first")
+                .phone("1234567890")
+                .address("1 Principal Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteById(customer.getId());
+    }
+    
+    @Test
+    void customerChangesEvictTheCachedPrincipal() {
+        UserPrincipal cached = (UserPrincipal) principalCache.get(customer.getId());
+        assertSame(cached, principalCache.get(customer.getId()));
+        
+        customer.setStatus(Customer.CustomerStatus.SUSPENDED);
+        customer = customerRepository.save(customer);
+        UserPrincipal afterStatusChange = (UserPrincipal) principalCache.get(customer.getId());
+        assertNotSame(cached, afterStatusChange);
+        assertSame(afterStatusChange, principalCache.get(customer.getId()));
+        
+        customer.setPassword("{noop}second");
+        customer = customerRepository.save(customer);
+        assertEquals("{noop}second", principalCache.get(customer.getId()).getPassword());
+    }
+}
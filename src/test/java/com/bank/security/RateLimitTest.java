@@ -0,0 +1,140 @@
+package com.bank.security;
+
+import com.bank.entity.Customer;
+import com.bank.repository.CustomerRepository;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.rate-limit.enabled=true",
+        "app.rate-limit.read.capacity=3",
+        "app.rate-limit.read.per-second=0.1",
+        "app.rate-limit.write.capacity=1",
+        "app.rate-limit.write.per-second=0.1",
+        "app.rate-limit.auth.capacity=3",
+        "app.rate-limit.auth.per-second=0.1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("benchmark")
+class RateLimitTest {
+    
+    private static final long SECOND = 1_000_000_000L;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    private Customer customer;
+    
+    @BeforeEach
+    void seed() {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Rate")
+                .lastName("Limit")
+                .email("rate-limit@example.com")
+                .username("rate-limit")
+                .password(new BCryptPasswordEncoder(4).encode("secret-password"))
+                .phone("1234567890")
+                .address("1 Rate Limit Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteById(customer.getId());
+    }
+    
+    @Test
+    void bucketsAllowBurstsAndRefillAtTheirRate() {
+        AtomicLong clock = new AtomicLong();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimiter limiter = new RateLimiter("test", 2, 1, 100, meterRegistry, clock::get);
+        
+        assertEquals(0, limiter.acquire("a"));
+        assertEquals(0, limiter.acquire("a"));
+        assertEquals(SECOND, limiter.acquire("a"));
+        // Other keys have buckets of their own
+        assertEquals(0, limiter.acquire("b"));
+        
+        clock.addAndGet(SECOND / 2);
+        assertEquals(SECOND / 2, limiter.acquire("a"));
+        clock.addAndGet(SECOND / 2);
+        assertEquals(0, limiter.acquire("a"));
+        assertEquals(SECOND, limiter.acquire("a"));
+        
+        // An idle bucket refills to its capacity and no further
+        clock.addAndGet(10 * SECOND);
+        assertEquals(0, limiter.acquire("a"));
+        assertEquals(0, limiter.acquire("a"));
+        assertEquals(SECOND, limiter.acquire("a"));
+        
+        assertEquals(6, meterRegistry.get("http.rate-limit.requests").tag("outcome", "allowed").counter().count());
+        assertEquals(4, meterRegistry.get("http.rate-limit.requests").tag("outcome", "rejected").counter().count());
+    }
+    
+    @Test
+    void requestsOverBudgetAreAnsweredWith429() throws Exception {
+        String login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"rate-limit\",\"password\":\"secret-password\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = JsonPath.read(login, "$.data.token");
+        
+        // Reads and writes are counted separately
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + token))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "10"))
+                .andExpect(jsonPath("$.success").value(false));
+        mockMvc.perform(post("/api/transactions/deposit").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/transactions/deposit").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isTooManyRequests());
+        
+        // Sign-in requests are counted per address, whoever they are for
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\":\"someone-else\",\"password\":\"wrong-password\"}"))
+                    .andExpect(status().isUnauthorized());
+        }
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"rate-limit\",\"password\":\"secret-password\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("Too many requests"), body);
+    }
+}
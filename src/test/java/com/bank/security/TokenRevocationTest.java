@@ -0,0 +1,254 @@
+package com.bank.security;
+
+import com.bank.entity.Customer;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.RevokedTokenRepository;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("benchmark")
+class TokenRevocationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    private Customer customer;
+    
+    @BeforeEach
+    void seed() {
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Revocation")
+                .lastName("Test")
+                .email("token-revocation@example.com")
+                .username("token-revocation")
+                .password(new BCryptPasswordEncoder(4).encode("secret"))
+                .phone("1234567890")
+                .address("1 Revocation Street")
+                .status(Customer.CustomerStatus.ACTIVE)
+                .build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteById(customer.getId());
+    }
+    
+    @Test
+    void logoutRevokesTheSessionsTokens() throws Exception {
+        String login = login();
+        String accessToken = JsonPath.read(login, "$.data.token");
+        String refreshToken = JsonPath.read(login, "$.data.refreshToken");
+        
+        mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+        // A refresh token is not an access token
+        mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isUnauthorized());
+        
+        String refreshed = refresh(refreshToken).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String newAccessToken = JsonPath.read(refreshed, "$.data.token");
+        String newRefreshToken = JsonPath.read(refreshed, "$.data.refreshToken");
+        mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + newAccessToken))
+                .andExpect(status().isOk());
+        
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + newAccessToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + newAccessToken))
+                .andExpect(status().isUnauthorized());
+        refresh(newRefreshToken).andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    void reusedRefreshTokenRevokesTheSession() throws Exception {
+        String refreshToken = JsonPath.read(login(), "$.data.refreshToken");
+        String refreshed = refresh(refreshToken).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String accessToken = JsonPath.read(refreshed, "$.data.token");
+        String nextRefreshToken = JsonPath.read(refreshed, "$.data.refreshToken");
+        
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+        refresh(nextRefreshToken).andExpect(status().isUnauthorized());
+        
+        // Other sessions of the same customer are unaffected
+        String otherAccessToken = JsonPath.read(login(), "$.data.token");
+        mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + otherAccessToken))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void falsePositivesAreResolvedByTheTable() {
+        // A filter far too small for the revoked ids, so that most ids never revoked match it
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenRevocationList revocationList = new TokenRevocationList(revokedTokenRepository, meterRegistry);
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 8L);
+        ReflectionTestUtils.setField(revocationList, "falsePositiveRate", 0.5);
+        ReflectionTestUtils.setField(revocationList, "refreshIntervalMs", 0L);
+        revocationList.start();
+        
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String id = UUID.randomUUID().toString();
+            assertTrue(revocationList.revoke(id, expiresAt));
+            revoked.add(id);
+        }
+        assertFalse(revocationList.revoke(revoked.get(0), expiresAt));
+        
+        List<String> notRevoked = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            notRevoked.add(UUID.randomUUID().toString());
+        }
+        for (String id : notRevoked) {
+            assertFalse(revocationList.isRevoked(id), id);
+            assertFalse(revocationList.isRevoked(id), id);
+        }
+        for (String id : revoked) {
+            assertTrue(revocationList.isRevoked(id), id);
+        }
+        double falsePositives = meterRegistry.get("auth.token.revocation.checks").tag("result", "false-positive")
+                .counter().count();
+        assertTrue(falsePositives > 0);
+        
+        // An id remembered as not revoked reads as revoked as soon as it is, and still after a rebuild from the table
+        String falsePositive = notRevoked.get(0);
+        revocationList.revoke(falsePositive, expiresAt);
+        assertTrue(revocationList.isRevoked(falsePositive));
+        revocationList.rebuild();
+        assertTrue(revocationList.isRevoked(falsePositive));
+        assertFalse(revocationList.isRevoked(notRevoked.get(1)));
+        
+        revokedTokenRepository.deleteExpired(expiresAt);
+    }
+    
+    @Test
+    void revocationDuringARebuildSurvivesItsPublication() throws Exception {
+        Set<String> table = ConcurrentHashMap.newKeySet();
+        RevokedTokenRepository repository = inMemory(table);
+        TokenRevocationList revocationList = unrefreshed(repository);
+        
+        // The rebuild stops after reading the table and before publishing, while the id is revoked
+        CountDownLatch scanned = new CountDownLatch(1);
+        CountDownLatch revoked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List.copyOf(table).forEach(invocation.<Consumer<String>>getArgument(1));
+            scanned.countDown();
+            assertTrue(revoked.await(10, TimeUnit.SECONDS));
+            return null;
+        }).when(repository).forEachActive(any(), any());
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(revocationList::rebuild);
+        assertTrue(scanned.await(10, TimeUnit.SECONDS));
+        revocationList.revoke("late", Instant.now().plusSeconds(60));
+        revoked.countDown();
+        rebuild.get(10, TimeUnit.SECONDS);
+        
+        assertTrue(published(revocationList).mightContain("late"));
+    }
+    
+    @Test
+    void revocationsRacingRebuildsAreNeverDropped() throws Exception {
+        Set<String> table = ConcurrentHashMap.newKeySet();
+        TokenRevocationList revocationList = unrefreshed(inMemory(table));
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Void> rebuilds = CompletableFuture.runAsync(() -> {
+            while (running.get()) {
+                revocationList.rebuild();
+            }
+        });
+        
+        try {
+            Instant expiresAt = Instant.now().plusSeconds(60);
+            for (int i = 0; i < 5_000; i++) {
+                String id = "racing-" + i;
+                revocationList.revoke(id, expiresAt);
+                // Whichever filter is current once revoke returns must hold the id
+                assertTrue(published(revocationList).mightContain(id), id);
+            }
+        } finally {
+            running.set(false);
+            rebuilds.get(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    private String login() throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"token-revocation\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+    
+    private static RevokedTokenRepository inMemory(Set<String> table) {
+        RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+        when(repository.insert(any(), any())).thenAnswer(invocation -> table.add(invocation.getArgument(0)));
+        when(repository.countActive(any())).thenAnswer(invocation -> (long) table.size());
+        doAnswer(invocation -> {
+            List.copyOf(table).forEach(invocation.<Consumer<String>>getArgument(1));
+            return null;
+        }).when(repository).forEachActive(any(), any());
+        return repository;
+    }
+    
+    private static TokenRevocationList unrefreshed(RevokedTokenRepository repository) {
+        TokenRevocationList revocationList = new TokenRevocationList(repository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 1_000L);
+        ReflectionTestUtils.setField(revocationList, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(revocationList, "refreshIntervalMs", 0L);
+        revocationList.start();
+        return revocationList;
+    }
+    
+    private static BloomFilter published(TokenRevocationList revocationList) {
+        return (BloomFilter) ReflectionTestUtils.getField(revocationList, "filter");
+    }
+    
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+}
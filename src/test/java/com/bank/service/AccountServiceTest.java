@@ -5,6 +5,8 @@ import com.bank.dto.response.AccountResponse;
 import com.bank.entity.Account;
 import com.bank.entity.Customer;
 import com.bank.exception.ResourceNotFoundException;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerJournal;
 import com.bank.repository.AccountRepository;
 import com.bank.repository.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,6 +32,12 @@ class AccountServiceTest {
     @Mock
     private CustomerRepository customerRepository;
     
+    @Mock
+    private LedgerJournal ledgerJournal;
+    
+    @Mock
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
     @InjectMocks
     private AccountService accountService;
     
@@ -0,0 +1,180 @@
+package com.bank.service;
+
+import com.bank.dto.response.PagedResponse;
+import com.bank.dto.response.TransactionResponse;
+import com.bank.repository.BalanceCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Seeds postings of every shape over several days, long before anything else in the database, and checks
+// balances as of many points in time against a sum over the postings, before and after checkpointing and
+// once a transfer held PENDING across the cutoff settles.
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class BalanceCheckpointServiceTest {
+    
+    private static final long CUSTOMER = 1_600_000_000L;
+    private static final long A = CUSTOMER + 1;
+    private static final long B = CUSTOMER + 2;
+    private static final long C = CUSTOMER + 3;
+    private static final LocalDate DAY = LocalDate.of(2001, 3, 1);
+    private static final LocalDateTime NOW = DAY.plusDays(5).atTime(12, 0);
+    
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+    
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final List<Posting> postings = new ArrayList<>();
+    private long nextId = CUSTOMER + 10;
+    
+    private record Posting(long accountId, Long counterAccountId, BigDecimal change, LocalDateTime createdAt) {
+    }
+    
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO customers (id, first_name, last_name, email, username, password, phone, " +
+                "address, status, created_at) VALUES (?, 'Balance', 'Test', 'balance-at@example.com', 'balance-at', " +
+                "'{noop}password', '1234567890', '1 Balance Street', 'ACTIVE', ?)", CUSTOMER, at(0, 0));
+        // A opened with 1000.00 that never went through a posting
+        account(A, "1050.00");
+        account(B, "95.00");
+        account(C, "500.00");
+        
+        post("DEPOSIT", A, null, "100.00", "SUCCESS", at(0, 10));
+        post("TRANSFER_OUT", A, null, "30.00", "SUCCESS", at(0, 12));
+        post("TRANSFER_IN", B, null, "30.00", "SUCCESS", at(0, 12));
+        post("TRANSFER", A, B, "20.00", "SUCCESS", at(1, 9));
+        post("WITHDRAWAL", B, null, "5.00", "SUCCESS", at(1, 15));
+        post("WITHDRAWAL", A, null, "999.00", "FAILED", at(1, 16));
+        post("DEPOSIT", B, null, "50.00", "SUCCESS", at(3, 8));
+        post("TRANSFER", C, null, "10.00", "PENDING", at(3, 18));
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM ledger_checkpoints WHERE name = ?", BalanceCheckpointService.CHECKPOINT);
+        jdbcTemplate.update("DELETE FROM balance_checkpoints WHERE account_id IN (?, ?, ?)", A, B, C);
+        jdbcTemplate.update("DELETE FROM transactions WHERE account_id IN (?, ?, ?)", A, B, C);
+        jdbcTemplate.update("DELETE FROM accounts WHERE customer_id = ?", CUSTOMER);
+        jdbcTemplate.update("DELETE FROM customers WHERE id = ?", CUSTOMER);
+    }
+    
+    @Test
+    void balancesAsOfAnyTimeMatchTheLedger() {
+        assertBalancesMatch();
+        
+        // The PENDING transfer on the fourth day holds the cutoff there
+        assertEquals(3, balanceCheckpointService.checkpoint(NOW));
+        assertEquals(2, checkpoints(A));
+        assertEquals(0, balanceCheckpointService.checkpoint(NOW));
+        assertBalancesMatch();
+        
+        jdbcTemplate.update("UPDATE transactions SET status = 'SUCCESS', counter_account_id = ? WHERE status = 'PENDING' " +
+                "AND account_id = ?", A, C);
+        jdbcTemplate.update("UPDATE accounts SET balance = balance - 10 WHERE id = ?", C);
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + 10 WHERE id = ?", A);
+        postings.add(new Posting(C, A, new BigDecimal("-10.00"), at(3, 18)));
+        
+        assertEquals(2, balanceCheckpointService.checkpoint(NOW));
+        assertEquals(3, checkpoints(A));
+        assertEquals(1, checkpoints(C));
+        assertBalancesMatch();
+    }
+    
+    @Test
+    void statementsCarryOpeningAndClosingBalances() {
+        balanceCheckpointService.checkpoint(NOW);
+        
+        PagedResponse<TransactionResponse> history = transactionService.getTransactionHistory(
+                CUSTOMER, "BAL" + A, at(1, 0), at(1, 0).plusDays(1).minusNanos(1000), 0, 10);
+        assertEquals(0, new BigDecimal("1070.00").compareTo(history.getOpeningBalance()));
+        assertEquals(0, new BigDecimal("1050.00").compareTo(history.getClosingBalance()));
+        assertEquals(0, new BigDecimal("1070.00").compareTo(
+                transactionService.getBalanceAt(CUSTOMER, "BAL" + A, at(0, 12))));
+        assertEquals(0, new BigDecimal("1100.00").compareTo(
+                transactionService.getBalanceAt(CUSTOMER, "BAL" + A, at(0, 12).minusNanos(1000))));
+    }
+    
+    private void assertBalancesMatch() {
+        for (int day = 0; day < 6; day++) {
+            for (int hour : new int[] {0, 9, 12, 15, 18, 23}) {
+                LocalDateTime bound = at(day, hour);
+                for (long accountId : new long[] {A, B, C}) {
+                    BigDecimal expected = expectedBefore(accountId, bound);
+                    BigDecimal actual = balanceCheckpointRepository.balanceBefore(accountId, bound);
+                    assertEquals(0, expected.compareTo(actual),
+                            () -> "Account " + accountId + " before " + bound + ": " + actual + " != " + expected);
+                }
+            }
+        }
+    }
+    
+    // The current balance less every SUCCESS posting at or after the bound
+    private BigDecimal expectedBefore(long accountId, LocalDateTime bound) {
+        BigDecimal balance = jdbcTemplate.queryForObject(
+                "SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+        for (Posting posting : postings) {
+            if (posting.createdAt().isBefore(bound)) {
+                continue;
+            }
+            if (posting.accountId() == accountId) {
+                balance = balance.subtract(posting.change());
+            }
+            if (posting.counterAccountId() != null && posting.counterAccountId() == accountId) {
+                balance = balance.add(posting.change());
+            }
+        }
+        return balance;
+    }
+    
+    private int checkpoints(long accountId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM balance_checkpoints WHERE account_id = ?", Integer.class, accountId);
+    }
+    
+    private void account(long id, String balance) {
+        jdbcTemplate.update("INSERT INTO accounts (id, account_number, account_name, account_type, balance, status, " +
+                "customer_id, created_at) VALUES (?, ?, 'Balance', 'SAVINGS', ?, 'ACTIVE', ?, ?)",
+                id, "BAL" + id, new BigDecimal(balance), CUSTOMER, at(0, 0));
+    }
+    
+    private void post(String type, long accountId, Long counterAccountId, String amount, String status,
+                      LocalDateTime createdAt) {
+        long id = nextId++;
+        jdbcTemplate.update("INSERT INTO transactions (id, transaction_id, type, amount, description, status, " +
+                "account_id, counter_account_id, created_at) VALUES (?, ?, ?, ?, 'Balance test', ?, ?, ?, ?)",
+                id, "BALTX" + id, type, new BigDecimal(amount), status, accountId, counterAccountId,
+                Timestamp.valueOf(createdAt));
+        if (status.equals("SUCCESS")) {
+            BigDecimal change = new BigDecimal(amount);
+            boolean credit = type.equals("DEPOSIT") || type.equals("TRANSFER_IN");
+            postings.add(new Posting(accountId, counterAccountId, credit ? change : change.negate(), createdAt));
+        }
+    }
+    
+    private static LocalDateTime at(int day, int hour) {
+        return DAY.plusDays(day).atTime(hour, 0);
+    }
+}
@@ -0,0 +1,181 @@
+package com.bank.service;
+
+import com.bank.dto.request.BatchItemRequest;
+import com.bank.dto.request.BatchTransactionRequest;
+import com.bank.dto.response.BatchTransactionResponse;
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.entity.Transaction;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.TransactionBatchRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransactionServiceTest {
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionBatchRepository transactionBatchRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Mock
+    private LedgerJournal ledgerJournal;
+    
+    @Mock
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
+    private BatchTransactionService batchTransactionService;
+    
+    private Account source;
+    private Account destination;
+    
+    @BeforeEach
+    void setUp() {
+        batchTransactionService = new BatchTransactionService(accountRepository, transactionBatchRepository,
+                transactionManager, Validation.buildDefaultValidatorFactory().getValidator(), ledgerJournal,
+                customerSummaryRecorder);
+        ReflectionTestUtils.setField(batchTransactionService, "chunkSize", 500);
+        
+        Customer customer = Customer.builder().id(1L).username("testuser").build();
+        Customer otherCustomer = Customer.builder().id(2L).username("otheruser").build();
+        
+        source = Account.builder()
+                .id(1L)
+                .accountNumber("ACC111111")
+                .balance(new BigDecimal("100.00"))
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build();
+        
+        destination = Account.builder()
+                .id(2L)
+                .accountNumber("ACC222222")
+                .balance(new BigDecimal("50.00"))
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(otherCustomer)
+                .build();
+    }
+    
+    @Test
+    void processBatch_AppliesItemsInOrderAgainstRunningBalances() {
+        when(accountRepository.findAllForUpdate(any())).thenReturn(List.of(source, destination));
+        
+        BatchTransactionRequest request = new BatchTransactionRequest(List.of(
+                transfer("ACC111111", "ACC222222", "60.00"),
+                transfer("ACC111111", "ACC222222", "60.00"),
+                deposit("ACC111111", "30.00"),
+                transfer("ACC111111", "ACC222222", "60.00")
+        ));
+        
+        BatchTransactionResponse response = batchTransactionService.processBatch(1L, request);
+        
+        assertEquals(4, response.getTotalItems());
+        assertEquals(3, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertFalse(response.getResults().get(1).isSuccess());
+        assertEquals("Insufficient balance for transfer", response.getResults().get(1).getMessage());
+        assertTrue(response.getResults().get(3).isSuccess());
+        assertEquals(new BigDecimal("10.00"), response.getResults().get(3).getTransaction().getBalanceAfter());
+        
+        ArgumentCaptor<Map<Long, BigDecimal>> balances = ArgumentCaptor.forClass(Map.class);
+        verify(transactionBatchRepository).updateBalances(balances.capture());
+        assertEquals(new BigDecimal("10.00"), balances.getValue().get(1L));
+        assertEquals(new BigDecimal("170.00"), balances.getValue().get(2L));
+        
+        ArgumentCaptor<List<Transaction>> transactions = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepository).insertTransactions(transactions.capture());
+        assertEquals(5, transactions.getValue().size());
+        assertEquals(new BigDecimal("100.00"), source.getBalance());
+    }
+    
+    @Test
+    void processBatch_InvalidItemsFailWithoutTouchingTheDatabase() {
+        BatchTransactionRequest request = new BatchTransactionRequest(List.of(
+                transfer("ACC111111", "ACC111111", "10.00"),
+                BatchItemRequest.builder().type(BatchItemRequest.ItemType.DEPOSIT).amount(new BigDecimal("10.00")).build(),
+                deposit("ACC111111", "0.00")
+        ));
+        
+        BatchTransactionResponse response = batchTransactionService.processBatch(1L, request);
+        
+        assertEquals(3, response.getFailed());
+        assertEquals("Cannot transfer to the same account", response.getResults().get(0).getMessage());
+        assertEquals("accountNumber: Account number is required", response.getResults().get(1).getMessage());
+        assertEquals("amount: Amount must be greater than 0", response.getResults().get(2).getMessage());
+        verifyNoInteractions(accountRepository, transactionBatchRepository);
+    }
+    
+    @Test
+    void processBatch_RejectsAccountsOwnedByOtherCustomers() {
+        when(accountRepository.findAllForUpdate(any())).thenReturn(List.of(source, destination));
+        
+        BatchTransactionRequest request = new BatchTransactionRequest(List.of(
+                BatchItemRequest.builder()
+                        .type(BatchItemRequest.ItemType.WITHDRAWAL)
+                        .accountNumber("ACC222222")
+                        .amount(new BigDecimal("10.00"))
+                        .build(),
+                deposit("ACC999999", "10.00")
+        ));
+        
+        BatchTransactionResponse response = batchTransactionService.processBatch(1L, request);
+        
+        assertEquals(2, response.getFailed());
+        assertEquals("You don't have access to this account", response.getResults().get(0).getMessage());
+        assertEquals("Account not found with number: ACC999999", response.getResults().get(1).getMessage());
+        verifyNoInteractions(transactionBatchRepository);
+    }
+    
+    @Test
+    void processBatch_FailsChunkAfterRepeatedLockFailures() {
+        when(accountRepository.findAllForUpdate(any())).thenThrow(new CannotAcquireLockException("lock timeout"));
+        
+        BatchTransactionRequest request = new BatchTransactionRequest(List.of(deposit("ACC111111", "10.00")));
+        
+        BatchTransactionResponse response = batchTransactionService.processBatch(1L, request);
+        
+        assertEquals(1, response.getFailed());
+        verify(accountRepository, times(3)).findAllForUpdate(any());
+    }
+    
+    private BatchItemRequest transfer(String from, String to, String amount) {
+        return BatchItemRequest.builder()
+                .type(BatchItemRequest.ItemType.TRANSFER)
+                .fromAccountNumber(from)
+                .toAccountNumber(to)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+    
+    private BatchItemRequest deposit(String accountNumber, String amount) {
+        return BatchItemRequest.builder()
+                .type(BatchItemRequest.ItemType.DEPOSIT)
+                .accountNumber(accountNumber)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+}
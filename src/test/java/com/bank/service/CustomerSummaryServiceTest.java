@@ -0,0 +1,168 @@
+package com.bank.service;
+
+import com.bank.dto.request.AccountRequest;
+import com.bank.dto.request.BatchItemRequest;
+import com.bank.dto.request.BatchTransactionRequest;
+import com.bank.dto.request.CustomerRegistrationRequest;
+import com.bank.dto.request.DepositRequest;
+import com.bank.dto.request.FundTransferRequest;
+import com.bank.dto.request.WithdrawalRequest;
+import com.bank.dto.response.AccountResponse;
+import com.bank.dto.response.DashboardResponse;
+import com.bank.entity.Account;
+import com.bank.repository.CustomerSummary;
+import com.bank.repository.CustomerSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Posts through every synchronous write path and checks that the maintained summary rows match a rebuild
+// from the ledger, then that a rebuild repairs a row that drifted.
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class CustomerSummaryServiceTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private BatchTransactionService batchTransactionService;
+    
+    @Autowired
+    private CustomerSummaryService customerSummaryService;
+    
+    @Autowired
+    private CustomerSummaryRepository customerSummaryRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final List<Long> customerIds = new ArrayList<>();
+    
+    @AfterEach
+    void cleanUp() {
+        singleRowTransfers(false);
+        for (Long customerId : customerIds) {
+            jdbcTemplate.update("DELETE FROM transactions WHERE account_id IN (SELECT id FROM accounts WHERE customer_id = ?) " +
+                    "OR counter_account_id IN (SELECT id FROM accounts WHERE customer_id = ?)", customerId, customerId);
+            jdbcTemplate.update("DELETE FROM accounts WHERE customer_id = ?", customerId);
+            jdbcTemplate.update("DELETE FROM customer_summaries WHERE customer_id = ?", customerId);
+            jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customerId);
+        }
+    }
+    
+    @Test
+    void postingsKeepSummariesInStepWithTheLedger() {
+        Long alice = register("sumalice");
+        Long bob = register("sumbob");
+        String aliceSavings = open(alice, Account.AccountType.SAVINGS);
+        String aliceCurrent = open(alice, Account.AccountType.CURRENT);
+        String bobSavings = open(bob, Account.AccountType.SAVINGS);
+        
+        transactionService.deposit(alice, DepositRequest.builder()
+                .accountNumber(aliceSavings).amount(new BigDecimal("1000.00")).build());
+        transactionService.withdraw(alice, WithdrawalRequest.builder()
+                .accountNumber(aliceSavings).amount(new BigDecimal("100.00")).build());
+        transfer(alice, aliceSavings, aliceCurrent, "50.00");
+        transfer(alice, aliceSavings, bobSavings, "200.00");
+        singleRowTransfers(true);
+        transfer(alice, aliceSavings, aliceCurrent, "25.00");
+        transfer(alice, aliceCurrent, bobSavings, "10.00");
+        batchTransactionService.processBatch(bob, BatchTransactionRequest.builder().items(List.of(
+                BatchItemRequest.builder().type(BatchItemRequest.ItemType.DEPOSIT)
+                        .accountNumber(bobSavings).amount(new BigDecimal("5.00")).build(),
+                BatchItemRequest.builder().type(BatchItemRequest.ItemType.TRANSFER)
+                        .fromAccountNumber(bobSavings).toAccountNumber(aliceCurrent)
+                        .amount(new BigDecimal("15.00")).build())).build());
+        
+        CustomerSummary aliceSummary = customerSummaryService.getSummary(alice);
+        assertEquals(2, aliceSummary.accounts());
+        assertEquals(0, new BigDecimal("705.00").compareTo(aliceSummary.balance()));
+        // deposit, withdrawal, both rows of each two-row transfer, two single-row transfers, bob's transfer in
+        assertEquals(8, aliceSummary.transactions());
+        assertNotNull(aliceSummary.lastActivityAt());
+        
+        for (Long customerId : customerIds) {
+            CustomerSummary stored = customerSummaryService.getSummary(customerId);
+            assertTrue(stored.matches(customerSummaryRepository.compute(customerId)),
+                    () -> "Summary " + stored + " differs from the ledger");
+            assertFalse(customerSummaryService.rebuild(customerId));
+        }
+        
+        DashboardResponse dashboard = authService.getDashboard(bob);
+        assertEquals(1, dashboard.getTotalAccounts());
+        assertEquals(0, new BigDecimal("200.00").compareTo(dashboard.getTotalBalance()));
+        assertEquals(4, dashboard.getTotalTransactions());
+    }
+    
+    @Test
+    void rebuildRepairsDriftAndMissingRows() {
+        Long carol = register("sumcarol");
+        String account = open(carol, Account.AccountType.SAVINGS);
+        transactionService.deposit(carol, DepositRequest.builder()
+                .accountNumber(account).amount(new BigDecimal("70.00")).build());
+        CustomerSummary expected = customerSummaryService.getSummary(carol);
+        
+        jdbcTemplate.update("UPDATE customer_summaries SET balance = 1, transactions = 99 WHERE customer_id = ?", carol);
+        assertTrue(customerSummaryService.rebuild(carol));
+        assertTrue(expected.matches(customerSummaryService.getSummary(carol)));
+        
+        jdbcTemplate.update("DELETE FROM customer_summaries WHERE customer_id = ?", carol);
+        assertTrue(expected.matches(customerSummaryService.getSummary(carol)));
+        assertTrue(customerSummaryService.rebuild(carol));
+        assertTrue(customerSummaryRepository.findByCustomerId(carol).isPresent());
+    }
+    
+    private Long register(String username) {
+        Long customerId = authService.registerCustomer(CustomerRegistrationRequest.builder()
+                .firstName("Summary")
+                .lastName("Test")
+                .email(username + "@example.com")
+                .username(username)
+                .password("password")
+                .phone("1234567890")
+                .address("1 Summary Street")
+                .build()).getId();
+        customerIds.add(customerId);
+        return customerId;
+    }
+    
+    private String open(Long customerId, Account.AccountType type) {
+        AccountResponse account = accountService.createAccount(customerId, AccountRequest.builder()
+                .accountName("Summary " + type)
+                .accountType(type)
+                .build());
+        return account.getAccountNumber();
+    }
+    
+    // The service is proxied for @Transactional, so the flag is set on the target
+    private void singleRowTransfers(boolean enabled) {
+        TransactionService target = AopTestUtils.getTargetObject(transactionService);
+        ReflectionTestUtils.setField(target, "singleRowTransfers", enabled);
+    }
+    
+    private void transfer(Long customerId, String from, String to, String amount) {
+        transactionService.fundTransfer(customerId, FundTransferRequest.builder()
+                .fromAccountNumber(from)
+                .toAccountNumber(to)
+                .amount(new BigDecimal(amount))
+                .build());
+    }
+}
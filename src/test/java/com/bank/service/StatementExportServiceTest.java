@@ -0,0 +1,158 @@
+package com.bank.service;
+
+import com.bank.entity.Account;
+import com.bank.entity.Transaction;
+import com.bank.exception.BadRequestException;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.AccountSnapshot;
+import com.bank.repository.TransactionExportRepository;
+import com.bank.repository.TransactionView;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatementExportServiceTest {
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionExportRepository transactionExportRepository;
+    
+    private StatementExportService statementExportService;
+    
+    @BeforeEach
+    void setUp() {
+        // Configured like Spring Boot's ObjectMapper, which writes dates as ISO strings
+        statementExportService = new StatementExportService(accountRepository, transactionExportRepository,
+                Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExport_CsvQuotesFreeTextAndShowsTransferLegs() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TransactionView> consumer = invocation.getArgument(3);
+            consumer.accept(TransactionView.of(Transaction.builder()
+                    .transactionId("TX1")
+                    .type(Transaction.TransactionType.DEPOSIT)
+                    .amount(new BigDecimal("10.00"))
+                    .balanceBefore(new BigDecimal("0.00"))
+                    .balanceAfter(new BigDecimal("10.00"))
+                    .description("Rent, \"May\"")
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .createdAt(LocalDateTime.of(2024, 5, 1, 9, 0))
+                    .build()));
+            consumer.accept(TransactionView.of(Transaction.builder()
+                    .transactionId("TX2")
+                    .type(Transaction.TransactionType.TRANSFER)
+                    .amount(new BigDecimal("4.00"))
+                    .balanceBefore(new BigDecimal("50.00"))
+                    .balanceAfter(new BigDecimal("46.00"))
+                    .counterBalanceBefore(new BigDecimal("10.00"))
+                    .counterBalanceAfter(new BigDecimal("14.00"))
+                    .fromAccountNumber("ACC2")
+                    .toAccountNumber("ACC1")
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .createdAt(LocalDateTime.of(2024, 5, 2, 9, 0))
+                    .build()));
+            return null;
+        }).when(transactionExportRepository).streamPostings(eq(1L), any(), any(), any(Consumer.class));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = statementExportService.export(1L, "ACC1", null, null, StatementExportService.Format.CSV, out);
+        
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("transactionId,type,amount"));
+        assertEquals("TX1,DEPOSIT,10.00,0.00,10.00,\"Rent, \"\"May\"\"\",SUCCESS,ACC1,,,,2024-05-01T09:00:00", lines[1]);
+        assertEquals("TX2,TRANSFER_IN,4.00,10.00,14.00,,SUCCESS,ACC1,ACC2,ACC1,,2024-05-02T09:00:00", lines[2]);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExport_CsvNeutralizesFormulas() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TransactionView> consumer = invocation.getArgument(3);
+            consumer.accept(TransactionView.of(Transaction.builder()
+                    .transactionId("TX1")
+                    .type(Transaction.TransactionType.WITHDRAWAL)
+                    .amount(new BigDecimal("5.00"))
+                    .description("=HYPERLINK(\"http://evil.example\",\"Refund\")")
+                    .status(Transaction.TransactionStatus.FAILED)
+                    .failureReason("@SUM(A1:A9)")
+                    .createdAt(LocalDateTime.of(2024, 5, 1, 9, 0))
+                    .build()));
+            consumer.accept(TransactionView.of(Transaction.builder()
+                    .transactionId("TX2")
+                    .type(Transaction.TransactionType.DEPOSIT)
+                    .amount(new BigDecimal("5.00"))
+                    .description("-5 correction")
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .createdAt(LocalDateTime.of(2024, 5, 2, 9, 0))
+                    .build()));
+            return null;
+        }).when(transactionExportRepository).streamPostings(eq(1L), any(), any(), any(Consumer.class));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        statementExportService.export(1L, "ACC1", null, null, StatementExportService.Format.CSV, out);
+        
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("TX1,WITHDRAWAL,5.00,,,\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"Refund\"\")\",FAILED,ACC1,,,"
+                + "'@SUM(A1:A9),2024-05-01T09:00:00", lines[1]);
+        assertEquals("TX2,DEPOSIT,5.00,,,'-5 correction,SUCCESS,ACC1,,,,2024-05-02T09:00:00", lines[2]);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExport_NdjsonWritesOneObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TransactionView> consumer = invocation.getArgument(3);
+            for (int i = 0; i < 3; i++) {
+                consumer.accept(TransactionView.of(Transaction.builder()
+                        .transactionId("TX" + i)
+                        .type(Transaction.TransactionType.WITHDRAWAL)
+                        .amount(BigDecimal.ONE)
+                        .status(Transaction.TransactionStatus.SUCCESS)
+                        .createdAt(LocalDateTime.of(2024, 5, 1, 9, 0))
+                        .build()));
+            }
+            return null;
+        }).when(transactionExportRepository).streamPostings(eq(1L), any(), any(), any(Consumer.class));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        statementExportService.export(1L, "ACC1", null, null, StatementExportService.Format.NDJSON, out);
+        
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].startsWith("{") && lines[2].contains("\"transactionId\":\"TX2\""));
+        assertTrue(lines[2].contains("\"createdAt\":\"2024-05-01T09:00:00\""));
+    }
+    
+    @Test
+    void testGetExportableAccountId_RejectsOtherCustomersAccount() {
+        when(accountRepository.findSnapshotByAccountNumber("ACC1")).thenReturn(Optional.of(
+                new AccountSnapshot(1L, "ACC1", 2L, Account.AccountStatus.ACTIVE, BigDecimal.ZERO)));
+        
+        assertThrows(BadRequestException.class, () -> statementExportService.getExportableAccountId(1L, "ACC1"));
+        verifyNoInteractions(transactionExportRepository);
+    }
+}
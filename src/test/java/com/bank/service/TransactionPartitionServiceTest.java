@@ -0,0 +1,116 @@
+package com.bank.service;
+
+import com.bank.entity.LedgerCheckpoint;
+import com.bank.repository.LedgerCheckpointRepository;
+import com.bank.repository.TransactionPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionServiceTest {
+    
+    @Mock
+    private TransactionPartitionRepository partitionRepository;
+    
+    @Mock
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+    
+    @InjectMocks
+    private TransactionPartitionService transactionPartitionService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionPartitionService, "monthsAhead", 2);
+        ReflectionTestUtils.setField(transactionPartitionService, "retentionMonths", 0);
+    }
+    
+    @Test
+    void testMaintain_CreatesMissingMonthsAhead() {
+        when(partitionRepository.findMonths()).thenReturn(List.of(LocalDate.of(2024, 5, 1)));
+        
+        transactionPartitionService.maintain(LocalDate.of(2024, 5, 17));
+        
+        verify(partitionRepository, never()).createMonth(LocalDate.of(2024, 5, 1));
+        verify(partitionRepository).createMonth(LocalDate.of(2024, 6, 1));
+        verify(partitionRepository).createMonth(LocalDate.of(2024, 7, 1));
+        verify(partitionRepository, never()).detachMonth(any());
+    }
+    
+    @Test
+    void testMaintain_DetachesAndDropsExpiredMonths() {
+        ReflectionTestUtils.setField(transactionPartitionService, "retentionMonths", 1);
+        ReflectionTestUtils.setField(transactionPartitionService, "dropExpired", true);
+        checkpointedThrough(LocalDate.of(2024, 4, 30));
+        when(partitionRepository.findMonths()).thenReturn(List.of(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1),
+                LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1)));
+        
+        transactionPartitionService.maintain(LocalDate.of(2024, 5, 1));
+        
+        verify(partitionRepository).detachMonth(LocalDate.of(2024, 2, 1));
+        verify(partitionRepository).dropMonth(LocalDate.of(2024, 2, 1));
+        verify(partitionRepository).detachMonth(LocalDate.of(2024, 3, 1));
+        verify(partitionRepository, never()).detachMonth(LocalDate.of(2024, 4, 1));
+        verify(partitionRepository, never()).createMonth(any());
+    }
+    
+    @Test
+    void testMaintain_KeepsDetachedMonthsWhenDropDisabled() {
+        ReflectionTestUtils.setField(transactionPartitionService, "retentionMonths", 1);
+        checkpointedThrough(LocalDate.of(2024, 5, 30));
+        when(partitionRepository.findMonths()).thenReturn(List.of(
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1), LocalDate.of(2024, 5, 1),
+                LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1)));
+        
+        transactionPartitionService.maintain(LocalDate.of(2024, 5, 31));
+        
+        verify(partitionRepository).detachMonth(LocalDate.of(2024, 3, 1));
+        verify(partitionRepository, never()).dropMonth(any());
+    }
+    
+    @Test
+    void testMaintain_KeepsExpiredMonthsUntilCheckpointed() {
+        ReflectionTestUtils.setField(transactionPartitionService, "retentionMonths", 1);
+        ReflectionTestUtils.setField(transactionPartitionService, "dropExpired", true);
+        checkpointedThrough(LocalDate.of(2024, 3, 30));
+        when(partitionRepository.findMonths()).thenReturn(List.of(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1),
+                LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1)));
+        
+        transactionPartitionService.maintain(LocalDate.of(2024, 5, 1));
+        
+        // March 31st has no checkpoint yet, so balances before April still need March's postings
+        verify(partitionRepository).dropMonth(LocalDate.of(2024, 2, 1));
+        verify(partitionRepository, never()).detachMonth(LocalDate.of(2024, 3, 1));
+    }
+    
+    @Test
+    void testMaintain_KeepsExpiredMonthsWithoutCheckpoints() {
+        ReflectionTestUtils.setField(transactionPartitionService, "retentionMonths", 1);
+        when(ledgerCheckpointRepository.findById(BalanceCheckpointService.CHECKPOINT)).thenReturn(Optional.empty());
+        when(partitionRepository.findMonths()).thenReturn(List.of(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1)));
+        
+        transactionPartitionService.maintain(LocalDate.of(2024, 5, 1));
+        
+        verify(partitionRepository, never()).detachMonth(any());
+    }
+    
+    private void checkpointedThrough(LocalDate day) {
+        when(ledgerCheckpointRepository.findById(BalanceCheckpointService.CHECKPOINT)).thenReturn(Optional.of(
+                LedgerCheckpoint.builder().name(BalanceCheckpointService.CHECKPOINT).appliedSequence(day.toEpochDay())
+                        .build()));
+    }
+}
@@ -1,28 +1,49 @@
 package com.bank.service;
 
 import com.bank.dto.request.DepositRequest;
+import com.bank.dto.request.FundTransferRequest;
 import com.bank.dto.request.WithdrawalRequest;
+import com.bank.dto.response.CursorPagedResponse;
+import com.bank.dto.response.PagedResponse;
 import com.bank.dto.response.TransactionResponse;
 import com.bank.entity.Account;
 import com.bank.entity.Customer;
 import com.bank.entity.Transaction;
 import com.bank.exception.AccountInactiveException;
+import com.bank.exception.BadRequestException;
 import com.bank.exception.InsufficientBalanceException;
 import com.bank.exception.ResourceNotFoundException;
+import com.bank.ledger.AccountLockManager;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerJournal;
+import com.bank.repository.AccountBalance;
 import com.bank.repository.AccountRepository;
+import com.bank.repository.AccountSnapshot;
+import com.bank.repository.BalanceCheckpointRepository;
 import com.bank.repository.TransactionRepository;
+import com.bank.repository.TransactionView;
+import com.bank.util.ResponseMapper;
+import com.bank.util.TransactionCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +55,24 @@ class TransactionServiceTest {
     @Mock
     private AccountRepository accountRepository;
     
+    @Mock
+    private LedgerEngine ledgerEngine;
+    
+    @Mock
+    private AccountLockManager accountLockManager;
+    
+    @Mock
+    private LedgerJournal ledgerJournal;
+    
+    @Mock
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
     @InjectMocks
     private TransactionService transactionService;
     
@@ -60,6 +99,9 @@ class TransactionServiceTest {
                 .status(Account.AccountStatus.ACTIVE)
                 .customer(customer)
                 .build();
+        
+        lenient().when(ledgerEngine.execute(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
     }
     
     @Test
@@ -81,8 +123,8 @@ class TransactionServiceTest {
                 .account(account)
                 .build();
         
-        when(accountRepository.findByAccountNumber("ACC123456")).thenReturn(Optional.of(account));
-        when(accountRepository.save(any(Account.class))).thenReturn(account);
+        when(accountRepository.credit("ACC123456", 1L, request.getAmount()))
+                .thenReturn(Optional.of(new AccountBalance(1L, 1L, new BigDecimal("1500.00"))));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
         
         TransactionResponse response = transactionService.deposit(1L, request);
@@ -90,8 +132,15 @@ class TransactionServiceTest {
         assertNotNull(response);
         assertEquals(Transaction.TransactionType.DEPOSIT, response.getType());
         assertEquals(new BigDecimal("500.00"), response.getAmount());
-        verify(accountRepository, times(1)).save(any(Account.class));
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        assertEquals("ACC123456", response.getAccountNumber());
+        
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository, times(1)).save(saved.capture());
+        assertEquals(new BigDecimal("1000.00"), saved.getValue().getBalanceBefore());
+        assertEquals(new BigDecimal("1500.00"), saved.getValue().getBalanceAfter());
+        verify(customerSummaryRecorder).posted(eq(1L), eq(new BigDecimal("500.00")), any());
+        verify(accountRepository, never()).findByAccountNumber(any());
+        verify(accountRepository, never()).save(any(Account.class));
     }
     
     @Test
@@ -127,8 +176,8 @@ class TransactionServiceTest {
                 .account(account)
                 .build();
         
-        when(accountRepository.findByAccountNumber("ACC123456")).thenReturn(Optional.of(account));
-        when(accountRepository.save(any(Account.class))).thenReturn(account);
+        when(accountRepository.debit("ACC123456", 1L, request.getAmount()))
+                .thenReturn(Optional.of(new AccountBalance(1L, 1L, new BigDecimal("700.00"))));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
         
         TransactionResponse response = transactionService.withdraw(1L, request);
@@ -136,6 +185,11 @@ class TransactionServiceTest {
         assertNotNull(response);
         assertEquals(Transaction.TransactionType.WITHDRAWAL, response.getType());
         assertEquals(new BigDecimal("300.00"), response.getAmount());
+        
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(saved.capture());
+        assertEquals(new BigDecimal("1000.00"), saved.getValue().getBalanceBefore());
+        assertEquals(new BigDecimal("700.00"), saved.getValue().getBalanceAfter());
     }
     
     @Test
@@ -167,4 +221,259 @@ class TransactionServiceTest {
             transactionService.withdraw(1L, request);
         });
     }
+    
+    @Test
+    void fundTransfer_Success() {
+        FundTransferRequest request = FundTransferRequest.builder()
+                .fromAccountNumber("ACC123456")
+                .toAccountNumber("ACC654321")
+                .amount(new BigDecimal("200.00"))
+                .build();
+        
+        when(accountLockManager.withRetry(eq("transfer"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(accountRepository.debit("ACC123456", 1L, request.getAmount()))
+                .thenReturn(Optional.of(new AccountBalance(1L, 1L, new BigDecimal("800.00"))));
+        when(accountRepository.credit("ACC654321", null, request.getAmount()))
+                .thenReturn(Optional.of(new AccountBalance(2L, 1L, new BigDecimal("250.00"))));
+        
+        TransactionResponse response = transactionService.fundTransfer(1L, request);
+        
+        assertEquals(Transaction.TransactionType.TRANSFER_OUT, response.getType());
+        assertEquals(new BigDecimal("1000.00"), response.getBalanceBefore());
+        assertEquals(new BigDecimal("800.00"), response.getBalanceAfter());
+        verify(accountLockManager).lockInIdOrder("transfer", List.of("ACC123456", "ACC654321"));
+        
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository, times(2)).save(saved.capture());
+        assertEquals(new BigDecimal("50.00"), saved.getAllValues().get(1).getBalanceBefore());
+        assertEquals(new BigDecimal("250.00"), saved.getAllValues().get(1).getBalanceAfter());
+    }
+    
+    @Test
+    void fundTransfer_InsufficientBalance() {
+        Account destination = Account.builder()
+                .id(2L)
+                .accountNumber("ACC654321")
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build();
+        
+        FundTransferRequest request = FundTransferRequest.builder()
+                .fromAccountNumber("ACC123456")
+                .toAccountNumber("ACC654321")
+                .amount(new BigDecimal("5000.00"))
+                .build();
+        
+        when(accountLockManager.withRetry(eq("transfer"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(accountRepository.findByAccountNumber("ACC123456")).thenReturn(Optional.of(account));
+        when(accountRepository.findByAccountNumber("ACC654321")).thenReturn(Optional.of(destination));
+        
+        assertThrows(InsufficientBalanceException.class, () -> {
+            transactionService.fundTransfer(1L, request);
+        });
+        verify(accountRepository, never()).credit(any(), any(), any());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+    
+    @Test
+    void fundTransfer_SameAccount() {
+        FundTransferRequest request = FundTransferRequest.builder()
+                .fromAccountNumber("ACC123456")
+                .toAccountNumber("ACC123456")
+                .amount(new BigDecimal("100.00"))
+                .build();
+        
+        assertThrows(BadRequestException.class, () -> {
+            transactionService.fundTransfer(1L, request);
+        });
+        verifyNoInteractions(ledgerEngine);
+    }
+    
+    @Test
+    void fundTransfer_AsyncAcceptsAsPending() {
+        ReflectionTestUtils.setField(transactionService, "asyncTransfers", true);
+        Account destination = Account.builder()
+                .id(2L)
+                .accountNumber("ACC654321")
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build();
+        
+        FundTransferRequest request = FundTransferRequest.builder()
+                .fromAccountNumber("ACC123456")
+                .toAccountNumber("ACC654321")
+                .amount(new BigDecimal("200.00"))
+                .build();
+        
+        when(accountRepository.findSnapshotByAccountNumber("ACC123456")).thenReturn(Optional.of(snapshot(account)));
+        when(accountRepository.findSnapshotByAccountNumber("ACC654321")).thenReturn(Optional.of(snapshot(destination)));
+        when(accountRepository.getReferenceById(1L)).thenReturn(account);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        TransactionResponse response = transactionService.fundTransfer(1L, request);
+        
+        assertEquals(Transaction.TransactionStatus.PENDING, response.getStatus());
+        assertEquals("ACC123456", response.getAccountNumber());
+        assertNull(response.getBalanceAfter());
+        verify(accountRepository, never()).debit(any(), any(), any());
+        verify(accountRepository, never()).credit(any(), any(), any());
+        verifyNoInteractions(ledgerEngine);
+    }
+    
+    @Test
+    void fundTransfer_AsyncRejectsInsufficientBalance() {
+        ReflectionTestUtils.setField(transactionService, "asyncTransfers", true);
+        Account destination = Account.builder()
+                .id(2L)
+                .accountNumber("ACC654321")
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build();
+        
+        FundTransferRequest request = FundTransferRequest.builder()
+                .fromAccountNumber("ACC123456")
+                .toAccountNumber("ACC654321")
+                .amount(new BigDecimal("5000.00"))
+                .build();
+        
+        when(accountRepository.findSnapshotByAccountNumber("ACC123456")).thenReturn(Optional.of(snapshot(account)));
+        when(accountRepository.findSnapshotByAccountNumber("ACC654321")).thenReturn(Optional.of(snapshot(destination)));
+        
+        assertThrows(InsufficientBalanceException.class, () -> {
+            transactionService.fundTransfer(1L, request);
+        });
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+    
+    @Test
+    void getTransaction_ReturnsFailureReason() {
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .transactionId("TXN123")
+                .type(Transaction.TransactionType.TRANSFER_OUT)
+                .amount(new BigDecimal("200.00"))
+                .status(Transaction.TransactionStatus.FAILED)
+                .failureReason("Insufficient balance for transfer")
+                .account(account)
+                .build();
+        
+        when(transactionRepository.findViewByTransactionId("TXN123"))
+                .thenReturn(Optional.of(TransactionView.of(transaction)));
+        when(accountRepository.findSnapshotsByIdIn(List.of(1L))).thenReturn(List.of(snapshot(account)));
+        
+        TransactionResponse response = transactionService.getTransaction(1L, "TXN123");
+        
+        assertEquals(Transaction.TransactionStatus.FAILED, response.getStatus());
+        assertEquals("Insufficient balance for transfer", response.getFailureReason());
+        assertThrows(BadRequestException.class, () -> {
+            transactionService.getTransaction(2L, "TXN123");
+        });
+    }
+    
+    @Test
+    void fundTransfer_SingleRowStoresBothLegs() {
+        ReflectionTestUtils.setField(transactionService, "singleRowTransfers", true);
+        FundTransferRequest request = FundTransferRequest.builder()
+                .fromAccountNumber("ACC123456")
+                .toAccountNumber("ACC654321")
+                .amount(new BigDecimal("200.00"))
+                .build();
+        
+        when(accountLockManager.withRetry(eq("transfer"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(accountRepository.debit("ACC123456", 1L, request.getAmount()))
+                .thenReturn(Optional.of(new AccountBalance(1L, 1L, new BigDecimal("800.00"))));
+        when(accountRepository.credit("ACC654321", null, request.getAmount()))
+                .thenReturn(Optional.of(new AccountBalance(2L, 1L, new BigDecimal("250.00"))));
+        
+        TransactionResponse response = transactionService.fundTransfer(1L, request);
+        
+        assertEquals(Transaction.TransactionType.TRANSFER_OUT, response.getType());
+        assertEquals(new BigDecimal("800.00"), response.getBalanceAfter());
+        
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository, times(1)).save(saved.capture());
+        Transaction transfer = saved.getValue();
+        assertEquals(Transaction.TransactionType.TRANSFER, transfer.getType());
+        assertEquals(new BigDecimal("50.00"), transfer.getCounterBalanceBefore());
+        assertEquals(new BigDecimal("250.00"), transfer.getCounterBalanceAfter());
+        verify(customerSummaryRecorder).posted(eq(1L), eq(new BigDecimal("-200.00")), any());
+        verify(customerSummaryRecorder).counterPosted(eq(1L), eq(1L), eq(new BigDecimal("200.00")), any());
+        
+        TransactionResponse creditLine = ResponseMapper.toTransactionResponse(transfer, "ACC654321");
+        assertEquals(Transaction.TransactionType.TRANSFER_IN, creditLine.getType());
+        assertEquals(new BigDecimal("250.00"), creditLine.getBalanceAfter());
+    }
+    
+    @Test
+    void getAccountStatement_CursorMergesLegsAndSeeks() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Transaction newest = Transaction.builder().id(3L).createdAt(now).account(account)
+                .type(Transaction.TransactionType.DEPOSIT).build();
+        Transaction credit = Transaction.builder().id(2L).createdAt(now.minusMinutes(1))
+                .type(Transaction.TransactionType.TRANSFER).toAccountNumber("ACC123456").build();
+        Transaction oldest = Transaction.builder().id(1L).createdAt(now.minusMinutes(2)).account(account)
+                .type(Transaction.TransactionType.WITHDRAWAL).build();
+        
+        when(transactionRepository.existsByCounterAccountIsNotNull()).thenReturn(true);
+        transactionService.detectCounterLegs();
+        when(accountRepository.findSnapshotByAccountNumber("ACC123456")).thenReturn(Optional.of(snapshot(account)));
+        when(transactionRepository.findPostingsBefore(eq(1L), any(), any(), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of(TransactionView.of(newest), TransactionView.of(oldest)));
+        when(transactionRepository.findCounterPostingsBefore(eq(1L), any(), any(), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of(TransactionView.of(credit)));
+        
+        CursorPagedResponse<TransactionResponse> firstPage =
+                transactionService.getAccountStatement(1L, "ACC123456", "", 2);
+        
+        assertEquals(List.of(3L, 2L), firstPage.getContent().stream().map(TransactionResponse::getId).toList());
+        assertEquals(Transaction.TransactionType.TRANSFER_IN, firstPage.getContent().get(1).getType());
+        assertFalse(firstPage.isLast());
+        
+        TransactionCursor next = TransactionCursor.decode(firstPage.getNextCursor());
+        assertEquals(new TransactionCursor(now.minusMinutes(1), 2L), next);
+        verify(transactionRepository, never()).countPostings(any(), any(), any());
+    }
+    
+    @Test
+    void getAccountStatement_LaterPagesReadOnlyTheDebitLegWithoutBalances() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Transaction posting = Transaction.builder().id(5L).createdAt(now).account(account)
+                .type(Transaction.TransactionType.DEPOSIT).build();
+        when(transactionRepository.existsByCounterAccountIsNotNull()).thenReturn(false);
+        transactionService.detectCounterLegs();
+        when(accountRepository.findSnapshotByAccountNumber("ACC123456")).thenReturn(Optional.of(snapshot(account)));
+        when(transactionRepository.countPostings(eq(1L), any(), any())).thenReturn(30L);
+        when(transactionRepository.findPostingsBefore(eq(1L), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(TransactionView.of(posting)));
+        
+        PagedResponse<TransactionResponse> offsetPage = transactionService.getAccountStatement(1L, "ACC123456", 1, 10);
+        String cursor = new TransactionCursor(now.plusMinutes(1), 9L).encode();
+        CursorPagedResponse<TransactionResponse> cursorPage =
+                transactionService.getAccountStatement(1L, "ACC123456", cursor, 10);
+        
+        assertEquals(30L, offsetPage.getTotalElements());
+        assertNull(offsetPage.getOpeningBalance());
+        assertNull(cursorPage.getClosingBalance());
+        assertEquals(List.of(5L), cursorPage.getContent().stream().map(TransactionResponse::getId).toList());
+        verify(transactionRepository, never()).countCounterPostings(any(), any(), any());
+        verify(transactionRepository, never()).findCounterPostingsBefore(any(), any(), any(), anyLong(), any());
+        verifyNoInteractions(balanceCheckpointRepository);
+    }
+    
+    @Test
+    void getAccountStatement_RejectsInvalidCursor() {
+        when(accountRepository.findSnapshotByAccountNumber("ACC123456")).thenReturn(Optional.of(snapshot(account)));
+        
+        assertThrows(BadRequestException.class, () -> {
+            transactionService.getAccountStatement(1L, "ACC123456", "not-a-cursor", 10);
+        });
+    }
+    
+    private static AccountSnapshot snapshot(Account account) {
+        return new AccountSnapshot(account.getId(), account.getAccountNumber(), account.getCustomer().getId(),
+                account.getStatus(), account.getBalance());
+    }
 }
@@ -0,0 +1,143 @@
+package com.bank.service;
+
+import com.bank.entity.Account;
+import com.bank.entity.Customer;
+import com.bank.entity.Transaction;
+import com.bank.ledger.CustomerSummaryRecorder;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.TransactionBatchRepository;
+import com.bank.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferSettlementServiceTest {
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionBatchRepository transactionBatchRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Mock
+    private CustomerSummaryRecorder customerSummaryRecorder;
+    
+    @InjectMocks
+    private TransferSettlementService transferSettlementService;
+    
+    private Account source;
+    private Account destination;
+    
+    @BeforeEach
+    void setUp() {
+        Customer customer = Customer.builder().id(1L).build();
+        source = Account.builder()
+                .id(1L)
+                .accountNumber("ACC1")
+                .balance(new BigDecimal("100.00"))
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build();
+        destination = Account.builder()
+                .id(2L)
+                .accountNumber("ACC2")
+                .balance(new BigDecimal("10.00"))
+                .status(Account.AccountStatus.ACTIVE)
+                .customer(customer)
+                .build();
+        
+        ReflectionTestUtils.setField(transferSettlementService, "workers", 1);
+        ReflectionTestUtils.setField(transferSettlementService, "batchSize", 200);
+        transferSettlementService.start();
+    }
+    
+    @Test
+    void settleBatch_SettlesInOrderAndFailsOverdraft() {
+        Transaction first = pendingTransfer(10L, "80.00");
+        Transaction second = pendingTransfer(11L, "30.00");
+        
+        when(transactionRepository.findIdsByStatusInSlot(eq(Transaction.TransactionStatus.PENDING), eq(1), eq(0), any()))
+                .thenReturn(List.of(10L, 11L));
+        when(transactionRepository.findAllForUpdate(List.of(10L, 11L))).thenReturn(List.of(first, second));
+        when(accountRepository.findAllForUpdate(any())).thenReturn(List.of(source, destination));
+        
+        assertEquals(2, transferSettlementService.settleBatch(0));
+        
+        assertEquals(Transaction.TransactionStatus.SUCCESS, first.getStatus());
+        assertEquals(new BigDecimal("100.00"), first.getBalanceBefore());
+        assertEquals(new BigDecimal("20.00"), first.getBalanceAfter());
+        assertEquals(Transaction.TransactionStatus.FAILED, second.getStatus());
+        assertEquals("Insufficient balance for transfer", second.getFailureReason());
+        
+        verify(transactionBatchRepository).updateBalances(
+                Map.of(1L, new BigDecimal("20.00"), 2L, new BigDecimal("90.00")));
+        ArgumentCaptor<List<Transaction>> credits = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(credits.capture());
+        assertEquals(1, credits.getValue().size());
+        assertEquals(Transaction.TransactionType.TRANSFER_IN, credits.getValue().get(0).getType());
+        assertEquals(new BigDecimal("90.00"), credits.getValue().get(0).getBalanceAfter());
+    }
+    
+    @Test
+    void settleBatch_NothingPending() {
+        when(transactionRepository.findIdsByStatusInSlot(any(), anyInt(), anyInt(), any())).thenReturn(List.of());
+        
+        assertEquals(0, transferSettlementService.settleBatch(0));
+        verifyNoInteractions(transactionManager, accountRepository, transactionBatchRepository);
+    }
+    
+    @Test
+    void settleBatch_CompletesSingleRowTransfer() {
+        Transaction transfer = pendingTransfer(10L, "80.00");
+        transfer.setType(Transaction.TransactionType.TRANSFER);
+        
+        when(transactionRepository.findIdsByStatusInSlot(any(), anyInt(), anyInt(), any())).thenReturn(List.of(10L));
+        when(transactionRepository.findAllForUpdate(List.of(10L))).thenReturn(List.of(transfer));
+        when(accountRepository.findAllForUpdate(any())).thenReturn(List.of(source, destination));
+        
+        assertEquals(1, transferSettlementService.settleBatch(0));
+        
+        assertEquals(Transaction.TransactionStatus.SUCCESS, transfer.getStatus());
+        assertEquals(destination, transfer.getCounterAccount());
+        assertEquals(new BigDecimal("90.00"), transfer.getCounterBalanceAfter());
+        verify(transactionBatchRepository).updateBalances(
+                Map.of(1L, new BigDecimal("20.00"), 2L, new BigDecimal("90.00")));
+        verify(transactionRepository, never()).saveAll(any());
+    }
+    
+    private Transaction pendingTransfer(Long id, String amount) {
+        return Transaction.builder()
+                .id(id)
+                .transactionId("TXN" + id)
+                .type(Transaction.TransactionType.TRANSFER_OUT)
+                .amount(new BigDecimal(amount))
+                .status(Transaction.TransactionStatus.PENDING)
+                .account(source)
+                .fromAccountNumber("ACC1")
+                .toAccountNumber("ACC2")
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.bank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+    
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000L;
+    
+    @Test
+    void nextId_IsUniqueAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        int threads = 8;
+        int idsPerThread = 100_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    long previous = Long.MIN_VALUE;
+                    for (int i = 0; i < idsPerThread; i++) {
+                        long id = generator.nextId();
+                        assertTrue(id > previous, "ids must increase within a thread");
+                        ids.add(id);
+                        previous = id;
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(threads * idsPerThread, ids.size());
+        assertTrue(ids.stream().allMatch(id -> SnowflakeIdGenerator.nodeIdOf(id) == 7));
+    }
+    
+    @Test
+    void nextId_EncodesTimestampNodeAndSequence() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42, () -> NOW);
+        
+        long first = generator.nextId();
+        long second = generator.nextId();
+        
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(first));
+        assertEquals(42, SnowflakeIdGenerator.nodeIdOf(first));
+        assertEquals(0, SnowflakeIdGenerator.sequenceOf(first));
+        assertEquals(1, SnowflakeIdGenerator.sequenceOf(second));
+    }
+    
+    @Test
+    void nextId_CarriesIntoNextMillisecondWhenSequenceRunsOut() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW);
+        
+        long last = 0;
+        for (int i = 0; i <= 4096; i++) {
+            last = generator.nextId();
+        }
+        
+        assertEquals(NOW + 1, SnowflakeIdGenerator.timestampOf(last));
+        assertEquals(0, SnowflakeIdGenerator.sequenceOf(last));
+    }
+    
+    @Test
+    void nextId_StaysMonotonicWhenClockMovesBackwards() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+        
+        long before = generator.nextId();
+        clock.set(NOW - 5_000);
+        long after = generator.nextId();
+        
+        assertTrue(after > before);
+    }
+    
+    @Test
+    void constructor_RejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+    
+    @Test
+    void accountNumberGenerator_KeepsPrefixedFormats() {
+        String transactionId = AccountNumberGenerator.generateTransactionId();
+        String accountNumber = AccountNumberGenerator.generateAccountNumber();
+        
+        assertTrue(transactionId.matches("TXN\\d+"));
+        assertTrue(accountNumber.matches("ACC\\d+"));
+        assertNotEquals(transactionId.substring(3), accountNumber.substring(3));
+    }
+}